@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.container.service.ArkServiceContainer;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ExportPackageTrie;
+import com.alipay.sofa.ark.container.service.classloader.ResourceStemMatcher;
+import com.alipay.sofa.ark.container.service.classloader.PluginClassLoader;
+import com.alipay.sofa.ark.spi.model.BizState;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader;
+import com.alipay.sofa.ark.spi.service.extension.ExtensionLoaderService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginDeployService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+import com.google.common.base.Strings;
+import com.google.inject.Guice;
+import org.apache.commons.io.IOUtils;
+
+import java.net.URL;
+import java.util.LinkedList;
+
+/**
+ * Stands up an {@link ArkServiceContainer} with synthetic plugins and a biz for benchmarks.
+ *
+ * <p>Class files come from real third party jars on the benchmark classpath: plugin
+ * "commons-io" exports {@code org.apache.commons.io}, plugin "guava" exports
+ * {@code com.google.common} and imports it into "commons-io", and the biz owns the guice jar.
+ * Extra plugins export packages without classes and resource stems without resources, so the
+ * export indexes have a realistic size.</p>
+ *
+ * @since 2.3.3
+ */
+public class ArkBenchmarkContext {
+
+    public static final String  PLUGIN_LOCAL_CLASS  = "org.apache.commons.io.FileUtils";
+
+    public static final String  PLUGIN_IMPORT_CLASS = "com.google.common.base.Strings";
+
+    public static final String  BIZ_EXPORT_CLASS    = "org.apache.commons.io.IOUtils";
+
+    public static final String  BIZ_LOCAL_CLASS     = "com.google.inject.Guice";
+
+    public static final String  JDK_CLASS           = "java.util.ArrayList";
+
+    public static final String  MISS_CLASS          = "com.alipay.sofa.ark.benchmark.NotExist";
+
+    public static final String  LOCAL_RESOURCE      = "com/google/inject/Guice.class";
+
+    public static final String  EXPORT_RESOURCE     = "org/apache/commons/io/IOUtils.class";
+
+    public static final String  MISS_RESOURCE       = "com/alipay/sofa/ark/benchmark/not-exist.xml";
+
+    private ArkServiceContainer arkServiceContainer;
+
+    private ClassLoaderService  classLoaderService;
+
+    private PluginModel         exportPlugin;
+
+    private PluginModel         importPlugin;
+
+    private BizModel            biz;
+
+    /**
+     * Start container and register plugins and biz
+     *
+     * @param syntheticPlugins count of extra plugins which only export packages
+     * @param exportMode export mode of plugin "commons-io"
+     * @param declaredMode whether the biz declares the libraries it imports
+     */
+    public void setUp(int syntheticPlugins, String exportMode, boolean declaredMode) {
+        arkServiceContainer = new ArkServiceContainer(new String[] {});
+        arkServiceContainer.start();
+        ArkServiceLoader.setExtensionLoaderService(arkServiceContainer
+            .getService(ExtensionLoaderService.class));
+        classLoaderService = arkServiceContainer.getService(ClassLoaderService.class);
+        PluginManagerService pluginManagerService = arkServiceContainer
+            .getService(PluginManagerService.class);
+
+        URL commonsIo = codeSource(IOUtils.class);
+        URL guava = codeSource(Strings.class);
+        URL guice = codeSource(Guice.class);
+
+        importPlugin = createPlugin("guava", guava, "com.google.common.*", "", "");
+        exportPlugin = createPlugin("commons-io", commonsIo, "org.apache.commons.io.*",
+            "com.google.common.*", "");
+        exportPlugin.setExportMode(exportMode);
+        pluginManagerService.registerPlugin(importPlugin);
+        pluginManagerService.registerPlugin(exportPlugin);
+        for (int i = 0; i < syntheticPlugins; i++) {
+            pluginManagerService.registerPlugin(createPlugin("synthetic-" + i, commonsIo,
+                String.format("com.synthetic.p%d.*,com.synthetic.p%d.api", i, i), "",
+                String.format("synthetic/p%d/*,*.p%d.xml", i, i)));
+        }
+        arkServiceContainer.getService(PluginDeployService.class).deploy();
+        classLoaderService.prepareExportClassAndResourceCache();
+
+        URL[] bizUrls = new URL[] { guice };
+        biz = new BizModel().setBizState(BizState.RESOLVED);
+        biz.setBizName("benchmark-biz").setBizVersion("1.0.0").setDenyImportClasses("")
+            .setDenyImportPackages("").setDenyImportResources("").setClassPath(bizUrls);
+        if (declaredMode) {
+            biz.setDeclaredLibraries("commons-io");
+        }
+        for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+            for (String exportIndex : plugin.getExportPackageNodes()) {
+                biz.getExportNodeAndClassLoaderMap().putIfAbsent(exportIndex, plugin);
+            }
+            for (String exportIndex : plugin.getExportPackageStems()) {
+                biz.getExportStemAndClassLoaderMap().putIfAbsent(exportIndex, plugin);
+            }
+            for (String exportIndex : plugin.getExportClasses()) {
+                biz.getExportClassAndClassLoaderMap().putIfAbsent(exportIndex, plugin);
+            }
+            for (String resource : plugin.getExportResources()) {
+                biz.getExportResourceAndClassLoaderMap()
+                    .computeIfAbsent(resource, k -> new LinkedList<>()).add(plugin);
+            }
+            for (String resource : plugin.getExportPrefixResourceStems()) {
+                biz.getExportPrefixStemResourceAndClassLoaderMap()
+                    .computeIfAbsent(resource, k -> new LinkedList<>()).add(plugin);
+            }
+            for (String resource : plugin.getExportSuffixResourceStems()) {
+                biz.getExportSuffixStemResourceAndClassLoaderMap()
+                    .computeIfAbsent(resource, k -> new LinkedList<>()).add(plugin);
+            }
+        }
+        biz.setExportPackageTrie(ExportPackageTrie.build(biz.getExportClassAndClassLoaderMap(),
+            biz.getExportNodeAndClassLoaderMap(), biz.getExportStemAndClassLoaderMap()));
+        biz.setExportResourceStemMatcher(ResourceStemMatcher.build(
+            biz.getExportPrefixStemResourceAndClassLoaderMap(),
+            biz.getExportSuffixStemResourceAndClassLoaderMap()));
+        BizClassLoader bizClassLoader = new BizClassLoader(biz.getIdentity(), bizUrls);
+        bizClassLoader.setBizModel(biz);
+        biz.setClassLoader(bizClassLoader);
+        arkServiceContainer.getService(BizManagerService.class).registerBiz(biz);
+        biz.setBizState(BizState.ACTIVATED);
+    }
+
+    public void tearDown() {
+        if (arkServiceContainer != null) {
+            arkServiceContainer.stop();
+        }
+    }
+
+    private PluginModel createPlugin(String name, URL url, String exportPackages,
+                                     String importPackages, String exportResources) {
+        PluginModel plugin = new PluginModel();
+        plugin.setPluginName(name).setClassPath(new URL[] { url }).setImportClasses("")
+            .setImportPackages(importPackages).setExportClasses("")
+            .setExportPackages(exportPackages).setImportResources("")
+            .setExportResources(exportResources)
+            .setPluginClassLoader(new PluginClassLoader(name, new URL[] { url }));
+        return plugin;
+    }
+
+    private static URL codeSource(Class<?> clazz) {
+        return clazz.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    public ClassLoaderService getClassLoaderService() {
+        return classLoaderService;
+    }
+
+    public ClassLoader getPluginClassLoader() {
+        return exportPlugin.getPluginClassLoader();
+    }
+
+    public ClassLoader getBizClassLoader() {
+        return biz.getBizClassLoader();
+    }
+
+    public BizModel getBiz() {
+        return biz;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency of {@link com.alipay.sofa.ark.container.service.classloader.BizClassLoader#loadClass(String)}
+ * for each step of the delegation chain.
+ *
+ * <p>Hit benchmarks repeat the same name and mostly measure the class cache, the uncached
+ * miss benchmark uses a new name on each call and walks the whole chain.</p>
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BizClassLoaderBenchmark {
+
+    @Param({ PluginModel.EXPORTMODE_CLASSLOADER, PluginModel.EXPORTMODE_OVERRIDE })
+    public String               exportMode;
+
+    @Param({ "false", "true" })
+    public boolean              declaredMode;
+
+    @Param({ "20" })
+    public int                  syntheticPlugins;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoader         bizClassLoader;
+
+    private final AtomicLong    missCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ArkBenchmarkContext();
+        context.setUp(syntheticPlugins, exportMode, declaredMode);
+        bizClassLoader = context.getBizClassLoader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+    }
+
+    @Benchmark
+    public Class<?> jdkClass() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(ArkBenchmarkContext.JDK_CLASS);
+    }
+
+    @Benchmark
+    public Class<?> exportClassHit() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(ArkBenchmarkContext.BIZ_EXPORT_CLASS);
+    }
+
+    @Benchmark
+    public Class<?> localClassHit() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(ArkBenchmarkContext.BIZ_LOCAL_CLASS);
+    }
+
+    @Benchmark
+    public Object classMiss() {
+        return loadMiss(ArkBenchmarkContext.MISS_CLASS);
+    }
+
+    @Benchmark
+    public Object classMissUncached() {
+        return loadMiss(ArkBenchmarkContext.MISS_CLASS + missCounter.incrementAndGet());
+    }
+
+    private Object loadMiss(String name) {
+        try {
+            return bizClassLoader.loadClass(name);
+        } catch (ClassNotFoundException e) {
+            return e;
+        }
+    }
+}
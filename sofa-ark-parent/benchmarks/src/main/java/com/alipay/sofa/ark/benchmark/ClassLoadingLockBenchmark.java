@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.spi.constant.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent throughput of {@link com.alipay.sofa.ark.container.service.classloader.BizClassLoader#loadClass(String)}
+ * with weakly referenced class loading locks compared to the lock map of JDK.
+ *
+ * <p>Lookups answered by the class cache, or by the loaded class index when enabled, take no
+ * class loading lock, so the lock provider only matters to lookups reaching the local stage,
+ * where {@link ClassLoader#loadClass(String, boolean)} takes the lock. The uncached miss
+ * benchmark uses a new name on each call, which grows the lock map of JDK without bound, and
+ * is the one comparing the lock providers; the local class hit is a baseline.</p>
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ClassLoadingLockBenchmark {
+
+    @Param({ "true", "false" })
+    public String               weakLock;
+
+    @Param({ "true", "false" })
+    public String               loadedIndex;
+
+    @Param({ "20" })
+    public int                  syntheticPlugins;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoader         bizClassLoader;
+
+    private final AtomicLong    missCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(Constants.ARK_CLASSLOADER_LOCK_WEAK_ENABLE, weakLock);
+        System.setProperty(Constants.ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE, loadedIndex);
+        context = new ArkBenchmarkContext();
+        context.setUp(syntheticPlugins, PluginModel.EXPORTMODE_CLASSLOADER, false);
+        bizClassLoader = context.getBizClassLoader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+        System.clearProperty(Constants.ARK_CLASSLOADER_LOCK_WEAK_ENABLE);
+        System.clearProperty(Constants.ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE);
+    }
+
+    @Benchmark
+    public Class<?> localClassHit() throws ClassNotFoundException {
+        return bizClassLoader.loadClass(ArkBenchmarkContext.BIZ_LOCAL_CLASS);
+    }
+
+    @Benchmark
+    public Object classMissUncached() {
+        try {
+            return bizClassLoader.loadClass(ArkBenchmarkContext.MISS_CLASS
+                                            + missCounter.incrementAndGet());
+        } catch (ClassNotFoundException e) {
+            return e;
+        }
+    }
+}
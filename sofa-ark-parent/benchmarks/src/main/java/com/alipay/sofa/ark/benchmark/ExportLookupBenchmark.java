@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of {@link ClassLoaderService#findExportPlugin(String)} with growing
+ * count of exporting plugins
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportLookupBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int                  syntheticPlugins;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoaderService  classLoaderService;
+
+    private String              syntheticNodeClass;
+
+    private String              syntheticStemClass;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ArkBenchmarkContext();
+        context.setUp(syntheticPlugins, PluginModel.EXPORTMODE_CLASSLOADER, false);
+        classLoaderService = context.getClassLoaderService();
+        int last = syntheticPlugins - 1;
+        syntheticNodeClass = String.format("com.synthetic.p%d.api.Service", last);
+        syntheticStemClass = String.format("com.synthetic.p%d.impl.deep.ServiceImpl", last);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+    }
+
+    @Benchmark
+    public Plugin exportStemHit() {
+        return classLoaderService.findExportPlugin(ArkBenchmarkContext.BIZ_EXPORT_CLASS);
+    }
+
+    @Benchmark
+    public Plugin syntheticNodeHit() {
+        return classLoaderService.findExportPlugin(syntheticNodeClass);
+    }
+
+    @Benchmark
+    public Plugin syntheticStemHit() {
+        return classLoaderService.findExportPlugin(syntheticStemClass);
+    }
+
+    @Benchmark
+    public Plugin exportMiss() {
+        return classLoaderService.findExportPlugin(ArkBenchmarkContext.MISS_CLASS);
+    }
+}
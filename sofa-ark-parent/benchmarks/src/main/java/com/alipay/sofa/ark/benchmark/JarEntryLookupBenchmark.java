@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.loader.jar.JarFile;
+import com.google.common.base.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link JarFile#getJarEntry(String)} for a class, a directory matched with the
+ * trailing slash, and a missing name. Run with {@code -prof gc}, the
+ * {@code gc.alloc.rate.norm} of a lookup of a cached entry is expected to be zero.
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JarEntryLookupBenchmark {
+
+    @Param({ "com/google/common/base/Strings.class", "com/google/common/base",
+            "com/google/common/base/Missing.class" })
+    public String   entryName;
+
+    private JarFile jarFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File file = new File(Strings.class.getProtectionDomain().getCodeSource().getLocation()
+            .toURI());
+        jarFile = new JarFile(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        jarFile.close();
+    }
+
+    @Benchmark
+    public Object getJarEntry() {
+        return jarFile.getJarEntry(entryName);
+    }
+
+    @Benchmark
+    public boolean containsEntry() {
+        return jarFile.containsEntry(entryName);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.container.service.classloader.ClassPathEntryFilter;
+import com.google.inject.Guice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE;
+
+/**
+ * Cost and benefit of the negative lookup filter of
+ * {@link com.alipay.sofa.ark.container.service.classloader.BizClassLoader}: {@code build}
+ * is paid once per biz on its first local miss, {@code classMissUncached} is the saving of
+ * each later miss. The filter pays off after about {@code build / (miss(false) - miss(true))}
+ * misses.
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NegativeLookupFilterBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean              filter;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoader         bizClassLoader;
+
+    private URL[]               classPath;
+
+    private final AtomicLong    missCounter = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ArkConfigs
+            .setSystemProperty(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE, String.valueOf(filter));
+        context = new ArkBenchmarkContext();
+        context.setUp(0, PluginModel.EXPORTMODE_CLASSLOADER, false);
+        bizClassLoader = context.getBizClassLoader();
+        classPath = new URL[] { Guice.class.getProtectionDomain().getCodeSource().getLocation() };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+        System.clearProperty(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE);
+    }
+
+    @Benchmark
+    public Object build() {
+        return ClassPathEntryFilter.build(classPath, 10);
+    }
+
+    @Benchmark
+    public Object classMissUncached() {
+        try {
+            return bizClassLoader.loadClass(ArkBenchmarkContext.MISS_CLASS
+                                            + missCounter.incrementAndGet());
+        } catch (ClassNotFoundException e) {
+            return e;
+        }
+    }
+}
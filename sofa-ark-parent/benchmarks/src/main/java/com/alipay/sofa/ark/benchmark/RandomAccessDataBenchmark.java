@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessData;
+import com.alipay.sofa.ark.loader.data.RandomAccessData;
+import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
+import com.alipay.sofa.ark.loader.data.RandomAccessDataFile;
+import com.google.common.base.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent throughput of reading small sections of a jar through each
+ * {@link RandomAccessData} implementation: positional reads on a file channel, the pool of
+ * random access files, and memory mapped windows.
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class RandomAccessDataBenchmark {
+
+    @Param({ "channel", "pool", "mapped" })
+    public String            dataType;
+
+    @Param({ "4096" })
+    public int               sectionSize;
+
+    private RandomAccessData data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File file = new File(Strings.class.getProtectionDomain().getCodeSource().getLocation()
+            .toURI());
+        if ("pool".equals(dataType)) {
+            data = new RandomAccessDataFile(file, 4);
+        } else if ("mapped".equals(dataType)) {
+            data = new MappedRandomAccessData(file);
+        } else {
+            data = new RandomAccessDataFile(file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (data instanceof MappedRandomAccessData) {
+            ((MappedRandomAccessData) data).close();
+        } else {
+            ((RandomAccessDataFile) data).close();
+        }
+    }
+
+    @Benchmark
+    public long readPerRead() throws IOException {
+        return readSection(ResourceAccess.PER_READ);
+    }
+
+    @Benchmark
+    public long readOnce() throws IOException {
+        return readSection(ResourceAccess.ONCE);
+    }
+
+    private long readSection(ResourceAccess access) throws IOException {
+        long offset = ThreadLocalRandom.current().nextLong(data.getSize() - sectionSize);
+        byte[] buffer = new byte[1024];
+        long total = 0;
+        try (InputStream inputStream = data.getSubsection(offset, sectionSize).getInputStream(
+            access)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
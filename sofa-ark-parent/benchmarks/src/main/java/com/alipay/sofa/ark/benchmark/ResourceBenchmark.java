@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of biz {@link ClassLoader#getResource(String)} and
+ * {@link ClassLoader#getResources(String)}
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean              declaredMode;
+
+    @Param({ "20" })
+    public int                  syntheticPlugins;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoader         bizClassLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ArkBenchmarkContext();
+        context.setUp(syntheticPlugins, PluginModel.EXPORTMODE_CLASSLOADER, declaredMode);
+        bizClassLoader = context.getBizClassLoader();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+    }
+
+    @Benchmark
+    public URL localResourceHit() {
+        return bizClassLoader.getResource(ArkBenchmarkContext.LOCAL_RESOURCE);
+    }
+
+    @Benchmark
+    public URL exportResourceHit() {
+        return bizClassLoader.getResource(ArkBenchmarkContext.EXPORT_RESOURCE);
+    }
+
+    @Benchmark
+    public URL resourceMiss() {
+        return bizClassLoader.getResource(ArkBenchmarkContext.MISS_RESOURCE);
+    }
+
+    @Benchmark
+    public void localResources(Blackhole blackhole) throws IOException {
+        consume(bizClassLoader.getResources(ArkBenchmarkContext.LOCAL_RESOURCE), blackhole);
+    }
+
+    @Benchmark
+    public void resourcesMiss(Blackhole blackhole) throws IOException {
+        consume(bizClassLoader.getResources(ArkBenchmarkContext.MISS_RESOURCE), blackhole);
+    }
+
+    private void consume(Enumeration<URL> urls, Blackhole blackhole) {
+        while (urls.hasMoreElements()) {
+            blackhole.consume(urls.nextElement());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.benchmark;
+
+import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of export resource stem resolution, i.e.
+ * {@link ClassLoaderService#findExportResourceClassLoadersInOrder(String)} and its by-biz
+ * variant, with growing count of plugins exporting 'synthetic/pN/*' and '*.pN.xml'
+ *
+ * @since 2.3.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceStemLookupBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int                  syntheticPlugins;
+
+    private ArkBenchmarkContext context;
+
+    private ClassLoaderService  classLoaderService;
+
+    private BizModel            biz;
+
+    private String              prefixStemResource;
+
+    private String              suffixStemResource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new ArkBenchmarkContext();
+        context.setUp(syntheticPlugins, PluginModel.EXPORTMODE_CLASSLOADER, false);
+        classLoaderService = context.getClassLoaderService();
+        biz = context.getBiz();
+        int last = syntheticPlugins - 1;
+        prefixStemResource = String.format("synthetic/p%d/conf/application.yml", last);
+        suffixStemResource = String.format("conf/beans.p%d.xml", last);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.tearDown();
+    }
+
+    @Benchmark
+    public List<ClassLoader> prefixStemHit() {
+        return classLoaderService.findExportResourceClassLoadersInOrder(prefixStemResource);
+    }
+
+    @Benchmark
+    public List<ClassLoader> suffixStemHit() {
+        return classLoaderService.findExportResourceClassLoadersInOrder(suffixStemResource);
+    }
+
+    @Benchmark
+    public List<ClassLoader> stemMiss() {
+        return classLoaderService
+            .findExportResourceClassLoadersInOrder(ArkBenchmarkContext.MISS_RESOURCE);
+    }
+
+    @Benchmark
+    public List<ClassLoader> bizPrefixStemHit() {
+        return classLoaderService.findExportResourceClassLoadersInOrderByBiz(biz,
+            prefixStemResource);
+    }
+
+    @Benchmark
+    public List<ClassLoader> bizSuffixStemHit() {
+        return classLoaderService.findExportResourceClassLoadersInOrderByBiz(biz,
+            suffixStemResource);
+    }
+
+    @Benchmark
+    public List<ClassLoader> bizStemMiss() {
+        return classLoaderService.findExportResourceClassLoadersInOrderByBiz(biz,
+            ArkBenchmarkContext.MISS_RESOURCE);
+    }
+}
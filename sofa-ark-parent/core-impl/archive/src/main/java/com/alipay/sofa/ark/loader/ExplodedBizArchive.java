@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -51,15 +54,17 @@ public class ExplodedBizArchive implements BizArchive {
         }
     }
 
-    private URL[] scanUrl() throws MalformedURLException {
+    private URL[] scanUrl() throws IOException {
         List<URL> urls = new ArrayList<>();
         urls.add(this.file.toURI().toURL());
         File libs = new File(file, SOFA_ARK_BIZ_LIB);
         urls.add(libs.toURI().toURL());
-        File[] files = libs.listFiles();
-        if (files != null) {
-            for (File lib : files) {
-                urls.add(lib.toURI().toURL());
+        // keep the directory listing order, the same as File#listFiles
+        if (libs.isDirectory()) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(libs.toPath())) {
+                for (Path lib : stream) {
+                    urls.add(lib.toUri().toURL());
+                }
             }
         }
 
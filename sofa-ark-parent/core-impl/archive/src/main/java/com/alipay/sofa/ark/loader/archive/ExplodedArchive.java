@@ -16,26 +16,32 @@
  */
 package com.alipay.sofa.ark.loader.archive;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.spi.archive.Archive;
+import com.alipay.sofa.ark.spi.constant.Constants;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Deque;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Set;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 
 /**
@@ -46,15 +52,22 @@ import java.util.zip.ZipEntry;
  */
 public class ExplodedArchive implements Archive {
 
-    private static final Set<String> SKIPPED_NAMES = new HashSet<>(Arrays.asList(".", ".."));
+    private static final Comparator<FileEntry> ENTRY_ORDER = new EntryComparator();
 
-    private final File               root;
+    private final File                         root;
 
-    private final boolean            recursive;
+    private final boolean                      recursive;
 
-    private File                     manifestFile;
+    private final boolean                      parallel;
 
-    private Manifest                 manifest;
+    private File                               manifestFile;
+
+    private Manifest                           manifest;
+
+    /**
+     * entries listed once, the tree of an exploded archive is not expected to change
+     */
+    private volatile List<Entry>               entries;
 
     /**
      * Create a new {@link ExplodedArchive} instance.
@@ -78,6 +91,8 @@ public class ExplodedArchive implements Archive {
         }
         this.root = root;
         this.recursive = recursive;
+        this.parallel = ArkConfigs.getBooleanValue(
+            Constants.ARK_LOADER_EXPLODED_PARALLEL_SCAN_ENABLE, false);
         this.manifestFile = getManifestFile(root);
     }
 
@@ -119,7 +134,12 @@ public class ExplodedArchive implements Archive {
 
     @Override
     public Iterator<Entry> iterator() {
-        return new FileEntryIterator(this.root, this.recursive);
+        List<Entry> entries = this.entries;
+        if (entries == null) {
+            entries = scanEntries();
+            this.entries = entries;
+        }
+        return entries.iterator();
     }
 
     public Archive getNestedArchive(Entry entry) throws IOException {
@@ -137,83 +157,101 @@ public class ExplodedArchive implements Archive {
     }
 
     /**
-     * File based {@link Entry} {@link Iterator}.
+     * List entries of the tree with {@link Files#walkFileTree}, which reads whether a file is
+     * a directory with its attributes, walking subfolders of the root in parallel if enabled.
+     * Entries are sorted in the order of a depth first traversal visiting the children of each
+     * folder by name, the order of the former iteration.
      */
-    private static class FileEntryIterator implements Iterator<Entry> {
-
-        private final Comparator<File>      entryComparator = new EntryComparator();
+    private List<Entry> scanEntries() {
+        int maxDepth = this.recursive ? Integer.MAX_VALUE : 2;
+        Path rootPath = this.root.toPath();
+        List<FileEntry> entries;
+        try {
+            if (this.parallel) {
+                List<Path> children = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootPath)) {
+                    for (Path child : stream) {
+                        children.add(child);
+                    }
+                }
+                entries = children.parallelStream().flatMap(child -> {
+                    try {
+                        return walk(rootPath, child, maxDepth - 1).stream();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }).collect(Collectors.toList());
+            } else {
+                entries = walk(rootPath, rootPath, maxDepth);
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            throw new IllegalStateException("Unable to list entries of " + this.root, ex);
+        }
+        entries.sort(ENTRY_ORDER);
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
 
-        private final File                  root;
+    private static List<FileEntry> walk(Path root, Path start, int maxDepth) throws IOException {
+        List<FileEntry> entries = new ArrayList<>();
+        Files.walkFileTree(start, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth,
+            new SimpleFileVisitor<Path>() {
 
-        private final boolean               recursive;
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root)) {
+                        entries.add(newEntry(root, dir, true));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
 
-        private final Deque<Iterator<File>> stack           = new LinkedList<>();
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    entries.add(newEntry(root, file, attrs.isDirectory()));
+                    return FileVisitResult.CONTINUE;
+                }
 
-        private File                        current;
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // unreadable files and symbolic link cycles are skipped
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        return entries;
+    }
 
-        FileEntryIterator(File root, boolean recursive) {
-            this.root = root;
-            this.recursive = recursive;
-            this.stack.add(listFiles(root));
-            this.current = poll();
+    private static FileEntry newEntry(Path root, Path path, boolean directory) {
+        String name = root.relativize(path).toString();
+        if (File.separatorChar != '/') {
+            name = name.replace(File.separatorChar, '/');
         }
+        return new FileEntry(directory ? name + "/" : name, path.toFile(), directory);
+    }
 
-        @Override
-        public boolean hasNext() {
-            return this.current != null;
-        }
+    /**
+     * {@link Comparator} that orders entry names segment by segment, i.e. as a string where
+     * the separator is lower than any other char.
+     */
+    private static class EntryComparator implements Comparator<FileEntry> {
 
         @Override
-        public Entry next() {
-            if (this.current == null) {
-                throw new NoSuchElementException();
-            }
-            File file = this.current;
-            if (file.isDirectory() && (this.recursive || file.getParentFile().equals(this.root))) {
-                this.stack.addFirst(listFiles(file));
-            }
-            this.current = poll();
-            String name = file.toURI().getPath().substring(this.root.toURI().getPath().length());
-            return new FileEntry(name, file);
-        }
-
-        private Iterator<File> listFiles(File file) {
-            File[] files = file.listFiles();
-            if (files == null) {
-                return Collections.<File> emptyList().iterator();
-            }
-            Arrays.sort(files, this.entryComparator);
-            return Arrays.asList(files).iterator();
-        }
-
-        private File poll() {
-            while (!this.stack.isEmpty()) {
-                while (this.stack.peek().hasNext()) {
-                    File file = this.stack.peek().next();
-                    if (!SKIPPED_NAMES.contains(file.getName())) {
-                        return file;
+        public int compare(FileEntry o1, FileEntry o2) {
+            String name1 = o1.getName();
+            String name2 = o2.getName();
+            int length = Math.min(name1.length(), name2.length());
+            for (int i = 0; i < length; i++) {
+                char c1 = name1.charAt(i);
+                char c2 = name2.charAt(i);
+                if (c1 != c2) {
+                    if (c1 == '/') {
+                        return -1;
                     }
+                    if (c2 == '/') {
+                        return 1;
+                    }
+                    return c1 - c2;
                 }
-                this.stack.poll();
-            }
-            return null;
-        }
-
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException("remove");
-        }
-
-        /**
-         * {@link Comparator} that orders {@link File} entries by their absolute paths.
-         */
-        private static class EntryComparator implements Comparator<File> {
-
-            @Override
-            public int compare(File o1, File o2) {
-                return o1.getAbsolutePath().compareTo(o2.getAbsolutePath());
             }
-
+            return name1.length() - name2.length();
         }
 
     }
@@ -223,13 +261,16 @@ public class ExplodedArchive implements Archive {
      */
     private static class FileEntry implements Entry {
 
-        private final String name;
+        private final String  name;
+
+        private final File    file;
 
-        private final File   file;
+        private final boolean directory;
 
-        FileEntry(String name, File file) {
+        FileEntry(String name, File file, boolean directory) {
             this.name = name;
             this.file = file;
+            this.directory = directory;
         }
 
         public File getFile() {
@@ -238,7 +279,7 @@ public class ExplodedArchive implements Archive {
 
         @Override
         public boolean isDirectory() {
-            return this.file.isDirectory();
+            return this.directory;
         }
 
         @Override
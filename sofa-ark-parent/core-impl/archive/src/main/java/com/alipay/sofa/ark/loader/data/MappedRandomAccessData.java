@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link RandomAccessData} implementation backed by {@link MappedByteBuffer} windows over a
+ * file. Reads are served from memory without any syscall, and all subsections share the
+ * mapping of the root file, whatever the {@link ResourceAccess} requested.
+ *
+ * <p>{@link #close()} unmaps the file explicitly rather than waiting for the buffers to be
+ * collected, the file is mapped again on next read. Reads and unmapping are serialized by a
+ * read write lock, so a buffer is never accessed once unmapped.</p>
+ *
+ * @since 2.3.3
+ */
+public class MappedRandomAccessData implements RandomAccessData {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final MappedFile  mappedFile;
+
+    private final long        offset;
+
+    private final long        length;
+
+    /**
+     * Create a new {@link MappedRandomAccessData} backed by the specified file.
+     * @param file the underlying file
+     * @throws IllegalArgumentException if the file is null or does not exist
+     */
+    public MappedRandomAccessData(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File must not be null");
+        }
+        if (!file.exists()) {
+            throw new IllegalArgumentException(String.format("File must exist: %s", file.getPath()));
+        }
+        this.mappedFile = new MappedFile(file, file.length());
+        this.offset = 0L;
+        this.length = this.mappedFile.size;
+    }
+
+    private MappedRandomAccessData(MappedFile mappedFile, long offset, long length) {
+        this.mappedFile = mappedFile;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the underlying File.
+     * @return the underlying file
+     */
+    public File getFile() {
+        return this.mappedFile.file;
+    }
+
+    @Override
+    public InputStream getInputStream(ResourceAccess access) {
+        return new DataInputStream();
+    }
+
+    @Override
+    public RandomAccessData getSubsection(long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > this.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new MappedRandomAccessData(this.mappedFile, this.offset + offset, length);
+    }
+
+    @Override
+    public long getSize() {
+        return this.length;
+    }
+
+    /**
+     * Unmap the underlying file, shared by all subsections.
+     */
+    public void close() {
+        this.mappedFile.unmap();
+    }
+
+    /**
+     * @return whether the underlying file is currently mapped into memory
+     */
+    public boolean isMapped() {
+        return this.mappedFile.isMapped();
+    }
+
+    /**
+     * {@link MappedRandomAccessData}.
+     */
+    private class DataInputStream extends InputStream {
+
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            if (cap(1) <= 0) {
+                return -1;
+            }
+            int rtn = MappedRandomAccessData.this.mappedFile
+                .read(MappedRandomAccessData.this.offset + this.position);
+            this.position++;
+            return rtn;
+        }
+
+        @Override
+        public int read(byte[] b) throws IOException {
+            return read(b, 0, b == null ? 0 : b.length);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null) {
+                throw new NullPointerException("Bytes must not be null");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int cappedLen = cap(len);
+            if (cappedLen <= 0) {
+                return -1;
+            }
+            MappedRandomAccessData.this.mappedFile.read(MappedRandomAccessData.this.offset
+                                                        + this.position, b, off, cappedLen);
+            this.position += cappedLen;
+            return cappedLen;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            int amount = cap(n);
+            this.position += amount;
+            return amount;
+        }
+
+        private int cap(long n) {
+            return (int) Math.min(MappedRandomAccessData.this.length - this.position, n);
+        }
+
+    }
+
+    /**
+     * Mapping of a file, split into windows as a single buffer can not exceed 2GB.
+     */
+    static class MappedFile {
+
+        private final File                   file;
+
+        private final long                   size;
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private MappedByteBuffer[]           windows;
+
+        MappedFile(File file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+
+        int read(long position) throws IOException {
+            while (true) {
+                this.lock.readLock().lock();
+                try {
+                    if (this.windows != null) {
+                        return this.windows[(int) (position / WINDOW_SIZE)]
+                            .get((int) (position % WINDOW_SIZE)) & 0xFF;
+                    }
+                } finally {
+                    this.lock.readLock().unlock();
+                }
+                map();
+            }
+        }
+
+        void read(long position, byte[] b, int off, int len) throws IOException {
+            while (true) {
+                this.lock.readLock().lock();
+                try {
+                    if (this.windows != null) {
+                        int read = 0;
+                        while (read < len) {
+                            long current = position + read;
+                            ByteBuffer window = this.windows[(int) (current / WINDOW_SIZE)]
+                                .duplicate();
+                            window.position((int) (current % WINDOW_SIZE));
+                            int n = Math.min(len - read, window.remaining());
+                            window.get(b, off + read, n);
+                            read += n;
+                        }
+                        return;
+                    }
+                } finally {
+                    this.lock.readLock().unlock();
+                }
+                map();
+            }
+        }
+
+        boolean isMapped() {
+            this.lock.readLock().lock();
+            try {
+                return this.windows != null;
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private void map() throws IOException {
+            this.lock.writeLock().lock();
+            try {
+                if (this.windows != null) {
+                    return;
+                }
+                int count = (int) ((this.size + WINDOW_SIZE - 1) / WINDOW_SIZE);
+                MappedByteBuffer[] windows = new MappedByteBuffer[count];
+                try (FileChannel channel = FileChannel.open(this.file.toPath(),
+                    StandardOpenOption.READ)) {
+                    for (int i = 0; i < windows.length; i++) {
+                        long start = i * WINDOW_SIZE;
+                        windows[i] = channel.map(MapMode.READ_ONLY, start,
+                            Math.min(WINDOW_SIZE, this.size - start));
+                    }
+                }
+                this.windows = windows;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        void unmap() {
+            this.lock.writeLock().lock();
+            try {
+                if (this.windows == null) {
+                    return;
+                }
+                for (MappedByteBuffer window : this.windows) {
+                    BufferCleaner.clean(window);
+                }
+                this.windows = null;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Release the memory of a mapped buffer without waiting for garbage collection, does
+     * nothing if not supported by the running JVM.
+     */
+    static class BufferCleaner {
+
+        private static final Object UNSAFE;
+
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                // java 9+
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+            } catch (Throwable t) {
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void clean(ByteBuffer buffer) {
+            if (buffer == null || !buffer.isDirect()) {
+                return;
+            }
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } else {
+                    // java 8
+                    Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(buffer);
+                    if (cleaner != null) {
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    }
+                }
+            } catch (Throwable t) {
+                // left to garbage collection
+            }
+        }
+    }
+
+}
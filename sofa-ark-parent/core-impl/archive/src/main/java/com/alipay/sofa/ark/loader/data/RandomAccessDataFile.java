@@ -20,39 +20,45 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 
 /**
- * {@link RandomAccessData} implementation backed by a {@link RandomAccessFile}.
+ * {@link RandomAccessData} implementation backed by a file.
  *
  * @author Phillip Webb
  */
 public class RandomAccessDataFile implements RandomAccessData {
 
-    private static final int DEFAULT_CONCURRENT_READS = 4;
-
     private final File       file;
 
-    private final FilePool   filePool;
+    private final FileAccess fileAccess;
 
     private final long       offset;
 
     private final long       length;
 
     /**
-     * Create a new {@link RandomAccessDataFile} backed by the specified file.
+     * Create a new {@link RandomAccessDataFile} backed by the specified file. Reads are
+     * positional reads on a single {@link FileChannel}, so any number of threads can read
+     * concurrently without blocking each other.
      * @param file the underlying file
      * @throws IllegalArgumentException if the file is null or does not exist
      * @see #RandomAccessDataFile(File, int)
      */
     public RandomAccessDataFile(File file) {
-        this(file, DEFAULT_CONCURRENT_READS);
+        this(checkFile(file), new ChannelAccess(file));
     }
 
     /**
-     * Create a new {@link RandomAccessDataFile} backed by the specified file.
+     * Create a new {@link RandomAccessDataFile} backed by the specified file. Reads are
+     * served by a pool of {@link RandomAccessFile}s.
      * @param file the underlying file
      * @param concurrentReads the maximum number of concurrent reads allowed on the
      * underlying file before blocking
@@ -60,32 +66,37 @@ public class RandomAccessDataFile implements RandomAccessData {
      * @see #RandomAccessDataFile(File)
      */
     public RandomAccessDataFile(File file, int concurrentReads) {
-        if (file == null) {
-            throw new IllegalArgumentException("File must not be null");
-        }
-        if (!file.exists()) {
-            throw new IllegalArgumentException(String.format("File must exist: %s", file.getPath()));
-        }
-        this.file = file;
-        this.filePool = new FilePool(file, concurrentReads);
-        this.offset = 0L;
-        this.length = file.length();
+        this(checkFile(file), new FilePool(file, concurrentReads));
+    }
+
+    private RandomAccessDataFile(File file, FileAccess fileAccess) {
+        this(file, fileAccess, 0L, file.length());
     }
 
     /**
      * Private constructor used to create a {@link #getSubsection(long, long) subsection}.
      * @param file the underlying file
-     * @param pool the underlying pool
+     * @param fileAccess the underlying file access
      * @param offset the offset of the section
      * @param length the length of the section
      */
-    private RandomAccessDataFile(File file, FilePool pool, long offset, long length) {
+    private RandomAccessDataFile(File file, FileAccess fileAccess, long offset, long length) {
         this.file = file;
-        this.filePool = pool;
+        this.fileAccess = fileAccess;
         this.offset = offset;
         this.length = length;
     }
 
+    private static File checkFile(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File must not be null");
+        }
+        if (!file.exists()) {
+            throw new IllegalArgumentException(String.format("File must exist: %s", file.getPath()));
+        }
+        return file;
+    }
+
     /**
      * Returns the underlying File.
      * @return the underlying file
@@ -104,7 +115,7 @@ public class RandomAccessDataFile implements RandomAccessData {
         if (offset < 0 || length < 0 || offset + length > this.length) {
             throw new IndexOutOfBoundsException();
         }
-        return new RandomAccessDataFile(this.file, this.filePool, this.offset + offset, length);
+        return new RandomAccessDataFile(this.file, this.fileAccess, this.offset + offset, length);
     }
 
     @Override
@@ -113,7 +124,7 @@ public class RandomAccessDataFile implements RandomAccessData {
     }
 
     public void close() throws IOException {
-        this.filePool.close();
+        this.fileAccess.close();
     }
 
     /**
@@ -126,7 +137,9 @@ public class RandomAccessDataFile implements RandomAccessData {
         private int              position;
 
         DataInputStream(ResourceAccess access) throws IOException {
-            if (access == ResourceAccess.ONCE) {
+            // a shared channel needs no file of its own
+            if (access == ResourceAccess.ONCE
+                && RandomAccessDataFile.this.fileAccess instanceof FilePool) {
                 this.file = new RandomAccessFile(RandomAccessDataFile.this.file, "r");
                 this.file.seek(RandomAccessDataFile.this.offset);
             }
@@ -167,23 +180,22 @@ public class RandomAccessDataFile implements RandomAccessData {
             if (cappedLen <= 0) {
                 return -1;
             }
-            RandomAccessFile file = this.file;
-            try {
-                if (file == null) {
-                    file = RandomAccessDataFile.this.filePool.acquire();
-                    file.seek(RandomAccessDataFile.this.offset + this.position);
-                }
+            if (this.file == null) {
+                long position = RandomAccessDataFile.this.offset + this.position;
                 if (b == null) {
-                    int rtn = file.read();
+                    int rtn = RandomAccessDataFile.this.fileAccess.read(position);
                     moveOn(rtn == -1 ? 0 : 1);
                     return rtn;
-                } else {
-                    return (int) moveOn(file.read(b, off, cappedLen));
-                }
-            } finally {
-                if (this.file == null && file != null) {
-                    RandomAccessDataFile.this.filePool.release(file);
                 }
+                return (int) moveOn(RandomAccessDataFile.this.fileAccess.read(position, b, off,
+                    cappedLen));
+            }
+            if (b == null) {
+                int rtn = this.file.read();
+                moveOn(rtn == -1 ? 0 : 1);
+                return rtn;
+            } else {
+                return (int) moveOn(this.file.read(b, off, cappedLen));
             }
         }
 
@@ -221,11 +233,119 @@ public class RandomAccessDataFile implements RandomAccessData {
 
     }
 
+    /**
+     * Reads of the underlying file at a given position.
+     */
+    interface FileAccess {
+
+        /**
+         * Read a single byte.
+         * @param position the position in the file
+         * @return the byte read, or -1 at the end of the file
+         * @throws IOException in case of I/O errors
+         */
+        int read(long position) throws IOException;
+
+        /**
+         * Read bytes into {@code b}.
+         * @param position the position in the file
+         * @param b the bytes to read
+         * @param off the offset of the byte array
+         * @param len the maximum length of data to read
+         * @return the number of bytes read, or -1 at the end of the file
+         * @throws IOException in case of I/O errors
+         */
+        int read(long position, byte[] b, int off, int len) throws IOException;
+
+        /**
+         * Release the underlying resources, they are acquired again on next read.
+         * @throws IOException in case of I/O errors
+         */
+        void close() throws IOException;
+
+    }
+
+    /**
+     * Positional reads on a single {@link FileChannel} shared by all threads, which has no
+     * seek state. The channel is opened again if closed, for example by the interrupt of a
+     * reading thread.
+     */
+    static class ChannelAccess implements FileAccess {
+
+        private final File           file;
+
+        private volatile FileChannel channel;
+
+        ChannelAccess(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read(long position) throws IOException {
+            byte[] b = new byte[1];
+            return read(position, b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(long position, byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    FileChannel channel = getChannel();
+                    try {
+                        return channel.read(buffer, position);
+                    } catch (ClosedByInterruptException e) {
+                        // retry without the interrupt, which is restored afterwards
+                        interrupted |= Thread.interrupted();
+                        reopen(channel);
+                    } catch (ClosedChannelException e) {
+                        reopen(channel);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private FileChannel getChannel() throws IOException {
+            FileChannel channel = this.channel;
+            if (channel == null) {
+                synchronized (this) {
+                    channel = this.channel;
+                    if (channel == null) {
+                        channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+                        this.channel = channel;
+                    }
+                }
+            }
+            return channel;
+        }
+
+        private synchronized void reopen(FileChannel closedChannel) {
+            if (this.channel == closedChannel) {
+                this.channel = null;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            FileChannel channel = this.channel;
+            this.channel = null;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+    }
+
     /**
      * Manage a pool that can be used to perform concurrent reads on the underlying
      * {@link RandomAccessFile}.
      */
-    static class FilePool {
+    static class FilePool implements FileAccess {
 
         private final File                    file;
 
@@ -242,13 +362,40 @@ public class RandomAccessDataFile implements RandomAccessData {
             this.files = new ConcurrentLinkedQueue<>();
         }
 
+        @Override
+        public int read(long position) throws IOException {
+            RandomAccessFile file = acquire();
+            try {
+                file.seek(position);
+                return file.read();
+            } finally {
+                release(file);
+            }
+        }
+
+        @Override
+        public int read(long position, byte[] b, int off, int len) throws IOException {
+            RandomAccessFile file = acquire();
+            try {
+                file.seek(position);
+                return file.read(b, off, len);
+            } finally {
+                release(file);
+            }
+        }
+
         public RandomAccessFile acquire() throws IOException {
             this.available.acquireUninterruptibly();
             RandomAccessFile file = this.files.poll();
             if (file != null) {
                 return file;
             }
-            return new RandomAccessFile(this.file, "r");
+            try {
+                return new RandomAccessFile(this.file, "r");
+            } catch (IOException e) {
+                this.available.release();
+                throw e;
+            }
         }
 
         public void release(RandomAccessFile file) {
@@ -256,6 +403,7 @@ public class RandomAccessDataFile implements RandomAccessData {
             this.available.release();
         }
 
+        @Override
         public void close() throws IOException {
             this.available.acquireUninterruptibly(this.size);
             try {
@@ -190,6 +190,66 @@ final public class AsciiBytes {
         return hash;
     }
 
+    /**
+     * Return if the bytes are the UTF-8 encoding of {@code name} followed by {@code suffix}.
+     * Characters are compared while decoding, so no String or byte array is created.
+     * @param name the name
+     * @param suffix the suffix, may be null
+     * @return true if the bytes match
+     */
+    public boolean matches(String name, String suffix) {
+        int nameLength = name.length();
+        int totalLength = nameLength + (suffix == null ? 0 : suffix.length());
+        // every char takes at least one byte
+        if (this.length < totalLength) {
+            return false;
+        }
+        int end = this.offset + this.length;
+        int charIndex = 0;
+        for (int i = this.offset; i < end; i++) {
+            int b = this.bytes[i];
+            if (b < 0) {
+                b = b & 0x7F;
+                int limit;
+                int excess = 0x80;
+                if (b < 96) {
+                    limit = 1;
+                    excess += 0x40 << 6;
+                } else if (b < 112) {
+                    limit = 2;
+                    excess += (0x60 << 12) + (0x80 << 6);
+                } else {
+                    limit = 3;
+                    excess += (0x70 << 18) + (0x80 << 12) + (0x80 << 6);
+                }
+                if (i + limit >= end) {
+                    return false;
+                }
+                for (int j = 0; j < limit; j++) {
+                    b = (b << 6) + (this.bytes[++i] & 0xFF);
+                }
+                b -= excess;
+            }
+            if (b <= 0xFFFF) {
+                if (charIndex >= totalLength || b != charAt(name, suffix, charIndex++)) {
+                    return false;
+                }
+            } else {
+                if (charIndex + 1 >= totalLength
+                    || charAt(name, suffix, charIndex++) != ((b >> 0xA) + 0xD7C0)
+                    || charAt(name, suffix, charIndex++) != ((b & 0x3FF) + 0xDC00)) {
+                    return false;
+                }
+            }
+        }
+        return charIndex == totalLength;
+    }
+
+    private static char charAt(String name, String suffix, int index) {
+        int nameLength = name.length();
+        return (index < nameLength ? name.charAt(index) : suffix.charAt(index - nameLength));
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -34,11 +34,22 @@ final public class CentralDirectoryParser {
 
     private final List<CentralDirectoryVisitor> visitors                           = new ArrayList<>();
 
+    private JarFileIndex                        index;
+
     public <T extends CentralDirectoryVisitor> T addVisitor(T visitor) {
         this.visitors.add(visitor);
         return visitor;
     }
 
+    /**
+     * Set the index to restore entries from instead of parsing them, the index is stored
+     * again after parsing.
+     * @param index the index, null to always parse
+     */
+    void setIndex(JarFileIndex index) {
+        this.index = index;
+    }
+
     /**
      * Parse the source data, triggering {@link CentralDirectoryVisitor visitors}.
      * @param data the source data
@@ -53,9 +64,15 @@ final public class CentralDirectoryParser {
             data = getArchiveData(endRecord, data);
         }
         RandomAccessData centralDirectoryData = endRecord.getCentralDirectory(data);
+        if (this.index != null && this.index.restore(endRecord, centralDirectoryData)) {
+            return data;
+        }
         visitStart(endRecord, centralDirectoryData);
         parseEntries(endRecord, centralDirectoryData);
         visitEnd();
+        if (this.index != null) {
+            this.index.store(endRecord, centralDirectoryData);
+        }
         return data;
     }
 
@@ -21,11 +21,8 @@ import com.alipay.sofa.ark.common.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.net.*;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,15 +38,15 @@ public class Handler extends URLStreamHandler {
     // NOTE: in order to be found as a URL protocol handler, this class must be public,
     // must be named Handler and must be in a package ending '.jar'
 
-    private static final String                      JAR_PROTOCOL      = "jar:";
+    private static final String   JAR_PROTOCOL      = "jar:";
 
-    private static final String                      FILE_PROTOCOL     = "file:";
+    private static final String   FILE_PROTOCOL     = "file:";
 
-    private static final String                      SEPARATOR         = "!/";
+    private static final String   SEPARATOR         = "!/";
 
-    private static final String[]                    FALLBACK_HANDLERS = { "sun.net.www.protocol.jar.Handler" };
+    private static final String[] FALLBACK_HANDLERS = { "sun.net.www.protocol.jar.Handler" };
 
-    private static final Method                      OPEN_CONNECTION_METHOD;
+    private static final Method   OPEN_CONNECTION_METHOD;
 
     static {
         Method method = null;
@@ -61,15 +58,9 @@ public class Handler extends URLStreamHandler {
         OPEN_CONNECTION_METHOD = method;
     }
 
-    private static SoftReference<Map<File, JarFile>> rootFileCache;
+    private final JarFile         jarFile;
 
-    static {
-        rootFileCache = new SoftReference<>(null);
-    }
-
-    private final JarFile                            jarFile;
-
-    private URLStreamHandler                         fallbackHandler;
+    private URLStreamHandler      fallbackHandler;
 
     public Handler() {
         this(null);
@@ -280,26 +271,20 @@ public class Handler extends URLStreamHandler {
         if (separatorIndex == -1) {
             throw new MalformedURLException("Jar URL does not contain !/ separator");
         }
-        String name = spec.substring(0, separatorIndex);
-        return getRootJarFile(name);
+        return getRootJarFile(spec, separatorIndex);
     }
 
-    private JarFile getRootJarFile(String name) throws IOException {
+    private JarFile getRootJarFile(String spec, int separatorIndex) throws IOException {
         try {
-            if (!name.startsWith(FILE_PROTOCOL)) {
+            if (!spec.startsWith(FILE_PROTOCOL)) {
                 throw new IllegalStateException("Not a file URL");
             }
-            String path = name.substring(FILE_PROTOCOL.length());
-            File file = FileUtils.file(path);
-            Map<File, JarFile> cache = rootFileCache.get();
-            JarFile result = (cache == null ? null : cache.get(file));
-            if (result == null) {
-                result = new JarFile(file);
-                addToRootFileCache(file, result);
-            }
-            return result;
+            // only the path is copied out of the url file
+            String path = spec.substring(FILE_PROTOCOL.length(), separatorIndex);
+            return RootJarFileCache.getInstance().get(FileUtils.file(path));
         } catch (Exception ex) {
-            throw new IOException("Unable to open root Jar file '" + name + "'", ex);
+            throw new IOException("Unable to open root Jar file '"
+                                  + spec.substring(0, separatorIndex) + "'", ex);
         }
     }
 
@@ -309,12 +294,23 @@ public class Handler extends URLStreamHandler {
      * @param jarFile the jar file.
      */
     static void addToRootFileCache(File sourceFile, JarFile jarFile) {
-        Map<File, JarFile> cache = rootFileCache.get();
-        if (cache == null) {
-            cache = new ConcurrentHashMap<>(16);
-            rootFileCache = new SoftReference<>(cache);
+        RootJarFileCache.getInstance().put(sourceFile, jarFile);
+    }
+
+    /**
+     * Evict and close the cached root {@link JarFile}s of the given URLs, for example the
+     * class path of an uninstalled biz.
+     * @param urls the jar or file URLs
+     */
+    public static void evictRootJarFiles(URL... urls) {
+        if (urls == null) {
+            return;
+        }
+        for (URL url : urls) {
+            if (url != null) {
+                RootJarFileCache.getInstance().evict(url);
+            }
         }
-        cache.put(sourceFile, jarFile);
     }
 
     /**
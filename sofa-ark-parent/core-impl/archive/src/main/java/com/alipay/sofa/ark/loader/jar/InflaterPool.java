@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.spi.constant.Constants;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+
+/**
+ * Bounded pool of {@link Inflater}s and their input buffers used by
+ * {@link ZipInflaterInputStream}. Reading a compressed entry borrows an inflater, which holds
+ * native memory, and returns it reset on close, instead of allocating and ending one per
+ * entry. Inflaters returned to a full pool are ended, and streams never closed leave their
+ * inflater to garbage collection as before.
+ *
+ * @since 2.3.3
+ */
+public final class InflaterPool {
+
+    /**
+     * size of pooled input buffers
+     */
+    static final int                            BUFFER_SIZE            = 8192;
+
+    /**
+     * approximate native memory of an inflater which has been used, zlib state and window
+     */
+    private static final long                   INFLATER_NATIVE_MEMORY = 40 * 1024;
+
+    private final ArrayBlockingQueue<Resources> pool;
+
+    private final LongAdder                     hits                   = new LongAdder();
+
+    private final LongAdder                     misses                 = new LongAdder();
+
+    private final LongAdder                     discards               = new LongAdder();
+
+    InflaterPool(int size) {
+        this.pool = size > 0 ? new ArrayBlockingQueue<>(size) : null;
+    }
+
+    public static InflaterPool getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    Resources acquire() {
+        Resources resources = this.pool == null ? null : this.pool.poll();
+        if (resources != null) {
+            this.hits.increment();
+            return resources;
+        }
+        this.misses.increment();
+        return new Resources();
+    }
+
+    void release(Resources resources) {
+        resources.inflater.reset();
+        if (this.pool == null || !this.pool.offer(resources)) {
+            this.discards.increment();
+            resources.inflater.end();
+        }
+    }
+
+    /**
+     * @return number of streams served by a pooled inflater
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of streams which created a new inflater
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of inflaters ended as the pool was full
+     */
+    public long getDiscardCount() {
+        return this.discards.sum();
+    }
+
+    /**
+     * @return ratio of streams served by a pooled inflater, 0 if no stream was opened
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return number of idle inflaters in pool
+     */
+    public int getIdleCount() {
+        return this.pool == null ? 0 : this.pool.size();
+    }
+
+    /**
+     * @return estimated native memory held by idle inflaters and heap memory of their buffers
+     */
+    public long getEstimatedMemory() {
+        return getIdleCount() * (INFLATER_NATIVE_MEMORY + BUFFER_SIZE);
+    }
+
+    /**
+     * Inflater and input buffer borrowed together.
+     */
+    static final class Resources {
+
+        final Inflater inflater = new Inflater(true);
+
+        final byte[]   buffer   = new byte[BUFFER_SIZE];
+    }
+
+    private static class Holder {
+        private static final InflaterPool INSTANCE = new InflaterPool(ArkConfigs.getIntValue(
+                                                       Constants.ARK_LOADER_JAR_INFLATER_POOL_SIZE,
+                                                       32));
+    }
+}
@@ -16,9 +16,12 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
 import com.alipay.sofa.ark.loader.data.RandomAccessDataFile;
+import com.alipay.sofa.ark.spi.constant.Constants;
 
 import java.io.File;
 import java.io.IOException;
@@ -92,7 +95,19 @@ public class JarFile extends java.util.jar.JarFile {
      * @throws IOException if the file cannot be read
      */
     JarFile(RandomAccessDataFile file) throws IOException {
-        this(file, "", file, JarFileType.DIRECT);
+        this(file, "", openData(file), JarFileType.DIRECT);
+    }
+
+    /**
+     * Open data of the root jar file, mapped into memory if enabled.
+     * @param file the root jar file
+     * @return the data of the root jar file
+     */
+    private static RandomAccessData openData(RandomAccessDataFile file) {
+        if (ArkConfigs.getBooleanValue(Constants.ARK_LOADER_JAR_MAPPED_ENABLE, false)) {
+            return new MappedRandomAccessData(file.getFile());
+        }
+        return file;
     }
 
     /**
@@ -117,6 +132,9 @@ public class JarFile extends java.util.jar.JarFile {
         CentralDirectoryParser parser = new CentralDirectoryParser();
         this.entries = parser.addVisitor(new JarFileEntries(this, filter));
         parser.addVisitor(centralDirectoryVisitor());
+        if (filter == null) {
+            parser.setIndex(JarFileIndex.get(rootFile.getFile(), pathFromRoot, this, this.entries));
+        }
         this.data = parser.parse(data, filter == null);
         this.type = type;
     }
@@ -304,10 +322,22 @@ public class JarFile extends java.util.jar.JarFile {
         return (int) this.data.getSize();
     }
 
+    /**
+     * @return number of bytes of the root file mapped into memory for this jar file, 0 if
+     *         the file is read through a channel
+     */
+    long getMappedSize() {
+        return (this.data instanceof MappedRandomAccessData ? this.data.getSize() : 0);
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
         this.rootFile.close();
+        // nested jars share the mapping of the root jar, which is unmapped with the root only
+        if (this.type == JarFileType.DIRECT && this.data instanceof MappedRandomAccessData) {
+            ((MappedRandomAccessData) this.data).close();
+        }
     }
 
     /**
@@ -343,6 +373,10 @@ public class JarFile extends java.util.jar.JarFile {
         return this.signed;
     }
 
+    void markSigned() {
+        this.signed = true;
+    }
+
     void setupEntryCertificates(JarEntry entry) {
         // Fallback to JarInputStream to obtain certificates, not fast but hopefully not
         // happening that often.
@@ -377,6 +411,30 @@ public class JarFile extends java.util.jar.JarFile {
         this.entries.clearCache();
     }
 
+    /**
+     * Return the hash codes of all entry names in this jar, nested entries excluded.
+     * @return entry name hash codes
+     */
+    public int[] getEntryHashCodes() {
+        return this.entries.getHashCodes();
+    }
+
+    /**
+     * Return the number of entry lookups served by decoded entries in cache.
+     * @return entry cache hit count
+     */
+    public long getEntryCacheHitCount() {
+        return this.entries.getCacheHitCount();
+    }
+
+    /**
+     * Return the number of entry lookups which decoded the entry from the central directory.
+     * @return entry cache miss count
+     */
+    public long getEntryCacheMissCount() {
+        return this.entries.getCacheMissCount();
+    }
+
     protected String getPathFromRoot() {
         return this.pathFromRoot;
     }
@@ -16,12 +16,19 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.loader.data.RandomAccessData;
 import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
+import com.alipay.sofa.ark.spi.constant.Constants;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.ZipEntry;
 
 /**
@@ -39,46 +46,38 @@ import java.util.zip.ZipEntry;
  */
 public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
-    private static final long              LOCAL_FILE_HEADER_SIZE = 30;
+    private static final long    LOCAL_FILE_HEADER_SIZE = 30;
 
-    private static final String            SLASH                  = "/";
+    private static final String  SLASH                  = "/";
 
-    private static final String            NO_SUFFIX              = "";
+    private static final String  NO_SUFFIX              = "";
 
-    protected static final int             ENTRY_CACHE_SIZE       = 25;
-
-    private final JarFile                  jarFile;
-
-    private final JarEntryFilter           filter;
+    /**
+     * default number of decoded entries cached per jar
+     */
+    protected static final int   ENTRY_CACHE_SIZE       = 128;
 
-    private RandomAccessData               centralDirectoryData;
+    private final JarFile        jarFile;
 
-    private int                            size;
+    private final JarEntryFilter filter;
 
-    private int[]                          hashCodes;
+    private RandomAccessData     centralDirectoryData;
 
-    private int[]                          centralDirectoryOffsets;
+    private int                  size;
 
-    private int[]                          positions;
+    private int[]                hashCodes;
 
-    private final Map<Integer, FileHeader> entriesCache           = Collections
-                                                                      .synchronizedMap(new LinkedHashMap<Integer, FileHeader>(
-                                                                          16, 0.75f, true) {
+    private int[]                centralDirectoryOffsets;
 
-                                                                          @Override
-                                                                          protected boolean removeEldestEntry(Map.Entry<Integer, FileHeader> eldest) {
-                                                                              if (JarFileEntries.this.jarFile
-                                                                                  .isSigned()) {
-                                                                                  return false;
-                                                                              }
-                                                                              return size() >= ENTRY_CACHE_SIZE;
-                                                                          }
+    private int[]                positions;
 
-                                                                      });
+    private final EntryCache     entriesCache;
 
     public JarFileEntries(JarFile jarFile, JarEntryFilter filter) {
         this.jarFile = jarFile;
         this.filter = filter;
+        this.entriesCache = new EntryCache(ArkConfigs.getIntValue(
+            Constants.ARK_LOADER_JAR_ENTRY_CACHE_SIZE, ENTRY_CACHE_SIZE));
     }
 
     @Override
@@ -116,6 +115,52 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         }
     }
 
+    /**
+     * Store sorted entry arrays, read back by {@link #restore(ByteBuffer, RandomAccessData, int)}.
+     * @param output the output
+     * @throws IOException in case of I/O errors
+     */
+    void store(DataOutputStream output) throws IOException {
+        output.writeInt(this.size);
+        for (int[] array : new int[][] { this.hashCodes, this.centralDirectoryOffsets,
+                this.positions }) {
+            for (int i = 0; i < this.size; i++) {
+                output.writeInt(array[i]);
+            }
+        }
+    }
+
+    /**
+     * Restore sorted entry arrays instead of visiting the central directory.
+     * @param buffer the stored arrays
+     * @param centralDirectoryData the central directory data
+     * @param maxSize the number of records in the central directory
+     * @return false if the stored arrays are not valid for the central directory
+     */
+    boolean restore(ByteBuffer buffer, RandomAccessData centralDirectoryData, int maxSize) {
+        int size = buffer.getInt();
+        if (size < 0 || size > maxSize || buffer.remaining() != size * 12) {
+            return false;
+        }
+        int[] hashCodes = new int[size];
+        int[] centralDirectoryOffsets = new int[size];
+        int[] positions = new int[size];
+        buffer.asIntBuffer().get(hashCodes).get(centralDirectoryOffsets).get(positions);
+        for (int i = 0; i < size; i++) {
+            if ((i > 0 && hashCodes[i - 1] > hashCodes[i]) || centralDirectoryOffsets[i] < 0
+                || centralDirectoryOffsets[i] >= centralDirectoryData.getSize() || positions[i] < 0
+                || positions[i] >= size) {
+                return false;
+            }
+        }
+        this.centralDirectoryData = centralDirectoryData;
+        this.hashCodes = hashCodes;
+        this.centralDirectoryOffsets = centralDirectoryOffsets;
+        this.positions = positions;
+        this.size = size;
+        return true;
+    }
+
     private void sort(int left, int right) {
         // Quick sort algorithm, uses hashCodes as the source but sorts all arrays
         if (left < right) {
@@ -220,8 +265,8 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
                                               Class<T> type, boolean cacheEntry) {
         int index = getFirstIndex(hashCode);
         while (index >= 0 && index < this.size && this.hashCodes[index] == hashCode) {
-            T entry = getEntry(index, type, cacheEntry);
-            if (entry.hasName(name, suffix)) {
+            T entry = getNamedEntry(index, name, suffix, type, cacheEntry);
+            if (entry != null) {
                 return entry;
             }
             index++;
@@ -229,19 +274,31 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         return null;
     }
 
-    @SuppressWarnings("unchecked")
     private <T extends FileHeader> T getEntry(int index, Class<T> type, boolean cacheEntry) {
+        return getNamedEntry(index, null, null, type, cacheEntry);
+    }
+
+    /**
+     * Names are matched before an entry is wrapped or cached, so an entry which only shares
+     * the hash code neither allocates a {@link JarEntry} nor evicts a cached entry.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends FileHeader> T getNamedEntry(int index, String name, String suffix,
+                                                   Class<T> type, boolean cacheEntry) {
         try {
             FileHeader cached = this.entriesCache.get(index);
             FileHeader entry = (cached != null ? cached : CentralDirectoryFileHeader
                 .fromRandomAccessData(this.centralDirectoryData,
                     this.centralDirectoryOffsets[index], this.filter));
+            if (name != null && !entry.hasName(name, suffix)) {
+                return null;
+            }
             if (CentralDirectoryFileHeader.class.equals(entry.getClass())
                 && type.equals(JarEntry.class)) {
                 entry = new JarEntry(this.jarFile, (CentralDirectoryFileHeader) entry);
             }
             if (cacheEntry && cached != entry) {
-                this.entriesCache.put(index, entry);
+                this.entriesCache.put(index, entry, this.size, this.jarFile.isSigned());
             }
             return (T) entry;
         } catch (IOException ex) {
@@ -264,10 +321,115 @@ public class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntr
         this.entriesCache.clear();
     }
 
+    /**
+     * @return number of entry lookups served by decoded entries in cache
+     */
+    public long getCacheHitCount() {
+        return this.entriesCache.hits.sum();
+    }
+
+    /**
+     * @return number of entry lookups which decoded the entry from the central directory
+     */
+    public long getCacheMissCount() {
+        return this.entriesCache.misses.sum();
+    }
+
+    /**
+     * Return the hash codes of all entry names, which are compatible with
+     * {@link String#hashCode()}.
+     * @return hash codes in hash order
+     */
+    public int[] getHashCodes() {
+        return Arrays.copyOf(this.hashCodes, this.size);
+    }
+
     private AsciiBytes applyFilter(AsciiBytes name) {
         return (this.filter == null ? name : this.filter.apply(name));
     }
 
+    /**
+     * Lock free cache of decoded entries by index. Each index maps to one slot of a table
+     * sized to the smaller of the capacity and the number of entries, rounded up to a power of
+     * two, so a jar not larger than the capacity keeps every decoded entry, and in a larger jar
+     * a newer entry replaces the one in its slot. Entries of a signed jar are never dropped as they hold certificates.
+     */
+    private static class EntryCache {
+
+        private final int                                    capacity;
+
+        private volatile AtomicReferenceArray<CachedEntry>   slots;
+
+        private final ConcurrentHashMap<Integer, FileHeader> signedEntries = new ConcurrentHashMap<>();
+
+        private final LongAdder                              hits          = new LongAdder();
+
+        private final LongAdder                              misses        = new LongAdder();
+
+        EntryCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        FileHeader get(int index) {
+            FileHeader entry = this.signedEntries.isEmpty() ? null : this.signedEntries.get(index);
+            if (entry == null) {
+                AtomicReferenceArray<CachedEntry> slots = this.slots;
+                CachedEntry cached = slots == null ? null : slots.get(index & (slots.length() - 1));
+                entry = (cached != null && cached.index == index) ? cached.entry : null;
+            }
+            if (entry == null) {
+                this.misses.increment();
+            } else {
+                this.hits.increment();
+            }
+            return entry;
+        }
+
+        void put(int index, FileHeader entry, int size, boolean signed) {
+            if (signed) {
+                this.signedEntries.put(index, entry);
+                return;
+            }
+            AtomicReferenceArray<CachedEntry> slots = getSlots(size);
+            if (slots != null) {
+                slots.set(index & (slots.length() - 1), new CachedEntry(index, entry));
+            }
+        }
+
+        private AtomicReferenceArray<CachedEntry> getSlots(int size) {
+            AtomicReferenceArray<CachedEntry> slots = this.slots;
+            if (slots == null && this.capacity > 0) {
+                synchronized (this) {
+                    slots = this.slots;
+                    if (slots == null) {
+                        int length = Integer.highestOneBit(Math.max(1,
+                            Math.min(this.capacity, size)) * 2 - 1);
+                        slots = new AtomicReferenceArray<>(length);
+                        this.slots = slots;
+                    }
+                }
+            }
+            return slots;
+        }
+
+        void clear() {
+            this.slots = null;
+            this.signedEntries.clear();
+        }
+    }
+
+    private static class CachedEntry {
+
+        private final int        index;
+
+        private final FileHeader entry;
+
+        CachedEntry(int index, FileHeader entry) {
+            this.index = index;
+            this.entry = entry;
+        }
+    }
+
     /**
      * Iterator for contained entries.
      */
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.loader.data.RandomAccessData;
+import com.alipay.sofa.ark.spi.constant.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * On-disk index of the parsed central directory of a {@link JarFile}, root or nested. The
+ * index stores the sorted entry arrays of {@link JarFileEntries}, so a warm open only reads
+ * the end record of the jar and the index file instead of parsing and sorting every entry.
+ *
+ * <p>An index file is named after the path of the root jar and the path of the nested jar, so
+ * a changed jar rewrites its own index. The size and modification time of the root jar, the
+ * number of records and the size of the central directory are checked again on restore, any
+ * mismatch or unreadable index falls back to parsing, which then rewrites the index. Writing
+ * the index of a root jar also deletes index files of root jars since changed or removed.
+ * Index files can be deleted at any time.</p>
+ *
+ * @since 2.3.3
+ */
+final class JarFileIndex {
+
+    private static final int     MAGIC   = 0x41524B49;
+
+    private static final int     VERSION = 2;
+
+    private final Key            key;
+
+    private final Path           indexFile;
+
+    private final JarFile        jarFile;
+
+    private final JarFileEntries entries;
+
+    private JarFileIndex(Key key, Path indexFile, JarFile jarFile, JarFileEntries entries) {
+        this.key = key;
+        this.indexFile = indexFile;
+        this.jarFile = jarFile;
+        this.entries = entries;
+    }
+
+    /**
+     * Get index of a jar file
+     * @param rootFile the root jar file
+     * @param pathFromRoot the path of the nested jar, empty for the root jar
+     * @param jarFile the jar file
+     * @param entries the entries of the jar file to restore or store
+     * @return the index, null if disabled
+     */
+    static JarFileIndex get(File rootFile, String pathFromRoot, JarFile jarFile,
+                            JarFileEntries entries) {
+        if (!ArkConfigs.getBooleanValue(Constants.ARK_LOADER_JAR_INDEX_ENABLE, false)) {
+            return null;
+        }
+        Key key = new Key(rootFile.getAbsolutePath(), rootFile.length(), rootFile.lastModified(),
+            pathFromRoot);
+        return new JarFileIndex(key, getIndexDir().resolve(
+            digest(key.rootPath + "|" + key.pathFromRoot) + ".idx"), jarFile, entries);
+    }
+
+    /**
+     * Restore entries from the index file
+     * @param endRecord the end record of the jar
+     * @param centralDirectoryData the central directory of the jar
+     * @return true if restored, false if the index is absent or does not match the jar
+     */
+    boolean restore(CentralDirectoryEndRecord endRecord, RandomAccessData centralDirectoryData) {
+        if (!Files.isRegularFile(this.indexFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(this.indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read fully
+            }
+            buffer.flip();
+            if (!this.key.equals(Key.read(buffer))
+                || buffer.getInt() != endRecord.getNumberOfRecords()
+                || buffer.getLong() != centralDirectoryData.getSize()) {
+                return false;
+            }
+            boolean signed = buffer.get() != 0;
+            if (!this.entries.restore(buffer, centralDirectoryData, endRecord.getNumberOfRecords())) {
+                return false;
+            }
+            if (signed) {
+                this.jarFile.markSigned();
+            }
+            return true;
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Store parsed entries into the index file, failures are ignored
+     * @param endRecord the end record of the jar
+     * @param centralDirectoryData the central directory of the jar
+     */
+    void store(CentralDirectoryEndRecord endRecord, RandomAccessData centralDirectoryData) {
+        Path tempFile = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            this.key.write(output);
+            output.writeInt(endRecord.getNumberOfRecords());
+            output.writeLong(centralDirectoryData.getSize());
+            output.writeBoolean(this.jarFile.isSigned());
+            this.entries.store(output);
+            output.flush();
+
+            Files.createDirectories(this.indexFile.getParent());
+            tempFile = Files.createTempFile(this.indexFile.getParent(), "jar-index", ".tmp");
+            Files.write(tempFile, bytes.toByteArray());
+            try {
+                Files.move(tempFile, this.indexFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, this.indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+            if (this.key.pathFromRoot.isEmpty()) {
+                deleteStaleIndexes(this.indexFile);
+            }
+        } catch (IOException e) {
+            // index is only an optimization
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete index files of root jars changed or removed since indexed, failures are ignored
+     * @param current index file just written
+     */
+    private static void deleteStaleIndexes(Path current) {
+        File[] files = current.getParent().toFile().listFiles(
+            (dir, name) -> name.endsWith(".idx"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.toPath().equals(current)) {
+                continue;
+            }
+            Key key;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 8192));
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    // read header
+                }
+                buffer.flip();
+                key = Key.read(buffer);
+            } catch (IOException | RuntimeException e) {
+                key = null;
+            }
+            if (key == null || key.isStale()) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Index files are kept under the biz install dir of ark unless configured
+     */
+    private static Path getIndexDir() {
+        String dir = ArkConfigs.getStringValue(Constants.ARK_LOADER_JAR_INDEX_DIR);
+        if (dir != null) {
+            return new File(dir).toPath();
+        }
+        String workDir = ArkConfigs.getStringValue(Constants.CONFIG_INSTALL_BIZ_DIR);
+        if (workDir == null || workDir.isEmpty()) {
+            workDir = new File(System.getProperty("java.io.tmpdir"), "sofa-ark").getPath();
+        }
+        return new File(workDir, "jar-index").toPath();
+    }
+
+    private static String digest(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(
+                key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(
+                    Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    /**
+     * Root jar and nested jar an index is built for
+     */
+    private static final class Key {
+
+        private final String rootPath;
+
+        private final long   rootLength;
+
+        private final long   rootLastModified;
+
+        private final String pathFromRoot;
+
+        Key(String rootPath, long rootLength, long rootLastModified, String pathFromRoot) {
+            this.rootPath = rootPath;
+            this.rootLength = rootLength;
+            this.rootLastModified = rootLastModified;
+            this.pathFromRoot = pathFromRoot;
+        }
+
+        /**
+         * @return whether the root jar is changed or removed since indexed
+         */
+        boolean isStale() {
+            File rootFile = new File(this.rootPath);
+            return !rootFile.isFile() || rootFile.length() != this.rootLength
+                   || rootFile.lastModified() != this.rootLastModified;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            writeString(output, this.rootPath);
+            output.writeLong(this.rootLength);
+            output.writeLong(this.rootLastModified);
+            writeString(output, this.pathFromRoot);
+        }
+
+        /**
+         * @return key read from the header of an index file, null if not an index file
+         */
+        static Key read(ByteBuffer buffer) {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            return new Key(readString(buffer), buffer.getLong(), buffer.getLong(),
+                readString(buffer));
+        }
+
+        private static void writeString(DataOutputStream output, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return this.rootLength == key.rootLength
+                   && this.rootLastModified == key.rootLastModified
+                   && this.rootPath.equals(key.rootPath)
+                   && this.pathFromRoot.equals(key.pathFromRoot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.rootPath, this.rootLength, this.rootLastModified,
+                this.pathFromRoot);
+        }
+    }
+}
@@ -237,11 +237,12 @@ final public class JarURLConnection extends java.net.JarURLConnection {
     }
 
     static JarURLConnection get(URL url, JarFile jarFile) throws IOException {
-        String spec = extractFullSpec(url, jarFile.getPathFromRoot());
+        // entry names are taken from the url file directly, without copying the spec
+        String file = url.getFile();
+        int index = getSpecIndex(file, jarFile.getPathFromRoot());
         int separator;
-        int index = 0;
-        while ((separator = spec.indexOf(SEPARATOR, index)) > 0) {
-            String entryName = spec.substring(index, separator);
+        while ((separator = file.indexOf(SEPARATOR, index)) > index) {
+            String entryName = file.substring(index, separator);
             JarEntry jarEntry = jarFile.getJarEntry(entryName);
             if (jarEntry == null) {
                 return JarURLConnection.notFound(jarFile, JarEntryName.get(entryName));
@@ -249,23 +250,27 @@ final public class JarURLConnection extends java.net.JarURLConnection {
             jarFile = jarFile.getNestedJarFile(jarEntry);
             index = separator + SEPARATOR.length();
         }
-        JarEntryName jarEntryName = JarEntryName.get(spec, index);
-        if (Boolean.TRUE.equals(useFastExceptions.get())) {
-            if (!jarEntryName.isEmpty() && !jarFile.containsEntry(jarEntryName.toString())) {
-                return NOT_FOUND_CONNECTION;
-            }
+        if (index >= file.length()) {
+            return new JarURLConnection(url, jarFile, EMPTY_JAR_ENTRY_NAME);
+        }
+        String name = file.substring(index);
+        if (Boolean.TRUE.equals(useFastExceptions.get())
+            && !jarFile.containsEntry(JarEntryName.decode(name))) {
+            return NOT_FOUND_CONNECTION;
         }
-        return new JarURLConnection(url, jarFile, jarEntryName);
+        return new JarURLConnection(url, jarFile, new JarEntryName(name));
     }
 
-    private static String extractFullSpec(URL url, String pathFromRoot) {
-        String file = url.getFile();
+    /**
+     * @return index of the spec following the path of the jar file in the url file, at least
+     *         the length of the url file if there is no spec
+     */
+    private static int getSpecIndex(String file, String pathFromRoot) {
         int separatorIndex = file.indexOf(SEPARATOR);
         if (separatorIndex < 0) {
-            return "";
+            return file.length();
         }
-        int specIndex = separatorIndex + SEPARATOR.length() + pathFromRoot.length();
-        return file.substring(specIndex);
+        return separatorIndex + SEPARATOR.length() + pathFromRoot.length();
     }
 
     private static JarURLConnection notFound() {
@@ -297,7 +302,10 @@ final public class JarURLConnection extends java.net.JarURLConnection {
             this.name = decode(spec);
         }
 
-        private String decode(String source) {
+        /**
+         * @return the decoded name, the source itself if it has no escaped character
+         */
+        static String decode(String source) {
             if (source.indexOf('%') < 0) {
                 return source;
             }
@@ -307,7 +315,7 @@ final public class JarURLConnection extends java.net.JarURLConnection {
             return AsciiBytes.toString(bos.toByteArray());
         }
 
-        private void write(String source, ByteArrayOutputStream outputStream) {
+        private static void write(String source, ByteArrayOutputStream outputStream) {
             int length = source.length();
             for (int i = 0; i < length; i++) {
                 int c = source.charAt(i);
@@ -332,7 +340,7 @@ final public class JarURLConnection extends java.net.JarURLConnection {
             }
         }
 
-        private char decodeEscapeSequence(String source, int i) {
+        private static char decodeEscapeSequence(String source, int i) {
             int hi = Character.digit(source.charAt(i + 1), 16);
             int lo = Character.digit(source.charAt(i + 2), 16);
             if (hi == -1 || lo == -1) {
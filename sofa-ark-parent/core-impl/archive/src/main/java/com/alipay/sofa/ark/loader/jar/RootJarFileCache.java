@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.spi.constant.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of root {@link JarFile}s opened by {@link Handler}, bounded by the number of files,
+ * each holding open file handles, and by the bytes mapped into memory when
+ * {@link Constants#ARK_LOADER_JAR_MAPPED_ENABLE} is set. The least recently used jar files
+ * are evicted and closed once a bound is exceeded, and files of an uninstalled biz are
+ * evicted explicitly. A connection still holding an evicted jar file keeps reading it, the
+ * underlying file being opened or mapped again on demand.
+ *
+ * @since 2.3.3
+ */
+public final class RootJarFileCache {
+
+    private static final String                   FILE_PROTOCOL         = "file:";
+
+    private static final String                   SEPARATOR             = "!/";
+
+    /**
+     * default bounds, each root jar file holds two file handles
+     */
+    static final int                              DEFAULT_MAX_FILES     = 256;
+
+    static final int                              DEFAULT_MAX_MAPPED_MB = 4096;
+
+    private final int                             maxFiles;
+
+    private final long                            maxMappedBytes;
+
+    private final ConcurrentHashMap<File, Cached> jarFiles              = new ConcurrentHashMap<>();
+
+    /**
+     * files evicted by the bounds, to count reopens
+     */
+    private final Set<File>                       evictedFiles          = ConcurrentHashMap
+                                                                            .newKeySet();
+
+    private final AtomicLong                      mappedBytes           = new AtomicLong();
+
+    private final LongAdder                       hits                  = new LongAdder();
+
+    private final LongAdder                       opens                 = new LongAdder();
+
+    private final LongAdder                       reopens               = new LongAdder();
+
+    private final LongAdder                       evictions             = new LongAdder();
+
+    RootJarFileCache(int maxFiles, long maxMappedBytes) {
+        this.maxFiles = maxFiles;
+        this.maxMappedBytes = maxMappedBytes;
+    }
+
+    public static RootJarFileCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Return the cached jar file of given root file, opening it if absent.
+     * @param file the root file
+     * @return the jar file
+     * @throws IOException if the file cannot be read
+     */
+    JarFile get(File file) throws IOException {
+        Cached cached = this.jarFiles.get(file);
+        if (cached != null) {
+            this.hits.increment();
+            cached.lastAccess = System.nanoTime();
+            return cached.jarFile;
+        }
+        try {
+            cached = this.jarFiles.computeIfAbsent(file, this::open);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        trim(file);
+        return cached.jarFile;
+    }
+
+    private Cached open(File file) {
+        try {
+            Cached cached = new Cached(new JarFile(file));
+            if (this.evictedFiles.remove(file)) {
+                this.reopens.increment();
+            } else {
+                this.opens.increment();
+            }
+            this.mappedBytes.addAndGet(cached.mappedSize);
+            return cached;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Add a jar file opened elsewhere, replacing the cached jar file of the root file.
+     * @param file the root file
+     * @param jarFile the jar file
+     */
+    void put(File file, JarFile jarFile) {
+        Cached cached = new Cached(jarFile);
+        this.mappedBytes.addAndGet(cached.mappedSize);
+        Cached previous = this.jarFiles.put(file, cached);
+        if (previous != null) {
+            this.mappedBytes.addAndGet(-previous.mappedSize);
+        }
+        trim(file);
+    }
+
+    /**
+     * Evict least recently used jar files until both bounds are met, never the jar file of
+     * the root file just accessed.
+     */
+    private synchronized void trim(File accessed) {
+        while (this.jarFiles.size() > this.maxFiles || this.mappedBytes.get() > this.maxMappedBytes) {
+            Map.Entry<File, Cached> eldest = null;
+            for (Map.Entry<File, Cached> entry : this.jarFiles.entrySet()) {
+                if (entry.getKey().equals(accessed)) {
+                    continue;
+                }
+                if (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (evict(eldest.getKey(), eldest.getValue())) {
+                this.evictedFiles.add(eldest.getKey());
+            }
+        }
+    }
+
+    /**
+     * Evict and close the jar file of given root file.
+     * @param file the root file
+     * @return true if a jar file was cached
+     */
+    public boolean evict(File file) {
+        this.evictedFiles.remove(file);
+        Cached cached = this.jarFiles.get(file);
+        return cached != null && evict(file, cached);
+    }
+
+    /**
+     * Evict and close the jar file containing the resource of given URL, such as
+     * {@code jar:file:/path/biz.jar!/lib/a.jar!/} or {@code file:/path/a.jar}.
+     * @param url the url
+     * @return true if a jar file was cached
+     */
+    public boolean evict(URL url) {
+        String spec = url.getFile();
+        if ("jar".equals(url.getProtocol())) {
+            int separatorIndex = spec.indexOf(SEPARATOR);
+            if (separatorIndex == -1 || !spec.startsWith(FILE_PROTOCOL)) {
+                return false;
+            }
+            spec = spec.substring(FILE_PROTOCOL.length(), separatorIndex);
+        } else if (!"file".equals(url.getProtocol())) {
+            return false;
+        }
+        return evict(FileUtils.file(spec));
+    }
+
+    private boolean evict(File file, Cached cached) {
+        if (!this.jarFiles.remove(file, cached)) {
+            return false;
+        }
+        this.mappedBytes.addAndGet(-cached.mappedSize);
+        this.evictions.increment();
+        try {
+            cached.jarFile.close();
+        } catch (IOException ex) {
+            // Ignore
+        }
+        return true;
+    }
+
+    /**
+     * @return number of lookups served by a cached jar file
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of jar files opened for a root file not evicted before
+     */
+    public long getOpenCount() {
+        return this.opens.sum();
+    }
+
+    /**
+     * @return number of jar files opened again after being evicted by the bounds
+     */
+    public long getReopenCount() {
+        return this.reopens.sum();
+    }
+
+    /**
+     * @return number of jar files evicted, by the bounds or explicitly
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return number of cached jar files
+     */
+    public int size() {
+        return this.jarFiles.size();
+    }
+
+    /**
+     * @return bytes mapped into memory by cached jar files
+     */
+    public long getMappedBytes() {
+        return this.mappedBytes.get();
+    }
+
+    private static class Cached {
+
+        private final JarFile jarFile;
+
+        private final long    mappedSize;
+
+        private volatile long lastAccess;
+
+        Cached(JarFile jarFile) {
+            this.jarFile = jarFile;
+            this.mappedSize = jarFile.getMappedSize();
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    private static class Holder {
+        private static final RootJarFileCache INSTANCE = new RootJarFileCache(
+                                                           ArkConfigs.getIntValue(
+                                                               Constants.ARK_LOADER_JAR_ROOT_CACHE_MAX_FILES,
+                                                               DEFAULT_MAX_FILES),
+                                                           ArkConfigs
+                                                               .getIntValue(
+                                                                   Constants.ARK_LOADER_JAR_ROOT_CACHE_MAX_MAPPED_MB,
+                                                                   DEFAULT_MAX_MAPPED_MB) * 1024L * 1024L);
+    }
+}
@@ -19,7 +19,6 @@ package com.alipay.sofa.ark.loader.jar;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 /**
@@ -30,12 +29,29 @@ import java.util.zip.InflaterInputStream;
  */
 public class ZipInflaterInputStream extends InflaterInputStream {
 
-    private boolean extraBytesWritten;
+    private final InflaterPool     pool;
 
-    private int     available;
+    private InflaterPool.Resources resources;
+
+    private boolean                extraBytesWritten;
+
+    private int                    available;
 
     ZipInflaterInputStream(InputStream inputStream, int size) {
-        super(inputStream, new Inflater(true), getInflaterBufferSize(size));
+        this(inputStream, size, InflaterPool.getInstance());
+    }
+
+    ZipInflaterInputStream(InputStream inputStream, int size, InflaterPool pool) {
+        this(inputStream, size, pool, pool.acquire());
+    }
+
+    private ZipInflaterInputStream(InputStream inputStream, int size, InflaterPool pool,
+                                   InflaterPool.Resources resources) {
+        // the buffer allocated by super is replaced with the pooled one
+        super(inputStream, resources.inflater, 1);
+        this.buf = resources.buffer;
+        this.pool = pool;
+        this.resources = resources;
         this.available = size;
     }
 
@@ -59,7 +75,10 @@ public class ZipInflaterInputStream extends InflaterInputStream {
     @Override
     public void close() throws IOException {
         super.close();
-        this.inf.end();
+        if (this.resources != null) {
+            this.pool.release(this.resources);
+            this.resources = null;
+        }
     }
 
     @Override
@@ -77,12 +96,4 @@ public class ZipInflaterInputStream extends InflaterInputStream {
         }
     }
 
-    private static int getInflaterBufferSize(long size) {
-        // inflater likes some space
-        size += 2;
-        size = (size > 65536 ? 8192 : size);
-        size = (size <= 0 ? 4096 : size);
-        return (int) size;
-    }
-
 }
@@ -24,6 +24,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+
 import static org.apache.commons.io.FileUtils.deleteQuietly;
 
 /**
@@ -36,8 +38,17 @@ public class ExplodedBizArchiveTest {
     public void testCreate() throws IOException {
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
         URL arkBizJar = cl.getResource("sample-biz-withjar.jar");
-        File unpack = FileUtils.unzip(FileUtils.file(arkBizJar.getFile()), arkBizJar.getFile()
-                                                                     + "-unpack");
+        File tempDir = Files.createTempDirectory("exploded-biz-archive").toFile();
+        try {
+            File unpack = FileUtils.unzip(FileUtils.file(arkBizJar.getFile()), new File(tempDir,
+                "sample-biz-withjar.jar-unpack").getAbsolutePath());
+            assertCreate(unpack);
+        } finally {
+            deleteQuietly(tempDir);
+        }
+    }
+
+    private void assertCreate(File unpack) throws IOException {
         ExplodedBizArchive archive = new ExplodedBizArchive(unpack);
         Assert.assertNotNull(archive.getManifest());
         Assert.assertNotNull(archive.getUrl());
@@ -94,12 +105,16 @@ public class ExplodedBizArchiveTest {
     public void testCloseManifestFileStream() throws IOException {
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
         URL arkBizJar = cl.getResource("sample-biz-withjar.jar");
-        File unpack = FileUtils.unzip(FileUtils.file(arkBizJar.getFile()), arkBizJar.getFile()
-                                                                           + "-testdelete-unpack");
-        ExplodedBizArchive archive = new ExplodedBizArchive(unpack);
-        Assert.assertNotNull(archive.getManifest());
-        File file = new File(unpack, "META-INF/MANIFEST.MF");
-        Assert.assertTrue(file.delete());
-        deleteQuietly(unpack);
+        File tempDir = Files.createTempDirectory("exploded-biz-archive").toFile();
+        try {
+            File unpack = FileUtils.unzip(FileUtils.file(arkBizJar.getFile()), new File(tempDir,
+                "sample-biz-withjar.jar-testdelete-unpack").getAbsolutePath());
+            ExplodedBizArchive archive = new ExplodedBizArchive(unpack);
+            Assert.assertNotNull(archive.getManifest());
+            File file = new File(unpack, "META-INF/MANIFEST.MF");
+            Assert.assertTrue(file.delete());
+        } finally {
+            deleteQuietly(tempDir);
+        }
     }
 }
\ No newline at end of file
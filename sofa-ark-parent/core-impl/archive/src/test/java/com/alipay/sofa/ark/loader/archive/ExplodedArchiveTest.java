@@ -17,13 +17,22 @@
 package com.alipay.sofa.ark.loader.archive;
 
 import com.alipay.sofa.ark.spi.archive.Archive;
+import com.alipay.sofa.ark.spi.archive.Archive.Entry;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_EXPLODED_PARALLEL_SCAN_ENABLE;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class ExplodedArchiveTest {
@@ -34,9 +43,23 @@ public class ExplodedArchiveTest {
                                                    .getResource("./exploded-archive-test/")
                                                    .getFile();
 
+    private File            tree;
+
     @Before
-    public void setUp() {
+    public void setUp() throws IOException {
         explodedArchive = new ExplodedArchive(new File(archiveTestDirPath));
+        tree = Files.createTempDirectory("exploded-archive").toFile();
+        for (String name : new String[] { "a/x", "a/y/z", "a-b", "a.txt", "b/c/d/e" }) {
+            File file = new File(tree, name);
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(ARK_LOADER_EXPLODED_PARALLEL_SCAN_ENABLE);
+        deleteQuietly(tree);
     }
 
     @Test
@@ -51,4 +74,41 @@ public class ExplodedArchiveTest {
         assertTrue(nestedArchivesStr.contains("/example-jarinjarinjar.jar!/"));
         assertTrue(nestedArchivesStr.contains("/sample-biz.jar!/"));
     }
+
+    @Test
+    public void testEntriesOrder() {
+        ExplodedArchive archive = new ExplodedArchive(tree);
+        assertEquals(Arrays.asList("a/", "a/x", "a/y/", "a/y/z", "a-b", "a.txt", "b/", "b/c/",
+            "b/c/d/", "b/c/d/e"), entryNames(archive));
+        for (Entry entry : archive) {
+            assertEquals(entry.getName().endsWith("/"), entry.isDirectory());
+        }
+        // listing is cached
+        assertEquals(entryNames(archive), entryNames(archive));
+    }
+
+    @Test
+    public void testNonRecursiveEntries() {
+        ExplodedArchive archive = new ExplodedArchive(tree, false);
+        assertEquals(Arrays.asList("a/", "a/x", "a/y/", "a-b", "a.txt", "b/", "b/c/"),
+            entryNames(archive));
+    }
+
+    @Test
+    public void testParallelScan() {
+        List<String> expected = entryNames(new ExplodedArchive(tree));
+        List<String> expectedNonRecursive = entryNames(new ExplodedArchive(tree, false));
+        System.setProperty(ARK_LOADER_EXPLODED_PARALLEL_SCAN_ENABLE, "true");
+        assertEquals(expected, entryNames(new ExplodedArchive(tree)));
+        assertEquals(expectedNonRecursive, entryNames(new ExplodedArchive(tree, false)));
+        assertFalse(entryNames(new ExplodedArchive(new File(archiveTestDirPath))).isEmpty());
+    }
+
+    private List<String> entryNames(ExplodedArchive archive) {
+        List<String> names = new ArrayList<>();
+        for (Entry entry : archive) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.data;
+
+import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class MappedRandomAccessDataTest {
+
+    private final File file = new File(this.getClass().getClassLoader()
+                                .getResource("sample-biz.jar").getPath());
+
+    @Test
+    public void testReadSameAsFile() throws IOException {
+        MappedRandomAccessData mappedData = new MappedRandomAccessData(file);
+        RandomAccessDataFile fileData = new RandomAccessDataFile(file);
+        try {
+            assertEquals(fileData.getSize(), mappedData.getSize());
+            assertArrayEquals(read(fileData), read(mappedData));
+            assertArrayEquals(read(fileData.getSubsection(100, 1000).getSubsection(10, 200)),
+                read(mappedData.getSubsection(100, 1000).getSubsection(10, 200)));
+
+            try (InputStream inputStream = mappedData.getSubsection(100, 3).getInputStream(
+                ResourceAccess.PER_READ)) {
+                assertEquals(2, inputStream.skip(2));
+                assertTrue(inputStream.read() >= 0);
+                assertEquals(-1, inputStream.read());
+                assertEquals(-1, inputStream.read(new byte[1]));
+            }
+        } finally {
+            mappedData.close();
+            fileData.close();
+        }
+    }
+
+    @Test
+    public void testCloseUnmapAndMapOnRead() throws IOException {
+        MappedRandomAccessData mappedData = new MappedRandomAccessData(file);
+        RandomAccessData subsection = mappedData.getSubsection(0, 4);
+        assertFalse(mappedData.isMapped());
+        byte[] bytes = read(subsection);
+        assertTrue(mappedData.isMapped());
+
+        mappedData.close();
+        assertFalse(mappedData.isMapped());
+        assertArrayEquals(bytes, read(subsection));
+        assertTrue(mappedData.isMapped());
+        mappedData.close();
+    }
+
+    private byte[] read(RandomAccessData data) throws IOException {
+        try (InputStream inputStream = data.getInputStream(ResourceAccess.ONCE)) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.data;
+
+import com.alipay.sofa.ark.loader.data.RandomAccessData.ResourceAccess;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class RandomAccessDataFileTest {
+
+    private final File file = new File(this.getClass().getClassLoader()
+                                .getResource("sample-biz.jar").getPath());
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        byte[] expected = FileUtils.readFileToByteArray(file);
+        for (RandomAccessDataFile data : new RandomAccessDataFile[] {
+                new RandomAccessDataFile(file), new RandomAccessDataFile(file, 2) }) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    int offset = (i * 97) % (expected.length - 512);
+                    ResourceAccess access = i % 2 == 0 ? ResourceAccess.ONCE
+                        : ResourceAccess.PER_READ;
+                    futures.add(executor.submit(() -> Arrays.equals(
+                        Arrays.copyOfRange(expected, offset, offset + 512),
+                        read(data.getSubsection(offset, 512), access))));
+                }
+                for (Future<Boolean> future : futures) {
+                    assertTrue(future.get());
+                }
+            } finally {
+                executor.shutdown();
+                data.close();
+            }
+        }
+    }
+
+    @Test
+    public void testReadAfterCloseAndInterrupt() throws IOException {
+        RandomAccessDataFile data = new RandomAccessDataFile(file);
+        RandomAccessData subsection = data.getSubsection(10, 100);
+        byte[] bytes = read(subsection, ResourceAccess.PER_READ);
+        assertEquals(100, bytes.length);
+
+        data.close();
+        assertArrayEquals(bytes, read(subsection, ResourceAccess.PER_READ));
+
+        // interrupt closes the channel, the read is retried and the interrupt kept
+        Thread.currentThread().interrupt();
+        try {
+            assertArrayEquals(bytes, read(subsection, ResourceAccess.PER_READ));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertArrayEquals(bytes, read(subsection, ResourceAccess.ONCE));
+        data.close();
+    }
+
+    private static byte[] read(RandomAccessData data, ResourceAccess access) throws IOException {
+        try (InputStream inputStream = data.getInputStream(access)) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsciiBytesTest {
+
+    @Test
+    public void testMatches() {
+        AsciiBytes name = new AsciiBytes("com/alipay/Sample.class");
+        assertTrue(name.matches("com/alipay/Sample.class", null));
+        assertTrue(name.matches("com/alipay/Sample.class", ""));
+        assertTrue(name.matches("com/alipay/", "Sample.class"));
+        assertFalse(name.matches("com/alipay/Sample.clas", null));
+        assertFalse(name.matches("com/alipay/Sample.class", "/"));
+        assertFalse(name.matches("com/alipay/Sample.claSS", null));
+
+        AsciiBytes directory = new AsciiBytes("META-INF/");
+        assertTrue(directory.matches("META-INF", "/"));
+        assertFalse(directory.matches("META-INF", null));
+    }
+
+    @Test
+    public void testMatchesMultiByteName() {
+        String value = "lib/été/中文/😀.jar";
+        AsciiBytes name = new AsciiBytes(value.getBytes(StandardCharsets.UTF_8));
+        assertEquals(value.hashCode(), name.hashCode());
+        assertTrue(name.matches(value, null));
+        assertTrue(name.matches("lib/été/中文/😀", ".jar"));
+        assertFalse(name.matches("lib/été/中文/😁.jar", null));
+        assertFalse(name.matches("lib/ete/中文/😀.jar", null));
+        assertFalse(name.matches("lib/été/中文/\ud83d", null));
+    }
+
+    @Test
+    public void testMatchesTruncatedSequence() {
+        byte[] bytes = "aé".getBytes(StandardCharsets.UTF_8);
+        AsciiBytes truncated = new AsciiBytes(bytes, 0, bytes.length - 1);
+        assertFalse(truncated.matches("a", null));
+        assertFalse(truncated.matches("aé", null));
+    }
+}
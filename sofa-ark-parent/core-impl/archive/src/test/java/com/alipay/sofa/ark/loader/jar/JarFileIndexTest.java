@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_JAR_INDEX_DIR;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_JAR_INDEX_ENABLE;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class JarFileIndexTest {
+
+    private final File jar = new File(this.getClass().getClassLoader()
+                               .getResource("sample-biz-withjar.jar").getPath());
+
+    private File       indexDir;
+
+    @Before
+    public void before() throws IOException {
+        indexDir = Files.createTempDirectory("jar-index").toFile();
+        System.setProperty(ARK_LOADER_JAR_INDEX_ENABLE, "true");
+        System.setProperty(ARK_LOADER_JAR_INDEX_DIR, indexDir.getAbsolutePath());
+    }
+
+    @After
+    public void after() {
+        System.clearProperty(ARK_LOADER_JAR_INDEX_ENABLE);
+        System.clearProperty(ARK_LOADER_JAR_INDEX_DIR);
+        deleteQuietly(indexDir);
+    }
+
+    @Test
+    public void testRestoreFromIndex() throws IOException {
+        List<String> coldNames = new ArrayList<>();
+        int[] coldHashCodes;
+        try (JarFile jarFile = new JarFile(jar)) {
+            coldHashCodes = jarFile.getEntryHashCodes();
+            coldNames.addAll(entryNames(jarFile));
+            coldNames.addAll(entryNames(jarFile.getNestedJarFile(jarFile
+                .getJarEntry("lib/slf4j-api-1.7.30.jar"))));
+        }
+        // root jar and nested jar
+        assertEquals(2, indexDir.listFiles().length);
+
+        List<String> warmNames = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(jar)) {
+            CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(jarFile.getData());
+            JarFileEntries entries = new JarFileEntries(jarFile, null);
+            assertTrue(JarFileIndex.get(jar, "", jarFile, entries).restore(endRecord,
+                endRecord.getCentralDirectory(jarFile.getData())));
+            assertArrayEquals(coldHashCodes, entries.getHashCodes());
+
+            assertArrayEquals(coldHashCodes, jarFile.getEntryHashCodes());
+            warmNames.addAll(entryNames(jarFile));
+            JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile
+                .getJarEntry("lib/slf4j-api-1.7.30.jar"));
+            warmNames.addAll(entryNames(nestedJarFile));
+            assertNotNull(nestedJarFile.getEntry("org/slf4j/Logger.class"));
+        }
+        assertEquals(coldNames, warmNames);
+    }
+
+    @Test
+    public void testFallbackOnInvalidIndex() throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            assertTrue(jarFile.getEntryHashCodes().length > 0);
+        }
+        File index = indexDir.listFiles()[0];
+        Files.write(index.toPath(), new byte[] { 1, 2, 3 });
+
+        try (JarFile jarFile = new JarFile(jar)) {
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+        }
+        // rewritten after parsing
+        assertTrue(index.length() > 3);
+    }
+
+    @Test
+    public void testDeleteStaleIndexes() throws IOException {
+        File copy = new File(indexDir.getParentFile(), indexDir.getName() + ".jar");
+        Files.copy(jar.toPath(), copy.toPath());
+        try {
+            try (JarFile jarFile = new JarFile(copy)) {
+                entryNames(jarFile
+                    .getNestedJarFile(jarFile.getJarEntry("lib/slf4j-api-1.7.30.jar")));
+            }
+            assertEquals(2, indexDir.listFiles().length);
+
+            // a changed jar rewrites its own index, the nested index of the former jar is deleted
+            assertTrue(copy.setLastModified(copy.lastModified() - 10000));
+            try (JarFile jarFile = new JarFile(copy)) {
+                assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            }
+            assertEquals(1, indexDir.listFiles().length);
+        } finally {
+            assertTrue(copy.delete());
+        }
+
+        // indexes of the removed jar are deleted once another root jar is indexed
+        try (JarFile jarFile = new JarFile(jar)) {
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+        }
+        assertEquals(1, indexDir.listFiles().length);
+    }
+
+    private List<String> entryNames(JarFile jarFile) {
+        List<String> names = new ArrayList<>();
+        for (ZipEntry entry : Collections.list(jarFile.entries())) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+}
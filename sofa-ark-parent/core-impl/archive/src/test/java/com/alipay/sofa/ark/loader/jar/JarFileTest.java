@@ -16,14 +16,24 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import com.alipay.sofa.ark.loader.data.MappedRandomAccessData;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
 
 import static com.alipay.sofa.ark.loader.jar.JarFile.JarFileType.DIRECT;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_JAR_ENTRY_CACHE_SIZE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_JAR_MAPPED_ENABLE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class JarFileTest {
 
@@ -41,4 +51,91 @@ public class JarFileTest {
         jarFile.clearCache();
         assertEquals(DIRECT, jarFile.getType());
     }
+
+    @Test
+    public void testGetEntryHashCodes() throws IOException {
+        URL url = this.getClass().getClassLoader().getResource("sample-biz.jar");
+        JarFile jarFile = new JarFile(new File(url.getPath()));
+        int[] hashCodes = jarFile.getEntryHashCodes();
+        assertEquals(Collections.list(jarFile.entries()).size(), hashCodes.length);
+        Arrays.sort(hashCodes);
+        assertTrue(Arrays.binarySearch(hashCodes, "META-INF/MANIFEST.MF".hashCode()) >= 0);
+        jarFile.close();
+    }
+
+    @Test
+    public void testMappedJarFile() throws IOException {
+        System.setProperty(ARK_LOADER_JAR_MAPPED_ENABLE, "true");
+        try {
+            URL url = this.getClass().getClassLoader().getResource("sample-biz-withjar.jar");
+            JarFile jarFile = new JarFile(new File(url.getPath()));
+            assertTrue(jarFile.getData() instanceof MappedRandomAccessData);
+            assertNotNull(jarFile.getManifest());
+            for (ZipEntry entry : Collections.list(jarFile.entries())) {
+                if (entry.getName().endsWith(".jar")) {
+                    JarFile nestedJarFile = jarFile.getNestedJarFile(entry);
+                    assertTrue(nestedJarFile.getData() instanceof MappedRandomAccessData);
+                    assertTrue(Collections.list(nestedJarFile.entries()).size() > 0);
+                }
+            }
+            jarFile.close();
+        } finally {
+            System.clearProperty(ARK_LOADER_JAR_MAPPED_ENABLE);
+        }
+    }
+
+    @Test
+    public void testCloseNestedMappedJarFile() throws IOException {
+        System.setProperty(ARK_LOADER_JAR_MAPPED_ENABLE, "true");
+        try {
+            URL url = this.getClass().getClassLoader().getResource("sample-biz-withjar.jar");
+            JarFile jarFile = new JarFile(new File(url.getPath()));
+            MappedRandomAccessData data = (MappedRandomAccessData) jarFile.getData();
+            ZipEntry nestedEntry = null;
+            for (ZipEntry entry : Collections.list(jarFile.entries())) {
+                if (entry.getName().endsWith(".jar")) {
+                    nestedEntry = entry;
+                }
+            }
+            assertNotNull(nestedEntry);
+            JarFile nestedJarFile = jarFile.getNestedJarFile(nestedEntry);
+            assertTrue(Collections.list(nestedJarFile.entries()).size() > 0);
+            nestedJarFile.close();
+
+            // the root keeps its mapping
+            assertTrue(data.isMapped());
+            try (InputStream inputStream = jarFile.getInputStream(jarFile
+                .getEntry("META-INF/MANIFEST.MF"))) {
+                assertTrue(inputStream.read() >= 0);
+            }
+            assertTrue(data.isMapped());
+
+            jarFile.close();
+            assertFalse(data.isMapped());
+        } finally {
+            System.clearProperty(ARK_LOADER_JAR_MAPPED_ENABLE);
+        }
+    }
+
+    @Test
+    public void testEntryCacheStats() throws IOException {
+        URL url = this.getClass().getClassLoader().getResource("sample-biz.jar");
+        try (JarFile jarFile = new JarFile(new File(url.getPath()))) {
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            long misses = jarFile.getEntryCacheMissCount();
+            assertTrue(misses > 0);
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            assertEquals(misses, jarFile.getEntryCacheMissCount());
+            assertTrue(jarFile.getEntryCacheHitCount() > 0);
+        }
+
+        System.setProperty(ARK_LOADER_JAR_ENTRY_CACHE_SIZE, "0");
+        try (JarFile jarFile = new JarFile(new File(url.getPath()))) {
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            assertNotNull(jarFile.getEntry("META-INF/MANIFEST.MF"));
+            assertEquals(0, jarFile.getEntryCacheHitCount());
+        } finally {
+            System.clearProperty(ARK_LOADER_JAR_ENTRY_CACHE_SIZE);
+        }
+    }
 }
@@ -81,6 +81,28 @@ public class JarURLConnectionTest {
         assertEquals(0, jarURLConnection.getLastModified());
     }
 
+    @Test
+    public void testGetNestedEntry() throws IOException {
+        JarFile jarFile = new JarFile(new File(url.getPath()));
+        String nested = "file:" + url.getPath() + "!/lib/slf4j-api-1.7.30.jar!/";
+        jarURLConnection = get(new URL(nested + "org/slf4j/Logger.class"), jarFile);
+        assertEquals("org/slf4j/Logger.class", jarURLConnection.getEntryName());
+        assertNotNull(jarURLConnection.getJarEntry());
+        // escaped names are decoded before the lookup
+        jarURLConnection = get(new URL(nested + "org/slf4j/%4Cogger.class"), jarFile);
+        assertEquals("org/slf4j/Logger.class", jarURLConnection.getEntryName());
+
+        JarURLConnection.setUseFastExceptions(true);
+        try {
+            assertNotNull(get(new URL(nested + "org/slf4j/%4Cogger.class"), jarFile).getJarEntry());
+            assertNotNull(get(new URL(nested + "org/slf4j/Logger.class"), jarFile).getJarEntry());
+            assertSame(get(new URL(nested + "not/Exist.class"), jarFile),
+                get(new URL(nested + "not/Exist.class"), jarFile));
+        } finally {
+            JarURLConnection.setUseFastExceptions(false);
+        }
+    }
+
     @Test
     public void testJarEntryName() {
         JarEntryName jarEntryName = get(url.toString());
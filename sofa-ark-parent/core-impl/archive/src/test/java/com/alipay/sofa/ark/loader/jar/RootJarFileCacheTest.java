@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.loader.jar;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_LOADER_JAR_MAPPED_ENABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RootJarFileCacheTest {
+
+    private final File junitJar     = getFile("junit-4.12.jar");
+
+    private final File sampleBizJar = getFile("sample-biz.jar");
+
+    private final File withJarJar   = getFile("sample-biz-withjar.jar");
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        RootJarFileCache cache = new RootJarFileCache(2, Long.MAX_VALUE);
+        JarFile junit = cache.get(junitJar);
+        JarFile sampleBiz = cache.get(sampleBizJar);
+        assertSame(junit, cache.get(junitJar));
+        assertEquals(2, cache.getOpenCount());
+        assertEquals(1, cache.getHitCount());
+
+        cache.get(withJarJar);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(junit, cache.get(junitJar));
+
+        // an evicted jar file can still be read by its holders
+        try (InputStream inputStream = sampleBiz.getInputStream(sampleBiz
+            .getEntry("META-INF/MANIFEST.MF"))) {
+            assertTrue(IOUtils.toByteArray(inputStream).length > 0);
+        }
+
+        assertNotSame(sampleBiz, cache.get(sampleBizJar));
+        assertEquals(1, cache.getReopenCount());
+        assertEquals(3, cache.getOpenCount());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictByUrl() throws Exception {
+        RootJarFileCache cache = new RootJarFileCache(10, Long.MAX_VALUE);
+        cache.get(withJarJar);
+        cache.get(junitJar);
+        assertTrue(cache.evict(new URL("jar:" + withJarJar.toURI() + "!/lib/junit-4.12.jar!/")));
+        assertTrue(cache.evict(junitJar.toURI().toURL()));
+        assertFalse(cache.evict(junitJar.toURI().toURL()));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+
+        // explicit eviction is not counted as reopen
+        cache.get(junitJar);
+        assertEquals(0, cache.getReopenCount());
+        assertEquals(3, cache.getOpenCount());
+    }
+
+    @Test
+    public void testEvictByMappedBytes() throws Exception {
+        System.setProperty(ARK_LOADER_JAR_MAPPED_ENABLE, "true");
+        try {
+            RootJarFileCache cache = new RootJarFileCache(10, junitJar.length()
+                                                              + sampleBizJar.length());
+            cache.get(junitJar);
+            cache.get(sampleBizJar);
+            assertEquals(2, cache.size());
+            assertEquals(junitJar.length() + sampleBizJar.length(), cache.getMappedBytes());
+
+            cache.get(withJarJar);
+            assertEquals(1, cache.getEvictionCount());
+            assertEquals(sampleBizJar.length() + withJarJar.length(), cache.getMappedBytes());
+            assertTrue(cache.evict(sampleBizJar) && cache.evict(withJarJar));
+            assertEquals(0, cache.getMappedBytes());
+        } finally {
+            System.clearProperty(ARK_LOADER_JAR_MAPPED_ENABLE);
+        }
+    }
+
+    private File getFile(String name) {
+        return new File(getClass().getClassLoader().getResource(name).getFile());
+    }
+}
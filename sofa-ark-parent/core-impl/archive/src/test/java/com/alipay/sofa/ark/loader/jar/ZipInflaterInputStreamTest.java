@@ -16,13 +16,18 @@
  */
 package com.alipay.sofa.ark.loader.jar;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.zip.Deflater;
 import java.util.zip.InflaterInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ZipInflaterInputStreamTest {
 
@@ -38,4 +43,41 @@ public class ZipInflaterInputStreamTest {
         field.setAccessible(true);
         assertEquals(true, field.get(zipInflaterInputStream));
     }
+
+    @Test
+    public void testPooledInflater() throws Exception {
+        byte[] content = new byte[20000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 31);
+        }
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(content);
+        deflater.finish();
+        byte[] buffer = new byte[content.length];
+        byte[] compressed = Arrays.copyOf(buffer, deflater.deflate(buffer));
+        deflater.end();
+
+        InflaterPool pool = new InflaterPool(1);
+        for (int i = 0; i < 3; i++) {
+            try (ZipInflaterInputStream inputStream = new ZipInflaterInputStream(
+                new ByteArrayInputStream(compressed), content.length, pool)) {
+                assertArrayEquals(content, IOUtils.toByteArray(inputStream));
+            }
+        }
+        assertEquals(1, pool.getMissCount());
+        assertEquals(2, pool.getHitCount());
+        assertEquals(1, pool.getIdleCount());
+        assertTrue(pool.getEstimatedMemory() > 0);
+
+        // pool is full
+        ZipInflaterInputStream first = new ZipInflaterInputStream(new ByteArrayInputStream(
+            compressed), content.length, pool);
+        ZipInflaterInputStream second = new ZipInflaterInputStream(new ByteArrayInputStream(
+            compressed), content.length, pool);
+        first.close();
+        second.close();
+        second.close();
+        assertEquals(1, pool.getDiscardCount());
+        assertEquals(1, pool.getIdleCount());
+    }
 }
@@ -27,7 +27,13 @@ import com.alipay.sofa.ark.common.util.ParseUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.container.service.classloader.AbstractClasspathClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ClassPreloadProfile;
+import com.alipay.sofa.ark.container.service.classloader.DenyImportMatcher;
+import com.alipay.sofa.ark.container.service.classloader.ExportPackageTrie;
+import com.alipay.sofa.ark.container.service.classloader.ResourceStemMatcher;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
+import com.alipay.sofa.ark.loader.jar.Handler;
 import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizStartupEvent;
@@ -42,6 +48,8 @@ import com.alipay.sofa.ark.spi.model.BizState;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import java.io.File;
 import java.io.IOException;
@@ -50,6 +58,7 @@ import java.io.StringWriter;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -61,7 +70,13 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_TEMP_WORK_DIR_RECYCLE_FILE_SUFFIX;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_UNPACK_DIR_SUFFIX;
 import static com.alipay.sofa.ark.spi.constant.Constants.ACTIVATE_MULTI_BIZ_VERSION_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_CLASS_PRELOAD_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_CLASS_PRELOAD_SIZE_MAX;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_CLASS_PRELOAD_THREADS;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_BIZ_CLASS_PRELOAD_TIMEOUT;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_PRELOAD_PROFILE_SUFFIX;
 import static com.alipay.sofa.ark.spi.constant.Constants.REMOVE_BIZ_INSTANCE_AFTER_STOP_FAILED;
 import static org.apache.commons.io.FileUtils.deleteQuietly;
 
@@ -72,53 +87,61 @@ import static org.apache.commons.io.FileUtils.deleteQuietly;
  * @since 0.1.0
  */
 public class BizModel implements Biz {
-    private String               bizName;
+    private String                                         bizName;
 
-    private String               bizVersion;
+    private String                                         bizVersion;
 
-    private BizState             bizState;
+    private BizState                                       bizState;
 
-    private String               mainClass;
+    private String                                         mainClass;
 
-    private String               webContextPath;
+    private String                                         webContextPath;
 
-    private URL[]                urls;
+    private URL[]                                          urls;
 
-    private URL                  bizUrl;
+    private URL                                            bizUrl;
 
-    private URL[]                pluginUrls;
+    private URL[]                                          pluginUrls;
 
-    private ClassLoader          classLoader;
+    private ClassLoader                                    classLoader;
 
-    private Map<String, String>  attributes                    = new ConcurrentHashMap<>();
+    private Map<String, String>                            attributes                    = new ConcurrentHashMap<>();
 
-    private int                  priority                      = DEFAULT_PRECEDENCE;
+    private int                                            priority                      = DEFAULT_PRECEDENCE;
 
-    private Set<String>          denyImportPackages;
+    private Set<String>                                    denyImportPackages;
 
-    private Set<String>          denyImportPackageNodes        = new HashSet<>();
+    private Set<String>                                    denyImportPackageNodes        = new HashSet<>();
 
-    private Set<String>          denyImportPackageStems        = new HashSet<>();
+    private Set<String>                                    denyImportPackageStems        = new HashSet<>();
 
-    private Set<String>          denyImportClasses;
+    private Set<String>                                    denyImportClasses;
 
-    private Set<String>          denyImportResources           = new HashSet<>();
+    private Set<String>                                    denyImportResources           = new HashSet<>();
 
-    private Set<String>          injectPluginDependencies      = new HashSet<>();
-    private Set<String>          injectExportPackages          = new HashSet<>();
+    private Set<String>                                    injectPluginDependencies      = new HashSet<>();
+    private Set<String>                                    injectExportPackages          = new HashSet<>();
 
-    private Set<String>          declaredLibraries             = new LinkedHashSet<>();
-    private Map<String, Boolean> declaredCacheMap              = new ConcurrentHashMap<>();
+    private Set<String>                                    declaredLibraries             = new LinkedHashSet<>();
+    private Map<String, Boolean>                           declaredCacheMap              = new ConcurrentHashMap<>();
 
-    private Set<String>          denyPrefixImportResourceStems = new HashSet<>();
+    /**
+     * declared decision of classes per provider classloader, which may be recycled first
+     */
+    private final Cache<ClassLoader, Map<String, Boolean>> declaredClassCache            = CacheBuilder
+                                                                                             .newBuilder()
+                                                                                             .weakKeys()
+                                                                                             .build();
+
+    private Set<String>                                    denyPrefixImportResourceStems = new HashSet<>();
 
-    private Set<String>          denySuffixImportResourceStems = new HashSet<>();
+    private Set<String>                                    denySuffixImportResourceStems = new HashSet<>();
 
-    private File                 bizTempWorkDir;
+    private File                                           bizTempWorkDir;
 
-    private List<BizStateRecord> bizStateRecords               = new CopyOnWriteArrayList<>();
+    private List<BizStateRecord>                           bizStateRecords               = new CopyOnWriteArrayList<>();
 
-    private Set<Plugin>          dependentPlugins              = new HashSet<>();
+    private Set<Plugin>                                    dependentPlugins              = new HashSet<>();
 
     public BizModel setBizName(String bizName) {
         AssertUtils.isFalse(StringUtils.isEmpty(bizName), "Biz Name must not be empty!");
@@ -192,12 +215,14 @@ public class BizModel implements Biz {
             Constants.MANIFEST_VALUE_SPLIT);
         ParseUtils.parsePackageNodeAndStem(this.denyImportPackages, this.denyImportPackageStems,
             this.denyImportPackageNodes);
+        this.denyImportMatcher = null;
         return this;
     }
 
     public BizModel setDenyImportClasses(String denyImportClasses) {
         this.denyImportClasses = StringUtils.strToSet(denyImportClasses,
             Constants.MANIFEST_VALUE_SPLIT);
+        this.denyImportMatcher = null;
         return this;
     }
 
@@ -206,6 +231,7 @@ public class BizModel implements Biz {
             StringUtils.strToSet(denyImportResources, Constants.MANIFEST_VALUE_SPLIT),
             this.denyPrefixImportResourceStems, denySuffixImportResourceStems,
             this.denyImportResources);
+        this.denyImportMatcher = null;
         return this;
     }
 
@@ -326,6 +352,19 @@ public class BizModel implements Biz {
         return denySuffixImportResourceStems;
     }
 
+    /**
+     * Get deny-import matcher compiled from current deny-import configuration
+     * @return immutable matcher
+     */
+    public DenyImportMatcher getDenyImportMatcher() {
+        DenyImportMatcher matcher = denyImportMatcher;
+        if (matcher == null) {
+            matcher = DenyImportMatcher.compile(this);
+            denyImportMatcher = matcher;
+        }
+        return matcher;
+    }
+
     @Override
     public void start(String[] args) throws Throwable {
         doStart(args, null);
@@ -356,16 +395,19 @@ public class BizModel implements Biz {
         ClassLoader oldClassLoader = ClassLoaderUtils.pushContextClassLoader(this.classLoader);
         EventAdminService eventAdminService = ArkServiceContainerHolder.getContainer().getService(
             EventAdminService.class);
+        ClassPreloadProfile preloadProfile = null;
         try {
             eventAdminService.sendEvent(new BeforeBizStartupEvent(this));
             resetProperties();
             if (!isMasterBizAndEmbedEnable()) {
                 long start = System.currentTimeMillis();
                 ArkLoggerFactory.getDefaultLogger().info("Ark biz {} start.", getIdentity());
+                preloadProfile = preloadClasses();
                 MainMethodRunner mainMethodRunner = new MainMethodRunner(mainClass, args, envs);
                 mainMethodRunner.run();
                 // this can trigger health checker handler
                 eventAdminService.sendEvent(new AfterBizStartupEvent(this));
+                savePreloadProfile(preloadProfile);
                 ArkLoggerFactory.getDefaultLogger().info("Ark biz {} started in {} ms",
                     getIdentity(), (System.currentTimeMillis() - start));
             }
@@ -374,6 +416,9 @@ public class BizModel implements Biz {
             eventAdminService.sendEvent(new AfterBizStartupFailedEvent(this, e));
             throw e;
         } finally {
+            if (preloadProfile != null) {
+                ((BizClassLoader) classLoader).setPreloadProfile(null);
+            }
             ClassLoaderUtils.popContextClassLoader(oldClassLoader);
         }
 
@@ -461,10 +506,19 @@ public class BizModel implements Biz {
                 bizManagerService.unRegisterBiz(bizName, bizVersion);
                 setBizState(BizState.STOPPED, StateChangeReason.STOPPED);
                 eventAdminService.sendEvent(new BeforeBizRecycleEvent(this));
+                boolean bizTempWorkDirShared = isBizTempWorkDirShared(bizManagerService);
+                if (!bizTempWorkDirShared) {
+                    // release root jar files cached by url handler, unless another biz reads them
+                    Handler.evictRootJarFiles(urls);
+                    Handler.evictRootJarFiles(bizUrl);
+                }
                 urls = null;
                 denyImportPackages = null;
                 denyImportClasses = null;
                 denyImportResources = null;
+                denyImportMatcher = null;
+                declaredCacheMap.clear();
+                declaredClassCache.invalidateAll();
                 // close classloader
                 if (classLoader instanceof AbstractClasspathClassLoader) {
                     try {
@@ -478,7 +532,16 @@ public class BizModel implements Biz {
                 eventAdminService.sendEvent(new AfterBizStopEvent(this));
                 eventAdminService.unRegister(classLoader);
                 classLoader = null;
-                recycleBizTempWorkDir(bizTempWorkDir);
+                if (!bizTempWorkDirShared) {
+                    // the profile recorded for the work dir never matches a new one
+                    File profileFile = ClassPreloadProfile.getProfileFile(bizName, bizVersion,
+                        bizTempWorkDir, BIZ_CLASS_PRELOAD_PROFILE_SUFFIX);
+                    recycleBizTempWorkDir(bizTempWorkDir);
+                    if (profileFile != null) {
+                        deleteQuietly(profileFile);
+                    }
+                    recycleBizContentDir(bizTempWorkDir);
+                }
                 bizTempWorkDir = null;
             }
             ClassLoaderUtils.popContextClassLoader(oldClassLoader);
@@ -534,6 +597,68 @@ public class BizModel implements Biz {
         return this;
     }
 
+    /**
+     * Preload classes recorded by a former start of this biz version, or start recording them
+     * if there is no profile yet
+     *
+     * @return profile being recorded, null if not recording
+     */
+    private ClassPreloadProfile preloadClasses() {
+        if (!ArkConfigs.getBooleanValue(ARK_BIZ_CLASS_PRELOAD_ENABLE, false)
+            || !(classLoader instanceof BizClassLoader)) {
+            return null;
+        }
+        File profileFile = ClassPreloadProfile.getProfileFile(bizName, bizVersion, bizTempWorkDir,
+            BIZ_CLASS_PRELOAD_PROFILE_SUFFIX);
+        if (profileFile == null) {
+            ArkLoggerFactory.getDefaultLogger().info(
+                "Ark biz {} has no work dir, class preload is skipped", getIdentity());
+            return null;
+        }
+        if (profileFile.isFile()) {
+            try {
+                List<String> classNames = ClassPreloadProfile.read(profileFile);
+                if (!classNames.isEmpty()) {
+                    long start = System.currentTimeMillis();
+                    int loaded = ClassPreloadProfile.preload(classLoader, classNames, ArkConfigs
+                        .getIntValue(ARK_BIZ_CLASS_PRELOAD_THREADS, Runtime.getRuntime()
+                            .availableProcessors()), ArkConfigs.getIntValue(
+                        ARK_BIZ_CLASS_PRELOAD_TIMEOUT, 60000));
+                    ArkLoggerFactory.getDefaultLogger().info(
+                        "Ark biz {} preloaded {} of {} classes in {} ms", getIdentity(), loaded,
+                        classNames.size(), (System.currentTimeMillis() - start));
+                    return null;
+                }
+            } catch (IOException e) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    "Ark biz {} read class preload profile {} fail", getIdentity(), profileFile, e);
+            }
+        }
+        ClassPreloadProfile.deleteStaleProfiles(profileFile, bizName, bizVersion,
+            BIZ_CLASS_PRELOAD_PROFILE_SUFFIX);
+        ClassPreloadProfile preloadProfile = new ClassPreloadProfile(profileFile,
+            ArkConfigs.getIntValue(ARK_BIZ_CLASS_PRELOAD_SIZE_MAX, 100000));
+        ((BizClassLoader) classLoader).setPreloadProfile(preloadProfile);
+        return preloadProfile;
+    }
+
+    private void savePreloadProfile(ClassPreloadProfile preloadProfile) {
+        if (preloadProfile == null) {
+            return;
+        }
+        ((BizClassLoader) classLoader).setPreloadProfile(null);
+        try {
+            preloadProfile.save();
+            ArkLoggerFactory.getDefaultLogger().info(
+                "Ark biz {} recorded {} classes into preload profile {}", getIdentity(),
+                preloadProfile.getRecordedClasses().size(), preloadProfile.getFile());
+        } catch (IOException e) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                "Ark biz {} save class preload profile {} fail", getIdentity(),
+                preloadProfile.getFile(), e);
+        }
+    }
+
     private boolean isMasterBizAndEmbedEnable() {
         return this == ArkClient.getMasterBiz() && ArkConfigs.isEmbedEnable();
     }
@@ -544,6 +669,8 @@ public class BizModel implements Biz {
         }
         this.declaredLibraries = StringUtils.strToSet(declaredLibraries,
             Constants.MANIFEST_VALUE_SPLIT);
+        this.declaredCacheMap.clear();
+        this.declaredClassCache.invalidateAll();
         return this;
     }
 
@@ -568,6 +695,40 @@ public class BizModel implements Biz {
         return false;
     }
 
+    /**
+     * check class loaded by other classloader whether declared, the decision is cached per
+     * provider classloader and class name, so repeated lookups never enumerate resources again
+     * @param clazz class loaded by classLoader
+     * @param classLoader classLoader which provides the class
+     * @return true if the class is declared
+     * @throws IOException if fail to enumerate the class file resources
+     */
+    @Override
+    public boolean isDeclaredClass(Class<?> clazz, ClassLoader classLoader) throws IOException {
+        // compatibility with no-declaredMode
+        if (!isDeclaredMode()) {
+            return true;
+        }
+        Map<String, Boolean> classCacheMap = declaredClassCache.asMap().computeIfAbsent(
+            classLoader, k -> new ConcurrentHashMap<>());
+        Boolean declared = classCacheMap.get(clazz.getName());
+        if (declared == null) {
+            // don't cache when resources enumeration fails
+            declared = Biz.super.isDeclaredClass(clazz, classLoader);
+            if (declared && !isDeclaredCodeSource(clazz)) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    String.format("find class %s in multiple dependencies.", clazz.getName()));
+            }
+            classCacheMap.put(clazz.getName(), declared);
+        }
+        return declared;
+    }
+
+    private boolean isDeclaredCodeSource(Class<?> clazz) {
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        return codeSource != null && isDeclared(codeSource.getLocation(), "");
+    }
+
     public boolean isDeclaredMode() {
         if (declaredLibraries == null || declaredLibraries.size() == 0) {
             return false;
@@ -629,6 +790,23 @@ public class BizModel implements Biz {
         return false;
     }
 
+    /**
+     * whether another installed biz runs from the same work dir, i.e. from the tree unpacked
+     * for a biz file of identical content
+     */
+    private boolean isBizTempWorkDirShared(BizManagerService bizManagerService) {
+        if (bizTempWorkDir == null) {
+            return false;
+        }
+        for (Biz biz : bizManagerService.getBizInOrder()) {
+            if (biz != this && biz instanceof BizModel
+                && bizTempWorkDir.equals(((BizModel) biz).getBizTempWorkDir())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * recycle biz temp work dir
      *
@@ -662,6 +840,23 @@ public class BizModel implements Biz {
         return deleteQuietly(bizTempWorkDir);
     }
 
+    /**
+     * remove the content dir holding trees unpacked for biz files of identical content, once
+     * the last tree in it is recycled
+     *
+     * @param bizTempWorkDir recycled biz temp work dir
+     */
+    private static void recycleBizContentDir(File bizTempWorkDir) {
+        File contentDir = bizTempWorkDir == null ? null : bizTempWorkDir.getAbsoluteFile()
+            .getParentFile();
+        if (contentDir == null || !bizTempWorkDir.getName().endsWith(BIZ_UNPACK_DIR_SUFFIX)
+            || !contentDir.getName().matches("[0-9a-f]{40}")) {
+            return;
+        }
+        // only succeeds once empty, as another tree or an unpack in progress may be left in it
+        contentDir.delete();
+    }
+
     /**
      * mark biz temp work dir is recycled
      *
@@ -692,12 +887,16 @@ public class BizModel implements Biz {
     private ConcurrentHashMap<String, Plugin>       exportClassAndClassLoaderMap              = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Plugin>       exportNodeAndClassLoaderMap               = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Plugin>       exportStemAndClassLoaderMap               = new ConcurrentHashMap<>();
+    private volatile ExportPackageTrie              exportPackageTrie;
 
     /* export cache and classloader relationship cache */
     private ConcurrentHashMap<String, List<Plugin>> exportResourceAndClassLoaderMap           = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, List<Plugin>> exportPrefixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, List<Plugin>> exportSuffixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
 
+    /* compiled deny import configuration, reset when the configuration changes */
+    private volatile DenyImportMatcher              denyImportMatcher;
+
     public ConcurrentHashMap<String, Plugin> getExportClassAndClassLoaderMap() {
         return exportClassAndClassLoaderMap;
     }
@@ -710,6 +909,19 @@ public class BizModel implements Biz {
         return exportStemAndClassLoaderMap;
     }
 
+    /**
+     * compiled form of export class relationship, null if not built yet
+     * @return export package trie
+     */
+    public ExportPackageTrie getExportPackageTrie() {
+        return exportPackageTrie;
+    }
+
+    public BizModel setExportPackageTrie(ExportPackageTrie exportPackageTrie) {
+        this.exportPackageTrie = exportPackageTrie;
+        return this;
+    }
+
     public ConcurrentHashMap<String, List<Plugin>> getExportResourceAndClassLoaderMap() {
         return exportResourceAndClassLoaderMap;
     }
@@ -722,4 +934,16 @@ public class BizModel implements Biz {
         return exportSuffixStemResourceAndClassLoaderMap;
     }
 
+    /* compiled form of export resource stem relationship, null if not built yet */
+    private volatile ResourceStemMatcher<List<Plugin>> exportResourceStemMatcher;
+
+    public ResourceStemMatcher<List<Plugin>> getExportResourceStemMatcher() {
+        return exportResourceStemMatcher;
+    }
+
+    public BizModel setExportResourceStemMatcher(ResourceStemMatcher<List<Plugin>> exportResourceStemMatcher) {
+        this.exportResourceStemMatcher = exportResourceStemMatcher;
+        return this;
+    }
+
 }
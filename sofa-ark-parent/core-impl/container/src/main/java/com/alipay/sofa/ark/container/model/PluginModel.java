@@ -20,6 +20,8 @@ import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.ParseUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.ExportClassBytesCache;
+import com.alipay.sofa.ark.container.service.classloader.ResourceStemMatcher;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.event.plugin.AfterPluginStartupEvent;
@@ -176,6 +178,7 @@ public class PluginModel implements Plugin {
         ParseUtils.parseResourceAndStem(
             StringUtils.strToSet(importResources, Constants.MANIFEST_VALUE_SPLIT),
             this.importPrefixResourceStems, importSuffixResourceStems, this.importResources);
+        this.importResourceStemMatcher = null;
         return this;
     }
 
@@ -309,6 +312,22 @@ public class PluginModel implements Plugin {
         return importSuffixResourceStems;
     }
 
+    /* compiled import resource stems, reset when import resources change */
+    private volatile ResourceStemMatcher<Boolean> importResourceStemMatcher;
+
+    /**
+     * Get matcher compiled from import resource stems
+     * @return immutable matcher
+     */
+    public ResourceStemMatcher<Boolean> getImportResourceStemMatcher() {
+        ResourceStemMatcher<Boolean> matcher = importResourceStemMatcher;
+        if (matcher == null) {
+            matcher = ResourceStemMatcher.of(importPrefixResourceStems, importSuffixResourceStems);
+            importResourceStemMatcher = matcher;
+        }
+        return matcher;
+    }
+
     @Override
     public Set<String> getExportResources() {
         return exportResources;
@@ -367,6 +386,7 @@ public class PluginModel implements Plugin {
             throw new ArkRuntimeException(ex.getMessage(), ex);
         } finally {
             eventAdminService.sendEvent(new AfterPluginStopEvent(this));
+            ExportClassBytesCache.getInstance().invalidate(this);
             if (this.getPluginClassLoader() != null) {
                 eventAdminService.unRegister(this.getPluginClassLoader());
             }
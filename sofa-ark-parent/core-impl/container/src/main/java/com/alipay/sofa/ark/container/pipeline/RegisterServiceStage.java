@@ -20,6 +20,7 @@ import com.alipay.sofa.ark.container.registry.ContainerServiceProvider;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.container.service.biz.BizCommandProvider;
 import com.alipay.sofa.ark.container.service.biz.DefaultBizDeployer;
+import com.alipay.sofa.ark.container.service.classloader.ClassLoaderCommandProvider;
 import com.alipay.sofa.ark.container.service.plugin.PluginCommandProvider;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.pipeline.PipelineContext;
@@ -37,6 +38,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_COMMAND_UNIQUE_ID;
+import static com.alipay.sofa.ark.spi.constant.Constants.CLASSLOADER_COMMAND_UNIQUE_ID;
 import static com.alipay.sofa.ark.spi.constant.Constants.PLUGIN_COMMAND_UNIQUE_ID;
 
 /**
@@ -93,6 +95,8 @@ public class RegisterServiceStage implements PipelineStage {
             PLUGIN_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
         registryService.publishService(CommandProvider.class, new BizCommandProvider(),
             BIZ_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
+        registryService.publishService(CommandProvider.class, new ClassLoaderCommandProvider(),
+            CLASSLOADER_COMMAND_UNIQUE_ID, new ContainerServiceProvider());
     }
 
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.service.ArkService;
 import com.alipay.sofa.ark.spi.service.biz.BizFactoryService;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
 import com.alipay.sofa.ark.spi.service.injection.InjectionService;
 import com.alipay.sofa.ark.spi.service.plugin.PluginFactoryService;
@@ -94,6 +95,7 @@ public class ArkServiceContainer {
                 ArkClient.setEventAdminService(getService(EventAdminService.class));
                 ArkClient.setPluginManagerService(getService(PluginManagerService.class));
                 ArkClient.setPluginFactoryService(getService(PluginFactoryService.class));
+                ArkClient.setClassLoaderService(getService(ClassLoaderService.class));
                 ArkClient.setArguments(arguments);
                 ArkLoggerFactory.getDefaultLogger().info("Finish to start ArkServiceContainer");
             } finally {
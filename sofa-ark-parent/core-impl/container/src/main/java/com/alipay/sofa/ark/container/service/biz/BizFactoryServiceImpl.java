@@ -23,6 +23,9 @@ import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
+import com.alipay.sofa.ark.container.service.classloader.ExportPackageTrie;
+import com.alipay.sofa.ark.container.service.classloader.IndexedClassPath;
+import com.alipay.sofa.ark.container.service.classloader.ResourceStemMatcher;
 import com.alipay.sofa.ark.loader.ExplodedBizArchive;
 import com.alipay.sofa.ark.loader.DirectoryBizArchive;
 import com.alipay.sofa.ark.loader.JarBizArchive;
@@ -41,6 +44,10 @@ import com.google.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -52,6 +59,7 @@ import java.util.jar.Attributes;
 import java.util.stream.Stream;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.*;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 
 /**
  * {@link BizFactoryService}
@@ -146,9 +154,14 @@ public class BizFactoryServiceImpl implements BizFactoryService {
         bizModel.setPluginClassPath(getPluginURLs(bizModel));
 
         // create biz classloader
+        boolean exploded = bizArchive instanceof ExplodedBizArchive
+                           || bizArchive instanceof DirectoryBizArchive;
         BizClassLoader bizClassLoader = new BizClassLoader(bizModel.getIdentity(),
-            getBizUcp(bizModel), bizArchive instanceof ExplodedBizArchive
-                                 || bizArchive instanceof DirectoryBizArchive);
+            getBizUcp(bizModel), exploded);
+        if (!exploded) {
+            bizClassLoader.setIndexedClassPath(IndexedClassPath.load(bizArchive,
+                bizClassLoader.getURLs()));
+        }
         bizClassLoader.setBizModel(bizModel);
         bizModel.setClassLoader(bizClassLoader);
 
@@ -178,10 +191,7 @@ public class BizFactoryServiceImpl implements BizFactoryService {
         boolean unpackBizWhenInstall = Boolean.parseBoolean(ArkConfigs.getStringValue(
             UNPACK_BIZ_WHEN_INSTALL, "true"));
         if (ArkConfigs.isEmbedEnable() && unpackBizWhenInstall) {
-            File unpackFile = FileUtils.file(file.getAbsolutePath() + "-unpack");
-            if (!unpackFile.exists()) {
-                unpackFile = FileUtils.unzip(file, file.getAbsolutePath() + "-unpack");
-            }
+            File unpackFile = unpackBizFile(file);
             if (file.exists()) {
                 file.delete();
             }
@@ -195,6 +205,45 @@ public class BizFactoryServiceImpl implements BizFactoryService {
         return bizArchive;
     }
 
+    /**
+     * Unpack the biz file into {@code <sha1>/<file name>-unpack} beside it, so that a biz of
+     * identical content installed again reuses the tree instead of unpacking again. The tree is
+     * extracted into a temporary directory which is renamed once complete, so a partially
+     * extracted tree is never reused.
+     */
+    private File unpackBizFile(File file) throws IOException {
+        String unpackName = file.getName() + BIZ_UNPACK_DIR_SUFFIX;
+        File contentDir = new File(file.getAbsoluteFile().getParentFile(), FileUtils.sha1Hash(file));
+        File unpackFile = new File(contentDir, unpackName);
+        if (unpackFile.isDirectory()) {
+            return unpackFile;
+        }
+        Path tempDir;
+        try {
+            Files.createDirectories(contentDir.toPath());
+            tempDir = Files.createTempDirectory(contentDir.toPath(), unpackName);
+        } catch (NoSuchFileException e) {
+            // content dir removed by the recycle of its last tree in the meantime
+            Files.createDirectories(contentDir.toPath());
+            tempDir = Files.createTempDirectory(contentDir.toPath(), unpackName);
+        }
+        try {
+            FileUtils.unzip(file, tempDir.toString(), ArkConfigs.getIntValue(
+                UNPACK_BIZ_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+            Files.move(tempDir, unpackFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // unpacked concurrently by another install of the same content
+            if (!unpackFile.isDirectory()) {
+                throw e;
+            }
+        } finally {
+            if (Files.exists(tempDir)) {
+                deleteQuietly(tempDir.toFile());
+            }
+        }
+        return unpackFile;
+    }
+
     private URL[] getMergedBizClassPath(URL[] bizArchiveUrls, URL[] extensionUrls) {
         if (extensionUrls == null || extensionUrls.length == 0) {
             return bizArchiveUrls;
@@ -242,6 +291,12 @@ public class BizFactoryServiceImpl implements BizFactoryService {
                 bizModel.getExportSuffixStemResourceAndClassLoaderMap().get(resource).add(plugin);
             }
         }
+        bizModel.setExportPackageTrie(ExportPackageTrie.build(
+            bizModel.getExportClassAndClassLoaderMap(), bizModel.getExportNodeAndClassLoaderMap(),
+            bizModel.getExportStemAndClassLoaderMap()));
+        bizModel.setExportResourceStemMatcher(ResourceStemMatcher.build(
+            bizModel.getExportPrefixStemResourceAndClassLoaderMap(),
+            bizModel.getExportSuffixStemResourceAndClassLoaderMap()));
     }
 
     private Set<String> getInjectDependencies(String injectPluginDependencies) {
@@ -21,6 +21,7 @@ import com.alipay.sofa.ark.common.util.BizIdentityUtils;
 import com.alipay.sofa.ark.common.util.OrderComparator;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
+import com.alipay.sofa.ark.container.service.classloader.BizClassLoader;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.BizInfo.StateChangeReason;
@@ -60,7 +61,9 @@ public class BizManagerServiceImpl implements BizManagerService {
         // Second level cache key is version, value is biz model.
         bizRegistration.putIfAbsent(biz.getBizName(), new ConcurrentHashMap<>(16));
         ConcurrentHashMap<String, Biz> bizCache = bizRegistration.get(biz.getBizName());
-        return bizCache.put(biz.getBizVersion(), biz) == null;
+        Biz replaced = bizCache.put(biz.getBizVersion(), biz);
+        unbindClassLoader(replaced);
+        return replaced == null;
     }
 
     @Override
@@ -76,11 +79,22 @@ public class BizManagerServiceImpl implements BizManagerService {
         AssertUtils.isFalse(StringUtils.isEmpty(bizVersion), "Biz version must not be empty.");
         ConcurrentHashMap<String, Biz> bizCache = bizRegistration.get(bizName);
         if (bizCache != null) {
-            return bizCache.remove(bizVersion);
+            Biz biz = bizCache.remove(bizVersion);
+            unbindClassLoader(biz);
+            return biz;
         }
         return null;
     }
 
+    /**
+     * Biz classloader binds its registered biz, drop the binding once the biz leaves registry
+     */
+    private void unbindClassLoader(Biz biz) {
+        if (biz != null && biz.getBizClassLoader() instanceof BizClassLoader) {
+            ((BizClassLoader) biz.getBizClassLoader()).unbindBiz();
+        }
+    }
+
     @Override
     public List<Biz> getBiz(String bizName) {
         AssertUtils.isFalse(StringUtils.isEmpty(bizName), "Biz name must not be empty.");
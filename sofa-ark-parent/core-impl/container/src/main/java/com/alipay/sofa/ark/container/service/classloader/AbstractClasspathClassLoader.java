@@ -27,8 +27,12 @@ import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.loader.jar.Handler;
 import com.alipay.sofa.ark.loader.jar.JarUtils;
 import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStatistics;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.io.FileUtils;
 
 import java.io.ByteArrayOutputStream;
@@ -48,7 +52,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.jar.JarFile;
 
 import static com.google.common.cache.CacheBuilder.newBuilder;
@@ -63,21 +70,68 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  */
 public abstract class AbstractClasspathClassLoader extends URLClassLoader {
 
-    protected static final String              CLASS_RESOURCE_SUFFIX = ".class";
+    protected static final String                 CLASS_RESOURCE_SUFFIX      = ".class";
 
-    protected ClassLoaderService               classloaderService    = ArkServiceContainerHolder
-                                                                         .getContainer()
-                                                                         .getService(
-                                                                             ClassLoaderService.class);
+    protected ClassLoaderService                  classloaderService         = ArkServiceContainerHolder
+                                                                                 .getContainer()
+                                                                                 .getService(
+                                                                                     ClassLoaderService.class);
 
-    protected Cache<String, LoadClassResult>   classCache;
+    protected Cache<String, LoadClassResult>      classCache;
 
-    protected Cache<String, Optional<Package>> packageCache;
+    /**
+     * classes defined by this classloader, only used when loaded class index is enabled.
+     * Classes delegated to other classloaders are not kept, so they are never pinned here
+     */
+    protected ConcurrentHashMap<String, Class<?>> loadedClassIndex;
+
+    /**
+     * classes failed to resolve, only used when loaded class index is enabled
+     */
+    protected Cache<String, LoadClassResult>      missCache;
+
+    private final LongAdder                       loadedClassIndexHits       = new LongAdder();
+
+    protected Cache<String, Optional<Package>>    packageCache;
+
+    protected Cache<String, Optional<URL>>        urlResourceCache           = newBuilder()
+                                                                                 .expireAfterWrite(
+                                                                                     10, SECONDS)
+                                                                                 .build();
+    /**
+     * exported and local resources found by {@link #getResources(String)}, null if disabled.
+     * Hooks, JDK and master biz resources are always looked up
+     */
+    protected Cache<String, CachedResources>      urlResourcesCache;
+
+    /**
+     * bumped when plugins change, results cached before are dropped on next lookup
+     */
+    private static final AtomicLong               RESOURCES_CACHE_GENERATION = new AtomicLong();
+
+    /**
+     * bumped when the classpath of this classloader changes or caches are invalidated
+     */
+    private final AtomicLong                      localResourcesGeneration   = new AtomicLong();
+
+    /**
+     * resources of directories on the classpath may change, they are never cached
+     */
+    private volatile boolean                      directoryOnClassPath;
+
+    protected boolean                             exploded                   = false;
+
+    /**
+     * classpath index of the archive, null if the archive has no index
+     */
+    protected volatile IndexedClassPath           indexedClassPath;
+
+    protected final ClassLoadingStatistics        loadingStatistics          = new ClassLoadingStatistics();
 
-    protected Cache<String, Optional<URL>>     urlResourceCache      = newBuilder()
-                                                                         .expireAfterWrite(10,
-                                                                             SECONDS).build();
-    protected boolean                          exploded              = false;
+    /**
+     * class loading locks dropped once released, null to use the lock map of JDK
+     */
+    private final ClassLoadingLocks               classLoadingLocks;
 
     static {
         ClassLoader.registerAsParallelCapable();
@@ -85,14 +139,42 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
 
     public AbstractClasspathClassLoader(URL[] urls) {
         super(urls, null);
-        classCache = newBuilder()
-            .initialCapacity(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2500))
-            .maximumSize(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2500))
-            .concurrencyLevel(
-                ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
-            .expireAfterWrite(30, SECONDS).recordStats().build();
+        for (URL url : urls) {
+            directoryOnClassPath |= isDirectory(url);
+        }
+        classLoadingLocks = ArkConfigs.getBooleanValue(
+            Constants.ARK_CLASSLOADER_LOCK_WEAK_ENABLE, true) ? new ClassLoadingLocks() : null;
+        if (ArkConfigs.getBooleanValue(Constants.ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE, false)) {
+            // classes defined here are pinned by this classloader anyway, so index them without
+            // eviction and only bound misses, weighted by the length of class name
+            loadedClassIndex = new ConcurrentHashMap<>(ArkConfigs.getIntValue(
+                Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2500));
+            missCache = newBuilder()
+                .maximumWeight(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_MISS_MAX_WEIGHT, 262144))
+                .weigher((String name, LoadClassResult result) -> name.length())
+                .concurrencyLevel(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
+                .expireAfterWrite(30, SECONDS).recordStats().build();
+        } else {
+            classCache = newBuilder()
+                .initialCapacity(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL, 2500))
+                .maximumSize(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX, 2500))
+                .concurrencyLevel(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
+                .expireAfterWrite(30, SECONDS).recordStats().build();
+        }
+
+        int resourcesCacheSize = ArkConfigs.getIntValue(
+            Constants.ARK_CLASSLOADER_CACHE_RESOURCES_SIZE_MAX, 0);
+        if (resourcesCacheSize > 0) {
+            urlResourcesCache = newBuilder().maximumSize(resourcesCacheSize)
+                .concurrencyLevel(
+                    ArkConfigs.getIntValue(Constants.ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL, 16))
+                .recordStats().build();
+        }
 
         packageCache = newBuilder()
             .initialCapacity(
@@ -125,6 +207,14 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         }
     }
 
+    @Override
+    protected Object getClassLoadingLock(String className) {
+        if (classLoadingLocks == null) {
+            return super.getClassLoadingLock(className);
+        }
+        return classLoadingLocks.getLock(className);
+    }
+
     /**
      * Define a package before a {@code findClass} call is made. This is necessary to
      * ensure that the appropriate manifest for nested JARs is associated with the
@@ -157,26 +247,32 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
             AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
                 @Override
                 public Object run() throws Exception {
+                    String packageDirectory = packageName.replace('.', '/');
                     StringBuilder pen = new StringBuilder(packageName.length() + 10);
                     StringBuilder cen = new StringBuilder(className.length() + 10);
-                    String packageEntryName = pen.append(packageName.replace('.', '/')).append("/")
-                        .toString();
+                    String packageEntryName = pen.append(packageDirectory).append("/").toString();
                     String classEntryName = cen.append(className.replace('.', '/'))
                         .append(".class").toString();
-                    for (URL url : getURLs()) {
-                        try {
-                            URLConnection connection = url.openConnection();
-                            if (connection instanceof JarURLConnection) {
-                                JarFile jarFile = ((JarURLConnection) connection).getJarFile();
-                                if (jarFile.getEntry(classEntryName) != null
-                                    && jarFile.getEntry(packageEntryName) != null
-                                    && jarFile.getManifest() != null) {
-                                    definePackage(packageName, jarFile.getManifest(), url);
-                                    return null;
-                                }
+                    URL[] urls = getURLs();
+                    // go straight to the jars owning the package if indexed
+                    IndexedClassPath indexed = indexedClassPath;
+                    int[] candidates = indexed == null ? null : indexed
+                        .getCandidates(packageDirectory);
+                    if (candidates != null) {
+                        for (int position : candidates) {
+                            if (indexed.mayHaveManifest(position)
+                                && definePackage(packageName, packageEntryName, classEntryName,
+                                    urls[position])) {
+                                return null;
                             }
-                        } catch (IOException ex) {
-                            // Ignore
+                        }
+                        if (!indexed.isStale()) {
+                            return null;
+                        }
+                    }
+                    for (URL url : urls) {
+                        if (definePackage(packageName, packageEntryName, classEntryName, url)) {
+                            return null;
                         }
                     }
                     return null;
@@ -187,6 +283,24 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         }
     }
 
+    private boolean definePackage(String packageName, String packageEntryName,
+                                  String classEntryName, URL url) {
+        try {
+            URLConnection connection = url.openConnection();
+            if (connection instanceof JarURLConnection) {
+                JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+                if (jarFile.getEntry(classEntryName) != null
+                    && jarFile.getEntry(packageEntryName) != null && jarFile.getManifest() != null) {
+                    definePackage(packageName, jarFile.getManifest(), url);
+                    return true;
+                }
+            }
+        } catch (IOException ex) {
+            // Ignore
+        }
+        return false;
+    }
+
     @Override
     protected Package getPackage(String name) {
         Optional<Package> pkgInCache = packageCache.getIfPresent(name);
@@ -203,6 +317,19 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         return pkg;
     }
 
+    /**
+     * Set classpath index of the archive, it must be resolved against {@link #getURLs()} and
+     * verified
+     * @param indexedClassPath resolved classpath index, null to disable
+     */
+    public void setIndexedClassPath(IndexedClassPath indexedClassPath) {
+        this.indexedClassPath = indexedClassPath;
+    }
+
+    public IndexedClassPath getIndexedClassPath() {
+        return indexedClassPath;
+    }
+
     /**
      * cache load results of classes recently loaded
      * @param name
@@ -211,6 +338,9 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @throws ArkLoaderException
      */
     protected Class<?> loadClassWithCache(String name, boolean resolve) throws ArkLoaderException {
+        if (loadedClassIndex != null) {
+            return loadClassWithIndex(name, resolve);
+        }
         try {
             LoadClassResult resultInCache = classCache.get(name, () -> {
                 LoadClassResult r = new LoadClassResult();
@@ -234,6 +364,72 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         }
     }
 
+    /**
+     * look up loaded class index and miss cache before delegation
+     * @param name
+     * @param resolve
+     * @return
+     * @throws ArkLoaderException
+     */
+    private Class<?> loadClassWithIndex(String name, boolean resolve) throws ArkLoaderException {
+        Class<?> clazz = loadedClassIndex.get(name);
+        if (clazz != null) {
+            loadedClassIndexHits.increment();
+            return clazz;
+        }
+        LoadClassResult miss = missCache.getIfPresent(name);
+        if (miss != null) {
+            throw miss.getEx();
+        }
+
+        // the steps defining classes in this classloader take the class loading lock, so
+        // delegation of a missing name takes no lock of its own
+        try {
+            clazz = loadClassInternal(name, resolve);
+        } catch (ArkLoaderException ex) {
+            LoadClassResult result = new LoadClassResult();
+            result.setEx(ex);
+            missCache.put(name, result);
+            throw ex;
+        }
+        if (clazz.getClassLoader() == this) {
+            loadedClassIndex.put(name, clazz);
+        }
+        return clazz;
+    }
+
+    /**
+     * Get count of classes in loaded class index
+     * @return -1 if loaded class index is disabled
+     */
+    public int getLoadedClassIndexSize() {
+        return loadedClassIndex == null ? -1 : loadedClassIndex.size();
+    }
+
+    /**
+     * Get count of lookups answered by loaded class index
+     * @return
+     */
+    public long getLoadedClassIndexHitCount() {
+        return loadedClassIndexHits.sum();
+    }
+
+    /**
+     * Get statistics of miss cache
+     * @return null if loaded class index is disabled
+     */
+    public CacheStats getMissCacheStats() {
+        return missCache == null ? null : missCache.stats();
+    }
+
+    /**
+     * Get statistics of each class loading stage of this classloader
+     * @return
+     */
+    public ClassLoadingStatistics getClassLoadingStatistics() {
+        return loadingStatistics;
+    }
+
     /**
      * Real logic to load class，need to implement by Sub ClassLoader
      * @param name
@@ -296,35 +492,119 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
     public Enumeration<URL> getResources(String name) throws IOException {
         Handler.setUseFastConnectionExceptions(true);
         try {
-            if (isDeclaredMode()) {
-                List<Enumeration<URL>> enumerationList = new ArrayList<>();
-                // 1. get resources from ClassLoaderHook.
-                enumerationList.add(preFindResources(name));
-                // 2. get jdk resources, plugin resources declared by the biz and resources in the biz.
-                enumerationList.add(getResourcesInternal(name));
-                // 3. delegate master biz to get resources declared by the biz.
-                enumerationList.add(postFindResources(name));
-                // unique urls
-                return uniqueUrls(enumerationList, name);
-            } else {
-                Enumeration<URL> ret = preFindResources(name);
-                if (ret != null && ret.hasMoreElements()) {
-                    return ret;
-                }
-                ret = getResourcesInternal(name);
-                if (ret != null && ret.hasMoreElements()) {
-                    return ret;
-                }
-                ret = postFindResources(name);
-                return ret != null ? ret : new CompoundEnumeration<URL>(
-                    (Enumeration<URL>[]) new Enumeration<?>[] {});
-            }
-
+            return getResourcesWithoutCache(name);
         } finally {
             Handler.setUseFastConnectionExceptions(false);
         }
     }
 
+    /**
+     * Find export and local resources, through the cache if enabled and the classpath has
+     * no directory. Entries are stamped with the generations read before the lookup, so an
+     * entry computed before an invalidation is never served after it.
+     * @param name
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    private Enumeration<URL> getExportAndLocalResources(String name) throws IOException {
+        if (urlResourcesCache == null || exploded || directoryOnClassPath) {
+            return new CompoundEnumeration<>((Enumeration<URL>[]) new Enumeration<?>[] {
+                    getExportResources(name), getLocalResources(name) });
+        }
+        long generation = RESOURCES_CACHE_GENERATION.get();
+        long localGeneration = localResourcesGeneration.get();
+        CachedResources cached = urlResourcesCache.asMap().get(name);
+        if (cached != null && !cached.isCurrent(generation, localGeneration)) {
+            urlResourcesCache.asMap().remove(name, cached);
+        }
+        try {
+            cached = urlResourcesCache.get(name, () -> new CachedResources(generation,
+                localGeneration, findExportAndLocalResources(name)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(String.format(
+                "[Ark Loader] unexpected exception when get resources: %s", name), e.getCause());
+        }
+        if (!cached.isCurrent(generation, localGeneration)) {
+            // loaded by a concurrent lookup started before an invalidation
+            return Collections.enumeration(findExportAndLocalResources(name));
+        }
+        return Collections.enumeration(cached.urls);
+    }
+
+    private List<URL> findExportAndLocalResources(String name) throws IOException {
+        List<URL> urls = Collections.list(getExportResources(name));
+        urls.addAll(Collections.list(getLocalResources(name)));
+        return Collections.unmodifiableList(urls);
+    }
+
+    /**
+     * Invalidate {@link #getResources(String)} results of all classloaders
+     */
+    public static void invalidateResourcesCache() {
+        RESOURCES_CACHE_GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Get statistics of {@link #getResources(String)} cache
+     * @return null if the cache is disabled
+     */
+    public CacheStats getResourcesCacheStats() {
+        return urlResourcesCache == null ? null : urlResourcesCache.stats();
+    }
+
+    @Override
+    protected void addURL(URL url) {
+        super.addURL(url);
+        // the new url is not covered by the index
+        indexedClassPath = null;
+        directoryOnClassPath |= isDirectory(url);
+        invalidateLocalResourcesCache();
+    }
+
+    private void invalidateLocalResourcesCache() {
+        if (urlResourcesCache != null) {
+            localResourcesGeneration.incrementAndGet();
+            urlResourcesCache.invalidateAll();
+        }
+    }
+
+    private static boolean isDirectory(URL url) {
+        return "file".equals(url.getProtocol()) && url.getPath().endsWith("/");
+    }
+
+    private Enumeration<URL> getResourcesWithoutCache(String name) throws IOException {
+        if (isDeclaredMode()) {
+            List<Enumeration<URL>> enumerationList = new ArrayList<>();
+            // 1. get resources from ClassLoaderHook.
+            enumerationList.add(preFindResources(name));
+            // 2. get jdk resources, plugin resources declared by the biz and resources in the biz.
+            enumerationList.add(getResourcesInternal(name));
+            // 3. delegate master biz to get resources declared by the biz.
+            enumerationList.add(postFindResources(name));
+            // unique urls
+            return uniqueUrls(enumerationList, name);
+        } else {
+            Enumeration<URL> ret = preFindResources(name);
+            if (ret != null && ret.hasMoreElements()) {
+                return ret;
+            }
+            ret = getResourcesInternal(name);
+            if (ret != null && ret.hasMoreElements()) {
+                return ret;
+            }
+            ret = postFindResources(name);
+            return ret != null ? ret : new CompoundEnumeration<URL>(
+                (Enumeration<URL>[]) new Enumeration<?>[] {});
+        }
+    }
+
     private Enumeration<URL> uniqueUrls(List<Enumeration<URL>> enumerationList, String resourceName) {
         // unique urls
         Set<String> temp = new HashSet<>();
@@ -363,11 +643,8 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
         // 1. find jdk resources
         enumerationList.add(getJdkResources(name));
 
-        // 2. find exported resources
-        enumerationList.add(getExportResources(name));
-
-        // 3. find local resources
-        enumerationList.add(getLocalResources(name));
+        // 2. find exported resources and 3. find local resources
+        enumerationList.add(getExportAndLocalResources(name));
 
         return new CompoundEnumeration<>(
             enumerationList.toArray((Enumeration<URL>[]) new Enumeration<?>[0]));
@@ -397,8 +674,12 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @return
      */
     protected Class<?> resolveJDKClass(String name) {
+        ClassLoader jdkClassLoader = classloaderService.getJDKClassLoader();
+        if (jdkClassLoader instanceof JDKDelegateClassLoader) {
+            return ((JDKDelegateClassLoader) jdkClassLoader).loadClassIfPresent(name);
+        }
         try {
-            return classloaderService.getJDKClassLoader().loadClass(name);
+            return jdkClassLoader.loadClass(name);
         } catch (ClassNotFoundException e) {
             // ignore
         }
@@ -411,33 +692,43 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @return
      */
     protected Class<?> resolveExportClass(String name) {
-        if (!PluginModel.EXPORTMODE_OVERRIDE.equals(classloaderService.getExportMode(name))) {
+        Plugin plugin = classloaderService.findExportPlugin(name);
+        if (plugin == null || !PluginModel.EXPORTMODE_OVERRIDE.equals(plugin.getExportMode())) {
             return doResolveExportClass(name);
         } else {
-            ClassLoader classLoader = classloaderService.findExportClassLoader(name);
-            URL url = classLoader.getResource(name.replace('.', '/') + ".class");
-            if (url != null) {
-                String filePath = url.getFile().replaceFirst("file:", "");
-                try {
-                    byte[] bytes;
-                    if (filePath.contains(".jar")) {
-                        bytes = getClassBytesFromJar(filePath, name.replace('.', '/') + ".class");
-                    } else {
-                        bytes = FileUtils.readFileToByteArray(new File(filePath));
-                    }
-                    return defineClass(name, bytes, 0, bytes.length);
-                } catch (Exception e) {
-                    ArkLoggerFactory.getDefaultLogger().warn(
-                        String.format("can't convert class to reLoad by bizClassLoader: %s",
-                            e.getMessage()));
-                    throw new RuntimeException(e);
+            ClassLoader classLoader = plugin.getPluginClassLoader();
+            try {
+                byte[] bytes = ExportClassBytesCache.getInstance().get(plugin, name,
+                    () -> readExportClassBytes(classLoader, name));
+                if (bytes == null) {
+                    return null;
                 }
-            } else {
-                return null;
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> clazz = findLoadedClass(name);
+                    return clazz != null ? clazz : defineClass(name, bytes, 0, bytes.length);
+                }
+            } catch (Exception e) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    String.format("can't convert class to reLoad by bizClassLoader: %s",
+                        e.getMessage()));
+                throw new RuntimeException(e);
             }
         }
     }
 
+    private byte[] readExportClassBytes(ClassLoader classLoader, String name) throws IOException {
+        URL url = classLoader.getResource(name.replace('.', '/') + ".class");
+        if (url == null) {
+            return null;
+        }
+        String filePath = url.getFile().replaceFirst("file:", "");
+        if (filePath.contains(".jar")) {
+            return getClassBytesFromJar(filePath, name.replace('.', '/') + ".class");
+        } else {
+            return FileUtils.readFileToByteArray(new File(filePath));
+        }
+    }
+
     private byte[] getClassBytesFromJar(String jarFilePath, String className) throws IOException {
         try (com.alipay.sofa.ark.loader.jar.JarFile jarFile = JarUtils
             .getNestedRootJarFromJarLocation(jarFilePath);
@@ -470,27 +761,12 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
                     if (clazz == null) {
                         return null;
                     }
-                    URL url = clazz.getProtectionDomain().getCodeSource().getLocation();
                     if (this instanceof BizClassLoader
                         && ((BizClassLoader) this).getBizModel() != null) {
                         BizModel bizModel = ((BizClassLoader) this).getBizModel();
-
-                        if (url != null && bizModel.isDeclared(url, "")) {
+                        if (bizModel.isDeclaredClass(clazz, importClassLoader)) {
                             return clazz;
                         }
-                        String classResourceName = name.replace('.', '/') + ".class";
-                        Enumeration<URL> urls = importClassLoader.getResources(classResourceName);
-                        while (urls.hasMoreElements()) {
-                            URL resourceUrl = urls.nextElement();
-                            if (resourceUrl != null
-                                && bizModel.isDeclared(resourceUrl, classResourceName)) {
-                                ArkLoggerFactory.getDefaultLogger().warn(
-                                    String.format(
-                                        "find class %s from %s in multiple dependencies.", name,
-                                        resourceUrl.getFile()));
-                                return clazz;
-                            }
-                        }
                     } else {
                         return clazz;
                     }
@@ -531,6 +807,10 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @return
      */
     protected Class<?> resolveLocalClass(String name) {
+        IndexedClassPath indexed = indexedClassPath;
+        if (indexed != null && indexed.isAbsentClass(name)) {
+            return null;
+        }
         try {
             return super.loadClass(name, false);
         } catch (ClassNotFoundException e) {
@@ -545,8 +825,13 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @return
      */
     protected Class<?> resolveJavaAgentClass(String name) {
+        ClassLoader agentClassLoader = classloaderService.getAgentClassLoader();
+        // probe class file first, as nearly all classes reaching here are absent
+        if (agentClassLoader.getResource(name.replace('.', '/') + ".class") == null) {
+            return null;
+        }
         try {
-            classloaderService.getAgentClassLoader().loadClass(name);
+            agentClassLoader.loadClass(name);
             return classloaderService.getSystemClassLoader().loadClass(name);
         } catch (ClassNotFoundException e) {
             // ignore
@@ -623,6 +908,10 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      * @return
      */
     protected URL getLocalResource(String resourceName) {
+        IndexedClassPath indexed = indexedClassPath;
+        if (indexed != null && indexed.isAbsentResource(resourceName)) {
+            return null;
+        }
         return super.getResource(resourceName);
     }
 
@@ -683,6 +972,10 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
     }
 
     protected Enumeration<URL> getLocalResources(String resourceName) throws IOException {
+        IndexedClassPath indexed = indexedClassPath;
+        if (indexed != null && indexed.isAbsentResource(resourceName)) {
+            return Collections.emptyEnumeration();
+        }
         return new UseFastConnectionExceptionsEnumeration(super.getResources(resourceName));
     }
 
@@ -692,13 +985,28 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
     }
 
     public void clearCache() {
-        classCache.cleanUp();
+        if (classCache != null) {
+            classCache.cleanUp();
+        }
+        if (missCache != null) {
+            missCache.cleanUp();
+        }
+        if (urlResourcesCache != null) {
+            urlResourcesCache.cleanUp();
+        }
         packageCache.cleanUp();
         urlResourceCache.cleanUp();
     }
 
     public void invalidAllCache() {
-        classCache.invalidateAll();
+        if (classCache != null) {
+            classCache.invalidateAll();
+        }
+        if (loadedClassIndex != null) {
+            loadedClassIndex.clear();
+            missCache.invalidateAll();
+        }
+        invalidateLocalResourcesCache();
         packageCache.invalidateAll();
         urlResourceCache.invalidateAll();
     }
@@ -753,6 +1061,22 @@ public abstract class AbstractClasspathClassLoader extends URLClassLoader {
      */
     protected abstract Enumeration<URL> postFindResources(String resourceName) throws IOException;
 
+    protected static class CachedResources {
+        private final long      generation;
+        private final long      localGeneration;
+        private final List<URL> urls;
+
+        CachedResources(long generation, long localGeneration, List<URL> urls) {
+            this.generation = generation;
+            this.localGeneration = localGeneration;
+            this.urls = urls;
+        }
+
+        boolean isCurrent(long generation, long localGeneration) {
+            return this.generation == generation && this.localGeneration == localGeneration;
+        }
+    }
+
     public static class LoadClassResult {
         private ArkLoaderException ex;
         private Class              clazz;
@@ -17,6 +17,7 @@
 package com.alipay.sofa.ark.container.service.classloader;
 
 import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.BizModel;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
@@ -24,16 +25,18 @@ import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderHook;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStage;
 import com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader;
 
 import java.io.IOException;
 import java.net.URL;
 import java.security.ProtectionDomain;
 import java.util.Enumeration;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK;
 import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK_DIR;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_BITS;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE;
 
 /**
  * Ark Biz ClassLoader
@@ -43,15 +46,32 @@ import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_LOADER_HOOK_D
  */
 public class BizClassLoader extends AbstractClasspathClassLoader {
 
-    private String               bizIdentity;
-    private BizManagerService    bizManagerService = ArkServiceContainerHolder.getContainer()
-                                                       .getService(BizManagerService.class);
-    private ClassLoaderHook<Biz> bizClassLoaderHook;
-    private AtomicBoolean        isHookLoaded      = new AtomicBoolean(false);
-    private AtomicBoolean        skipLoadHook      = new AtomicBoolean(false);
-    private final Object         lock              = new Object();
+    private String                        bizIdentity;
+    private BizManagerService             bizManagerService = ArkServiceContainerHolder
+                                                                .getContainer().getService(
+                                                                    BizManagerService.class);
+    private ClassLoaderHook<Biz>          bizClassLoaderHook;
+    private volatile boolean              hookLoaded;
+    private boolean                       hookLoading;
+    private final Object                  lock              = new Object();
 
-    private BizModel             bizModel;
+    /**
+     * registered biz owning this classloader, bound on first lookup after registration
+     */
+    private volatile Biz                  boundBiz;
+
+    private BizModel                      bizModel;
+
+    private volatile ClassPathEntryFilter classPathFilter;
+
+    /**
+     * whether the negative lookup filter is still to be built on the first local miss
+     */
+    private volatile boolean              classPathFilterPending;
+
+    private final Object                  filterLock        = new Object();
+
+    private volatile ClassPreloadProfile  preloadProfile;
 
     public void setBizModel(BizModel bizModel) {
         this.bizModel = bizModel;
@@ -68,6 +88,8 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
     public BizClassLoader(String bizIdentity, URL[] urls) {
         super(urls);
         this.bizIdentity = bizIdentity;
+        this.classPathFilterPending = ArkConfigs.getBooleanValue(
+            ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE, false);
     }
 
     public BizClassLoader(String bizIdentity, URL[] urls, boolean exploded) {
@@ -95,42 +117,60 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
 
         // 1. findLoadedClass
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = findLoadedClass(name);
+            loadingStatistics.end(ClassLoadingStage.FIND_LOADED, start, clazz != null);
         }
 
         // 2. JDK related class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveJDKClass(name);
+            loadingStatistics.end(ClassLoadingStage.JDK, start, clazz != null);
         }
 
         // 3. Ark Spi class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveArkClass(name);
+            loadingStatistics.end(ClassLoadingStage.ARK_SPI, start, clazz != null);
         }
 
         // 4. pre find class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = preLoadClass(name);
+            loadingStatistics.end(ClassLoadingStage.PRE_FIND, start, clazz != null);
         }
 
         // 5. Plugin Export class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveExportClass(name);
+            loadingStatistics.end(ClassLoadingStage.EXPORT, start, clazz != null);
+            recordPreloadClass(name, clazz);
         }
 
         // 6. Biz classpath class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveLocalClass(name);
+            loadingStatistics.end(ClassLoadingStage.LOCAL, start, clazz != null);
+            recordPreloadClass(name, clazz);
         }
 
         // 7. Java Agent ClassLoader for agent problem
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveJavaAgentClass(name);
+            loadingStatistics.end(ClassLoadingStage.AGENT, start, clazz != null);
         }
 
         // 8. post find class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = postLoadClass(name);
+            loadingStatistics.end(ClassLoadingStage.POST_FIND, start, clazz != null);
         }
 
         if (clazz != null) {
@@ -144,14 +184,93 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
             bizIdentity, name));
     }
 
+    @Override
+    protected Class<?> resolveLocalClass(String name) {
+        ClassPathEntryFilter filter = classPathFilter;
+        if (filter == null) {
+            Class<?> clazz = super.resolveLocalClass(name);
+            if (clazz == null && classPathFilterPending) {
+                // opening every jar of the classpath is deferred to the first miss, so
+                // installing a biz that never misses does not pay for it
+                buildClassPathFilter();
+            }
+            return clazz;
+        }
+        // JDK classes are resolved before, a filter miss means the class is absent locally
+        if (!filter.mightContainClass(name)) {
+            return null;
+        }
+        Class<?> clazz = super.resolveLocalClass(name);
+        if (clazz == null) {
+            filter.recordFalsePositive();
+        }
+        return clazz;
+    }
+
+    private void buildClassPathFilter() {
+        synchronized (filterLock) {
+            if (classPathFilterPending) {
+                classPathFilter = ClassPathEntryFilter.build(getURLs(),
+                    ArkConfigs.getIntValue(ARK_CLASSLOADER_NEGATIVE_FILTER_BITS, 10));
+                classPathFilterPending = false;
+            }
+        }
+    }
+
+    @Override
+    protected void addURL(URL url) {
+        // entries of the new url are not indexed
+        synchronized (filterLock) {
+            classPathFilterPending = false;
+            classPathFilter = null;
+        }
+        super.addURL(url);
+    }
+
+    /**
+     * Get negative lookup filter of biz classpath
+     * @return filter, or null if disabled, not built before the first local miss or the
+     * classpath can not be indexed
+     */
+    public ClassPathEntryFilter getClassPathFilter() {
+        return classPathFilter;
+    }
+
+    /**
+     * Start or stop recording classes resolved from plugin exports and biz classpath
+     * @param preloadProfile profile to record into, null to stop recording
+     */
+    public void setPreloadProfile(ClassPreloadProfile preloadProfile) {
+        this.preloadProfile = preloadProfile;
+    }
+
+    public ClassPreloadProfile getPreloadProfile() {
+        return preloadProfile;
+    }
+
+    private void recordPreloadClass(String name, Class<?> clazz) {
+        ClassPreloadProfile profile = preloadProfile;
+        if (profile != null && clazz != null) {
+            profile.record(name);
+        }
+    }
+
     @Override
     boolean shouldFindExportedClass(String className) {
-        return !classloaderService.isDeniedImportClass(bizIdentity, className);
+        BizModel biz = bizModel;
+        if (biz == null) {
+            return !classloaderService.isDeniedImportClass(bizIdentity, className);
+        }
+        return !biz.getDenyImportMatcher().isDeniedClass(className);
     }
 
     @Override
     boolean shouldFindExportedResource(String resourceName) {
-        return !classloaderService.isDeniedImportResource(bizIdentity, resourceName);
+        BizModel biz = bizModel;
+        if (biz == null) {
+            return !classloaderService.isDeniedImportResource(bizIdentity, resourceName);
+        }
+        return !biz.getDenyImportMatcher().isDeniedResource(resourceName);
     }
 
     public boolean checkDeclaredMode() {
@@ -162,41 +281,76 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
         return biz.isDeclaredMode();
     }
 
-    private void loadBizClassLoaderHook() {
-        if (!skipLoadHook.get()) {
+    /**
+     * Load hook once, later calls are a single volatile read
+     */
+    private ClassLoaderHook<Biz> getBizClassLoaderHook() {
+        if (!hookLoaded) {
             synchronized (lock) {
-                if (isHookLoaded.compareAndSet(false, true)) {
-                    bizClassLoaderHook = ArkServiceLoader.loadExtensionFromArkBiz(
-                        ClassLoaderHook.class, BIZ_CLASS_LOADER_HOOK, bizIdentity);
-                    Biz masterBiz = ArkClient.getMasterBiz();
-                    if (bizClassLoaderHook == null && masterBiz != null
-                        && !masterBiz.getIdentity().equals(bizIdentity)) {
-                        ClassLoader masterClassLoader = masterBiz.getBizClassLoader();
-                        String defaultBizClassloaderHook = System
-                            .getProperty(BIZ_CLASS_LOADER_HOOK_DIR);
-                        if (!StringUtils.isEmpty(defaultBizClassloaderHook)) {
-                            try {
-                                bizClassLoaderHook = (ClassLoaderHook<Biz>) masterClassLoader
-                                    .loadClass(defaultBizClassloaderHook).newInstance();
-                            } catch (Exception e) {
-                                throw new RuntimeException(String.format(
-                                    "can not find master classloader hook: %s",
-                                    defaultBizClassloaderHook), e);
-                            }
-                        }
+                // classes loaded while loading the hook are loaded without hook
+                if (!hookLoaded && !hookLoading) {
+                    hookLoading = true;
+                    try {
+                        bizClassLoaderHook = loadBizClassLoaderHook();
+                    } finally {
+                        hookLoaded = true;
                     }
-                    skipLoadHook.set(true);
                 }
             }
         }
+        return bizClassLoaderHook;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClassLoaderHook<Biz> loadBizClassLoaderHook() {
+        ClassLoaderHook<Biz> hook = ArkServiceLoader.loadExtensionFromArkBiz(ClassLoaderHook.class,
+            BIZ_CLASS_LOADER_HOOK, bizIdentity);
+        Biz masterBiz = ArkClient.getMasterBiz();
+        if (hook == null && masterBiz != null && !masterBiz.getIdentity().equals(bizIdentity)) {
+            ClassLoader masterClassLoader = masterBiz.getBizClassLoader();
+            String defaultBizClassloaderHook = System.getProperty(BIZ_CLASS_LOADER_HOOK_DIR);
+            if (!StringUtils.isEmpty(defaultBizClassloaderHook)) {
+                try {
+                    hook = (ClassLoaderHook<Biz>) masterClassLoader.loadClass(
+                        defaultBizClassloaderHook).newInstance();
+                } catch (Exception e) {
+                    throw new RuntimeException(String.format(
+                        "can not find master classloader hook: %s", defaultBizClassloaderHook), e);
+                }
+            }
+        }
+        return hook;
+    }
+
+    /**
+     * Get the registered biz of this classloader. It is bound once registered, so later calls
+     * don't parse the identity and look up the registry again.
+     */
+    Biz getRegisteredBiz() {
+        Biz biz = boundBiz;
+        if (biz == null) {
+            biz = bizManagerService.getBizByIdentity(bizIdentity);
+            // another biz may be registered with the same identity after this one is stopped
+            if (biz != null && biz.getBizClassLoader() == this) {
+                boundBiz = biz;
+            }
+        }
+        return biz;
+    }
+
+    /**
+     * Unbind the registered biz, called when the biz is un-registered
+     */
+    public void unbindBiz() {
+        boundBiz = null;
     }
 
     @Override
     protected Class<?> preLoadClass(String className) throws ArkLoaderException {
         try {
-            loadBizClassLoaderHook();
-            return bizClassLoaderHook == null ? null : bizClassLoaderHook.preFindClass(className,
-                classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+            ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+            return hook == null ? null : hook.preFindClass(className, classloaderService,
+                getRegisteredBiz());
         } catch (Throwable throwable) {
             throw new ArkLoaderException(String.format(
                 "Pre find class %s occurs an error via biz %s ClassLoaderHook: %s.", className,
@@ -207,9 +361,9 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
     @Override
     protected Class<?> postLoadClass(String className) throws ArkLoaderException {
         try {
-            loadBizClassLoaderHook();
-            return bizClassLoaderHook == null ? null : bizClassLoaderHook.postFindClass(className,
-                classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+            ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+            return hook == null ? null : hook.postFindClass(className, classloaderService,
+                getRegisteredBiz());
         } catch (Throwable throwable) {
             throw new ArkLoaderException(String.format(
                 "Post find class %s occurs an error via biz %s ClassLoaderHook: %s.", className,
@@ -219,30 +373,30 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
 
     @Override
     protected URL preFindResource(String resourceName) {
-        loadBizClassLoaderHook();
-        return bizClassLoaderHook == null ? null : bizClassLoaderHook.preFindResource(resourceName,
-            classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+        ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+        return hook == null ? null : hook.preFindResource(resourceName, classloaderService,
+            getRegisteredBiz());
     }
 
     @Override
     protected URL postFindResource(String resourceName) {
-        loadBizClassLoaderHook();
-        return bizClassLoaderHook == null ? null : bizClassLoaderHook.postFindResource(
-            resourceName, classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+        ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+        return hook == null ? null : hook.postFindResource(resourceName, classloaderService,
+            getRegisteredBiz());
     }
 
     @Override
     protected Enumeration<URL> preFindResources(String resourceName) throws IOException {
-        loadBizClassLoaderHook();
-        return bizClassLoaderHook == null ? null : bizClassLoaderHook.preFindResources(
-            resourceName, classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+        ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+        return hook == null ? null : hook.preFindResources(resourceName, classloaderService,
+            getRegisteredBiz());
     }
 
     @Override
     protected Enumeration<URL> postFindResources(String resourceName) throws IOException {
-        loadBizClassLoaderHook();
-        return bizClassLoaderHook == null ? null : bizClassLoaderHook.postFindResources(
-            resourceName, classloaderService, bizManagerService.getBizByIdentity(bizIdentity));
+        ClassLoaderHook<Biz> hook = getBizClassLoaderHook();
+        return hook == null ? null : hook.postFindResources(resourceName, classloaderService,
+            getRegisteredBiz());
     }
 
     /**
@@ -256,5 +410,6 @@ public class BizClassLoader extends AbstractClasspathClassLoader {
 
     public void setBizIdentity(String bizIdentity) {
         this.bizIdentity = bizIdentity;
+        this.boundBiz = null;
     }
 }
\ No newline at end of file
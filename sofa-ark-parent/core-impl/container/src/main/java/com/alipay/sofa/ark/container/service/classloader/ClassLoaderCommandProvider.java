@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.service.ArkInject;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStage;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStatistics;
+import com.alipay.sofa.ark.spi.service.session.CommandProvider;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Telnet command to control and show class loading instrumentation
+ *
+ * @since 2.3.3
+ */
+public class ClassLoaderCommandProvider implements CommandProvider {
+
+    @ArkInject
+    private ClassLoaderService classLoaderService;
+
+    @Override
+    public String getHelp() {
+        return HELP_MESSAGE;
+    }
+
+    @Override
+    public String handleCommand(String command) {
+        return new ClassLoaderCommand(command).process();
+    }
+
+    @Override
+    public boolean validate(String command) {
+        return new ClassLoaderCommand(command).isValidate();
+    }
+
+    private static final String HELP_MESSAGE = "ClassLoader Command Tips:\n"
+                                               + "  USAGE: classloader [option...] [name...]\n"
+                                               + "  SAMPLE: classloader -s plugin-A biz-B:1.0.0\n"
+                                               + "  -h  Shows the help message.\n"
+                                               + "  -e  Enables class loading instrumentation.\n"
+                                               + "  -d  Disables class loading instrumentation.\n"
+                                               + "  -r  Resets class loading statistics.\n"
+                                               + "  -a  Shows statistics of all biz and plugin classloaders.\n"
+                                               + "  -s  Shows statistics of specified biz identity or pluginName.\n";
+
+    class ClassLoaderCommand {
+        private boolean        isValidate;
+        private Set<Character> options    = new HashSet<>();
+        private Set<String>    parameters = new HashSet<>();
+
+        ClassLoaderCommand(String command) {
+            if (StringUtils.isEmpty(command)) {
+                isValidate = false;
+                return;
+            }
+
+            String[] syntax = command.trim().split(Constants.SPACE_SPLIT);
+            if (!"classloader".equals(syntax[0])) {
+                isValidate = false;
+                return;
+            }
+
+            int nameIndex = syntax.length;
+            // fetch all options and allow repetition
+            for (int i = 1; i < syntax.length; ++i) {
+                if (!syntax[i].startsWith("-")) {
+                    nameIndex = i;
+                    break;
+                }
+                if (syntax[i].length() == 1) {
+                    isValidate = false;
+                    return;
+                }
+                for (int j = 1; j < syntax[i].length(); ++j) {
+                    options.add(syntax[i].charAt(j));
+                }
+            }
+
+            for (Character option : options) {
+                switch (option) {
+                    case 'h':
+                    case 'e':
+                    case 'd':
+                    case 'r':
+                    case 'a':
+                    case 's':
+                        continue;
+                    default:
+                        isValidate = false;
+                        return;
+                }
+            }
+
+            // exactly one option is allowed
+            if (options.size() != 1) {
+                isValidate = false;
+                return;
+            }
+
+            while (nameIndex < syntax.length) {
+                parameters.add(syntax[nameIndex++]);
+            }
+
+            // only '-s' option needs name parameters
+            isValidate = options.contains('s') != parameters.isEmpty();
+        }
+
+        boolean isValidate() {
+            return isValidate;
+        }
+
+        String process() {
+            if (!isValidate) {
+                return "Error command format. Pls type 'classloader -h' to get help message\n";
+            }
+            if (options.contains('h')) {
+                return getHelp();
+            } else if (options.contains('e')) {
+                classLoaderService.setClassLoadingInstrumentEnabled(true);
+                return "class loading instrumentation enabled.\n";
+            } else if (options.contains('d')) {
+                classLoaderService.setClassLoadingInstrumentEnabled(false);
+                return "class loading instrumentation disabled.\n";
+            } else if (options.contains('r')) {
+                classLoaderService.resetClassLoadingStatistics();
+                return "class loading statistics reset.\n";
+            }
+
+            StringBuilder sb = new StringBuilder(1024);
+            if (!classLoaderService.isClassLoadingInstrumentEnabled()) {
+                sb.append("class loading instrumentation is disabled, type 'classloader -e' ")
+                    .append("to enable it.\n");
+            }
+            boolean matched = false;
+            for (Map.Entry<String, ClassLoadingStatistics> entry : classLoaderService
+                .getClassLoadingStatistics().entrySet()) {
+                if (options.contains('a') || matches(entry.getKey())) {
+                    matched = true;
+                    sb.append(statisticsInfo(entry.getKey(), entry.getValue()));
+                }
+            }
+            if (!matched) {
+                sb.append("no matched classloader candidates.").append("\n");
+            }
+            return sb.toString();
+        }
+
+        boolean matches(String candidate) {
+            for (String pattern : parameters) {
+                if (Pattern.matches(pattern, candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String statisticsInfo(String name, ClassLoadingStatistics statistics) {
+            StringBuilder sb = new StringBuilder(512);
+            sb.append("ClassLoader: ").append(name).append("\n");
+            sb.append(String.format("  %-12s%12s%12s%12s", "Stage", "Hit", "Miss", "Avg(us)"));
+            long lastBound = 0;
+            for (long bound : ClassLoadingStatistics.LATENCY_BUCKET_BOUNDS) {
+                sb.append(String.format("%10s", "<=" + formatNanos(bound)));
+                lastBound = bound;
+            }
+            sb.append(String.format("%10s", ">" + formatNanos(lastBound))).append("\n");
+
+            for (ClassLoadingStage stage : ClassLoadingStage.values()) {
+                long hit = statistics.getHitCount(stage);
+                long miss = statistics.getMissCount(stage);
+                long count = hit + miss;
+                double avg = count == 0 ? 0 : statistics.getTotalNanos(stage) / 1000.0 / count;
+                sb.append(String.format("  %-12s%12d%12d%12.2f", stage, hit, miss, avg));
+                for (long bucket : statistics.getHistogram(stage)) {
+                    sb.append(String.format("%10d", bucket));
+                }
+                sb.append("\n");
+            }
+            sb.append("\n");
+            return sb.toString();
+        }
+
+        String formatNanos(long nanos) {
+            if (nanos >= 1000000L) {
+                return nanos / 1000000L + "ms";
+            }
+            return nanos / 1000L + "us";
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.alipay.sofa.ark.container.service.classloader;
 
 import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.bootstrap.AgentClassLoader;
 import com.alipay.sofa.ark.common.log.ArkLogger;
 import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
@@ -31,6 +32,7 @@ import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStatistics;
 import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -38,8 +40,11 @@ import com.google.inject.Singleton;
 import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -53,33 +58,26 @@ import java.util.stream.Collectors;
 @Singleton
 public class ClassLoaderServiceImpl implements ClassLoaderService {
 
-    private static final String                     ARK_SPI_PACKAGES                          = "com.alipay.sofa.ark.spi";
-    private static final String                     ARK_API_PACKAGES                          = "com.alipay.sofa.ark.api";
-    private static final String                     ARK_LOG_PACKAGES                          = "com.alipay.sofa.ark.common.log";
-    private static final String                     ARK_EXCEPTION_PACKAGES                    = "com.alipay.sofa.ark.exception";
+    private static final String       ARK_SPI_PACKAGES               = "com.alipay.sofa.ark.spi";
+    private static final String       ARK_API_PACKAGES               = "com.alipay.sofa.ark.api";
+    private static final String       ARK_LOG_PACKAGES               = "com.alipay.sofa.ark.common.log";
+    private static final String       ARK_EXCEPTION_PACKAGES         = "com.alipay.sofa.ark.exception";
 
-    private static final List<String>               SUN_REFLECT_GENERATED_ACCESSOR            = new ArrayList<>();
+    private static final List<String> SUN_REFLECT_GENERATED_ACCESSOR = new ArrayList<>();
 
-    /* export class and classloader relationship cache */
-    private ConcurrentHashMap<String, Plugin>       exportClassAndClassLoaderMap              = new ConcurrentHashMap<>();
-    private ConcurrentHashMap<String, Plugin>       exportNodeAndClassLoaderMap               = new ConcurrentHashMap<>();
-    private ConcurrentHashMap<String, Plugin>       exportStemAndClassLoaderMap               = new ConcurrentHashMap<>();
+    /* export class, resource and classloader relationship cache */
+    private volatile ExportRelations  exportRelations                = ExportRelations.EMPTY;
 
-    /* export cache and classloader relationship cache */
-    private ConcurrentHashMap<String, List<Plugin>> exportResourceAndClassLoaderMap           = new ConcurrentHashMap<>();
-    private ConcurrentHashMap<String, List<Plugin>> exportPrefixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
-    private ConcurrentHashMap<String, List<Plugin>> exportSuffixStemResourceAndClassLoaderMap = new ConcurrentHashMap<>();
-
-    private ClassLoader                             jdkClassLoader;
-    private ClassLoader                             arkClassLoader;
-    private ClassLoader                             systemClassLoader;
-    private ClassLoader                             agentClassLoader;
+    private ClassLoader               jdkClassLoader;
+    private ClassLoader               arkClassLoader;
+    private ClassLoader               systemClassLoader;
+    private ClassLoader               agentClassLoader;
 
     @Inject
-    private PluginManagerService                    pluginManagerService;
+    private PluginManagerService      pluginManagerService;
 
     @Inject
-    private BizManagerService                       bizManagerService;
+    private BizManagerService         bizManagerService;
 
     static {
         SUN_REFLECT_GENERATED_ACCESSOR.add("sun.reflect.GeneratedMethodAccessor");
@@ -118,30 +116,41 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
     }
 
     @Override
-    public void prepareExportClassAndResourceCache() {
+    public synchronized void prepareExportClassAndResourceCache() {
+        // rebuild all relationship from registered plugins and publish them at once,
+        // so plugins installed at runtime never see a half built index
+        ConcurrentHashMap<String, Plugin> classMap = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Plugin> nodeMap = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Plugin> stemMap = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, List<Plugin>> resourceMap = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, List<Plugin>> prefixStemResourceMap = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, List<Plugin>> suffixStemResourceMap = new ConcurrentHashMap<>();
         for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
             for (String exportIndex : plugin.getExportPackageNodes()) {
-                exportNodeAndClassLoaderMap.putIfAbsent(exportIndex, plugin);
+                nodeMap.putIfAbsent(exportIndex, plugin);
             }
             for (String exportIndex : plugin.getExportPackageStems()) {
-                exportStemAndClassLoaderMap.putIfAbsent(exportIndex, plugin);
+                stemMap.putIfAbsent(exportIndex, plugin);
             }
             for (String exportIndex : plugin.getExportClasses()) {
-                exportClassAndClassLoaderMap.putIfAbsent(exportIndex, plugin);
+                classMap.putIfAbsent(exportIndex, plugin);
             }
             for (String resource : plugin.getExportResources()) {
-                exportResourceAndClassLoaderMap.putIfAbsent(resource, new LinkedList<>());
-                exportResourceAndClassLoaderMap.get(resource).add(plugin);
+                resourceMap.putIfAbsent(resource, new LinkedList<>());
+                resourceMap.get(resource).add(plugin);
             }
             for (String resource : plugin.getExportPrefixResourceStems()) {
-                exportPrefixStemResourceAndClassLoaderMap.putIfAbsent(resource, new LinkedList<>());
-                exportPrefixStemResourceAndClassLoaderMap.get(resource).add(plugin);
+                prefixStemResourceMap.putIfAbsent(resource, new LinkedList<>());
+                prefixStemResourceMap.get(resource).add(plugin);
             }
             for (String resource : plugin.getExportSuffixResourceStems()) {
-                exportSuffixStemResourceAndClassLoaderMap.putIfAbsent(resource, new LinkedList<>());
-                exportSuffixStemResourceAndClassLoaderMap.get(resource).add(plugin);
+                suffixStemResourceMap.putIfAbsent(resource, new LinkedList<>());
+                suffixStemResourceMap.get(resource).add(plugin);
             }
         }
+        exportRelations = new ExportRelations(ExportPackageTrie.build(classMap, nodeMap, stemMap),
+            resourceMap, ResourceStemMatcher.build(prefixStemResourceMap, suffixStemResourceMap));
+        AbstractClasspathClassLoader.invalidateResourcesCache();
     }
 
     @Override
@@ -193,14 +202,20 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
     @Override
     public ClassLoader findExportClassLoaderByBiz(Biz biz, String className) {
         BizModel bizModel = (BizModel) biz;
-        Plugin plugin = bizModel.getExportClassAndClassLoaderMap().get(className);
-        String packageName = ClassUtils.getPackageName(className);
-        if (plugin == null) {
-            plugin = bizModel.getExportNodeAndClassLoaderMap().get(packageName);
-        }
-        while (!Constants.DEFAULT_PACKAGE.equals(packageName) && plugin == null) {
-            plugin = bizModel.getExportStemAndClassLoaderMap().get(packageName);
-            packageName = ClassUtils.getPackageName(packageName);
+        ExportPackageTrie trie = bizModel.getExportPackageTrie();
+        Plugin plugin;
+        if (trie != null) {
+            plugin = trie.find(className);
+        } else {
+            plugin = bizModel.getExportClassAndClassLoaderMap().get(className);
+            String packageName = ClassUtils.getPackageName(className);
+            if (plugin == null) {
+                plugin = bizModel.getExportNodeAndClassLoaderMap().get(packageName);
+            }
+            while (!Constants.DEFAULT_PACKAGE.equals(packageName) && plugin == null) {
+                plugin = bizModel.getExportStemAndClassLoaderMap().get(packageName);
+                packageName = ClassUtils.getPackageName(packageName);
+            }
         }
         if (plugin != null) {
             return plugin.getPluginClassLoader();
@@ -211,16 +226,7 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
 
     @Override
     public Plugin findExportPlugin(String className) {
-        Plugin plugin = exportClassAndClassLoaderMap.get(className);
-        String packageName = ClassUtils.getPackageName(className);
-        if (plugin == null) {
-            plugin = exportNodeAndClassLoaderMap.get(packageName);
-        }
-        while (!Constants.DEFAULT_PACKAGE.equals(packageName) && plugin == null) {
-            plugin = exportStemAndClassLoaderMap.get(packageName);
-            packageName = ClassUtils.getPackageName(packageName);
-        }
-        return plugin;
+        return exportRelations.packageTrie.find(className);
     }
 
     @Override
@@ -234,19 +240,10 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
             }
         }
 
-        for (String importResource : plugin.getImportPrefixResourceStems()) {
-            if (resourceName.startsWith(importResource)) {
-                return true;
-            }
-        }
-
-        for (String importResource : plugin.getImportSuffixResourceStems()) {
-            if (resourceName.endsWith(importResource)) {
-                return true;
-            }
-        }
-
-        return false;
+        ResourceStemMatcher<Boolean> matcher = plugin instanceof PluginModel ? ((PluginModel) plugin)
+            .getImportResourceStemMatcher() : ResourceStemMatcher.of(
+            plugin.getImportPrefixResourceStems(), plugin.getImportSuffixResourceStems());
+        return matcher.matches(resourceName);
     }
 
     @Override
@@ -278,6 +275,11 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
             return bizModel.getExportResourceAndClassLoaderMap().get(resourceName);
         }
 
+        ResourceStemMatcher<List<Plugin>> matcher = bizModel.getExportResourceStemMatcher();
+        if (matcher != null) {
+            return matcher.match(resourceName);
+        }
+
         for (String stemResource : bizModel.getExportPrefixStemResourceAndClassLoaderMap().keySet()) {
             if (resourceName.startsWith(stemResource)) {
                 return bizModel.getExportPrefixStemResourceAndClassLoaderMap().get(stemResource);
@@ -293,22 +295,13 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
     }
 
     private List<Plugin> findExportResourcePluginsInOrder(String resourceName) {
-        if (exportResourceAndClassLoaderMap.containsKey(resourceName)) {
-            return exportResourceAndClassLoaderMap.get(resourceName);
-        }
-
-        for (String stemResource : exportPrefixStemResourceAndClassLoaderMap.keySet()) {
-            if (resourceName.startsWith(stemResource)) {
-                return exportPrefixStemResourceAndClassLoaderMap.get(stemResource);
-            }
+        ExportRelations exportRelations = this.exportRelations;
+        List<Plugin> plugins = exportRelations.resourceMap.get(resourceName);
+        if (plugins != null) {
+            return plugins;
         }
 
-        for (String stemResource : exportSuffixStemResourceAndClassLoaderMap.keySet()) {
-            if (resourceName.endsWith(stemResource)) {
-                return exportSuffixStemResourceAndClassLoaderMap.get(stemResource);
-            }
-        }
-        return null;
+        return exportRelations.resourceStemMatcher.match(resourceName);
     }
 
     @Override
@@ -351,6 +344,8 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
 
     @Override
     public void init() throws ArkRuntimeException {
+        ClassLoadingStatistics.setEnabled(ArkConfigs.getBooleanValue(
+            Constants.ARK_CLASSLOADER_INSTRUMENT_ENABLE, false));
         arkClassLoader = this.getClass().getClassLoader();
         systemClassLoader = ClassLoader.getSystemClassLoader();
         agentClassLoader = createAgentClassLoader();
@@ -376,7 +371,9 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
             ArkLoggerFactory.getDefaultLogger().warn("Meet exception when parse JDK urls", e);
         }
 
-        jdkClassLoader = new JDKDelegateClassLoader(jdkUrls.toArray(new URL[0]), extClassLoader);
+        URL[] jdkUrlArray = jdkUrls.toArray(new URL[0]);
+        jdkClassLoader = new JDKDelegateClassLoader(jdkUrlArray, extClassLoader,
+            JDKDelegateClassLoader.collectJDKPackages(extClassLoader, jdkUrlArray));
     }
 
     @Override
@@ -390,63 +387,89 @@ public class ClassLoaderServiceImpl implements ClassLoaderService {
 
     @Override
     public boolean isDeniedImportClass(String bizIdentity, String className) {
-        Biz biz = bizManagerService.getBizByIdentity(bizIdentity);
-        if (biz == null) {
-            return false;
-        }
-
-        for (String pattern : biz.getDenyImportClasses()) {
-            if (pattern.equals(className)) {
-                return true;
-            }
-        }
-
-        String pkg = ClassUtils.getPackageName(className);
-        for (String pattern : biz.getDenyImportPackageNodes()) {
-            if (pkg.equals(pattern)) {
-                return true;
-            }
-        }
-
-        for (String pattern : biz.getDenyImportPackageStems()) {
-            if (pkg.startsWith(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        DenyImportMatcher matcher = getDenyImportMatcher(bizIdentity);
+        return matcher != null && matcher.isDeniedClass(className);
     }
 
     @Override
     public boolean isDeniedImportResource(String bizIdentity, String resourceName) {
+        DenyImportMatcher matcher = getDenyImportMatcher(bizIdentity);
+        return matcher != null && matcher.isDeniedResource(resourceName);
+    }
+
+    private DenyImportMatcher getDenyImportMatcher(String bizIdentity) {
         Biz biz = bizManagerService.getBizByIdentity(bizIdentity);
         if (biz == null) {
-            return false;
+            return null;
         }
+        return biz instanceof BizModel ? ((BizModel) biz).getDenyImportMatcher()
+            : DenyImportMatcher.compile(biz);
+    }
 
-        for (String resource : biz.getDenyImportResources()) {
-            if (resource.equals(resourceName)) {
-                return true;
-            }
-        }
+    @Override
+    public void setClassLoadingInstrumentEnabled(boolean enabled) {
+        ClassLoadingStatistics.setEnabled(enabled);
+    }
 
-        for (String resource : biz.getDenyPrefixImportResourceStems()) {
-            if (resourceName.startsWith(resource)) {
-                return true;
+    @Override
+    public boolean isClassLoadingInstrumentEnabled() {
+        return ClassLoadingStatistics.isEnabled();
+    }
+
+    @Override
+    public Map<String, ClassLoadingStatistics> getClassLoadingStatistics() {
+        Map<String, ClassLoadingStatistics> statistics = new LinkedHashMap<>();
+        for (Plugin plugin : pluginManagerService.getPluginsInOrder()) {
+            ClassLoader classLoader = plugin.getPluginClassLoader();
+            if (classLoader instanceof AbstractClasspathClassLoader) {
+                statistics.put(plugin.getPluginName(),
+                    ((AbstractClasspathClassLoader) classLoader).getClassLoadingStatistics());
             }
         }
-
-        for (String resource : biz.getDenySuffixImportResourceStems()) {
-            if (resourceName.endsWith(resource)) {
-                return true;
+        for (Biz biz : bizManagerService.getBizInOrder()) {
+            ClassLoader classLoader = biz.getBizClassLoader();
+            if (classLoader instanceof AbstractClasspathClassLoader) {
+                statistics.put(biz.getIdentity(),
+                    ((AbstractClasspathClassLoader) classLoader).getClassLoadingStatistics());
             }
         }
+        return statistics;
+    }
 
-        return false;
+    @Override
+    public void resetClassLoadingStatistics() {
+        for (ClassLoadingStatistics statistics : getClassLoadingStatistics().values()) {
+            statistics.reset();
+        }
     }
 
     @Override
     public int getPriority() {
         return DEFAULT_PRECEDENCE;
     }
+
+    /**
+     * Export relationships of all registered plugins, rebuilt as a whole and published
+     * through a single volatile field, so a lookup never mixes old and new relationships.
+     */
+    private static final class ExportRelations {
+
+        private static final ExportRelations            EMPTY = new ExportRelations(
+                                                                  ExportPackageTrie.EMPTY,
+                                                                  Collections.emptyMap(),
+                                                                  ResourceStemMatcher.empty());
+
+        private final ExportPackageTrie                 packageTrie;
+
+        private final Map<String, List<Plugin>>         resourceMap;
+
+        private final ResourceStemMatcher<List<Plugin>> resourceStemMatcher;
+
+        ExportRelations(ExportPackageTrie packageTrie, Map<String, List<Plugin>> resourceMap,
+                        ResourceStemMatcher<List<Plugin>> resourceStemMatcher) {
+            this.packageTrie = packageTrie;
+            this.resourceMap = resourceMap;
+            this.resourceStemMatcher = resourceStemMatcher;
+        }
+    }
 }
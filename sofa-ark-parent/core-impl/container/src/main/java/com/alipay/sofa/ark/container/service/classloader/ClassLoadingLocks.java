@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class loading locks of a classloader, one per class name. Unlike the lock map of a parallel
+ * capable {@link ClassLoader}, which keeps a lock for every name ever looked up, a lock is only
+ * weakly referenced here and its entry is dropped once no thread holds it, so the table stays
+ * bounded by names being loaded concurrently no matter how many lookups miss.
+ *
+ * @since 2.3.3
+ */
+final class ClassLoadingLocks {
+
+    private final ConcurrentHashMap<String, LockReference> locks = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<Object>                   queue = new ReferenceQueue<>();
+
+    /**
+     * Get lock of class name, threads loading the same class name at the same time always
+     * get the same lock as it is strongly reachable from each of them
+     *
+     * @param className class name
+     * @return lock object
+     */
+    Object getLock(String className) {
+        expungeStaleLocks();
+        LockReference reference = locks.get(className);
+        while (true) {
+            Object lock = reference == null ? null : reference.get();
+            if (lock != null) {
+                return lock;
+            }
+            lock = new Object();
+            LockReference newReference = new LockReference(className, lock, queue);
+            if (reference == null) {
+                reference = locks.putIfAbsent(className, newReference);
+                if (reference == null) {
+                    return lock;
+                }
+            } else if (locks.replace(className, reference, newReference)) {
+                return lock;
+            } else {
+                reference = locks.get(className);
+            }
+        }
+    }
+
+    /**
+     * @return number of locks not yet dropped
+     */
+    int size() {
+        expungeStaleLocks();
+        return locks.size();
+    }
+
+    private void expungeStaleLocks() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            locks.remove(((LockReference) reference).className, reference);
+        }
+    }
+
+    private static class LockReference extends WeakReference<Object> {
+
+        private final String className;
+
+        LockReference(String className, Object lock, ReferenceQueue<Object> queue) {
+            super(lock, queue);
+            this.className = className;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.loader.jar.JarFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Bloom filter over the entry names of all jars on a classloader's classpath. A negative
+ * answer means the class is definitely not on the local classpath, so the URL scan (and the
+ * ClassNotFoundException it ends with) can be skipped.
+ *
+ * <p>The filter is built from the entry name hash codes already kept by {@link JarFile}, so
+ * no entry name is decoded again. Classpath elements that can not be indexed (directories,
+ * multi-release jars or jars with a manifest Class-Path) make the filter unavailable.</p>
+ *
+ * @since 2.3.3
+ */
+public class ClassPathEntryFilter {
+
+    private static final String CLASS_SUFFIX       = ".class";
+
+    private final long[]        bits;
+
+    private final int           numHashFunctions;
+
+    private final int           entryCount;
+
+    private final LongAdder     queryCount         = new LongAdder();
+
+    private final LongAdder     negativeCount      = new LongAdder();
+
+    private final LongAdder     falsePositiveCount = new LongAdder();
+
+    ClassPathEntryFilter(int[] hashCodes, int entryCount, int bitsPerEntry) {
+        long numBits = Math.max(64L, (long) entryCount * bitsPerEntry);
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE, (numBits + 63) >>> 6)];
+        // optimal k = (m / n) * ln(2)
+        this.numHashFunctions = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+        this.entryCount = entryCount;
+        for (int i = 0; i < entryCount; i++) {
+            put(hashCodes[i]);
+        }
+    }
+
+    /**
+     * Build filter from classpath urls
+     *
+     * @param urls classpath urls
+     * @param bitsPerEntry bits used for each entry
+     * @return filter, or null if any url can not be indexed
+     */
+    public static ClassPathEntryFilter build(URL[] urls, int bitsPerEntry) {
+        List<int[]> hashCodesList = new ArrayList<>();
+        int entryCount = 0;
+        for (URL url : urls) {
+            int[] hashCodes;
+            try {
+                hashCodes = getEntryHashCodes(url);
+            } catch (Throwable e) {
+                ArkLoggerFactory.getDefaultLogger().debug(
+                    String.format("Fail to index classpath url %s", url), e);
+                hashCodes = null;
+            }
+            if (hashCodes == null) {
+                return null;
+            }
+            hashCodesList.add(hashCodes);
+            entryCount += hashCodes.length;
+        }
+
+        int[] allHashCodes = new int[entryCount];
+        int index = 0;
+        for (int[] hashCodes : hashCodesList) {
+            System.arraycopy(hashCodes, 0, allHashCodes, index, hashCodes.length);
+            index += hashCodes.length;
+        }
+        return new ClassPathEntryFilter(allHashCodes, entryCount, bitsPerEntry);
+    }
+
+    private static int[] getEntryHashCodes(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            File file = new File(url.getFile());
+            if (!file.isFile()) {
+                return null;
+            }
+            try (JarFile jarFile = new JarFile(file)) {
+                return isIndexable(jarFile.getManifest(), true) ? jarFile.getEntryHashCodes()
+                    : null;
+            }
+        }
+
+        URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            java.util.jar.JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+            if (jarFile instanceof JarFile && isIndexable(jarFile.getManifest(), false)) {
+                return ((JarFile) jarFile).getEntryHashCodes();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isIndexable(Manifest manifest, boolean followClassPath) {
+        if (manifest == null) {
+            return true;
+        }
+        Attributes attributes = manifest.getMainAttributes();
+        if (Boolean.parseBoolean(attributes.getValue("Multi-Release"))) {
+            return false;
+        }
+        // URLClassLoader follows Class-Path of jars opened from file url
+        return !followClassPath || attributes.getValue(Attributes.Name.CLASS_PATH) == null;
+    }
+
+    /**
+     * Whether class file of the class might be on the classpath
+     *
+     * @param className class name
+     * @return false if the class is definitely absent
+     */
+    public boolean mightContainClass(String className) {
+        queryCount.increment();
+        // same as (className.replace('.', '/') + ".class").hashCode(), without allocation
+        int hash = 0;
+        for (int i = 0; i < className.length(); i++) {
+            char c = className.charAt(i);
+            hash = 31 * hash + (c == '.' ? '/' : c);
+        }
+        for (int i = 0; i < CLASS_SUFFIX.length(); i++) {
+            hash = 31 * hash + CLASS_SUFFIX.charAt(i);
+        }
+        if (!mightContain(hash)) {
+            negativeCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record a positive answer which turns out to be absent from the classpath
+     */
+    public void recordFalsePositive() {
+        falsePositiveCount.increment();
+    }
+
+    private void put(int hashCode) {
+        long bitSize = (long) bits.length << 6;
+        int h1 = mix(hashCode);
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitSize;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    private boolean mightContain(int hashCode) {
+        long bitSize = (long) bits.length << 6;
+        int h1 = mix(hashCode);
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitSize;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        // murmur3 fmix32, spreads the poorly distributed String hash codes
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public long getBitSize() {
+        return (long) bits.length << 6;
+    }
+
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    /**
+     * @return count of lookups answered as definitely absent
+     */
+    public long getNegativeCount() {
+        return negativeCount.sum();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.sum();
+    }
+
+    /**
+     * @return false positive rate expected by the filter size, (1 - e^(-kn/m))^k
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-numHashFunctions * (double) entryCount / getBitSize()),
+            numHashFunctions);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "ClassPathEntryFilter{entries=%d, bits=%d, hashes=%d, queries=%d, negatives=%d, "
+                    + "falsePositives=%d}", entryCount, getBitSize(), numHashFunctions,
+            getQueryCount(), getNegativeCount(), getFalsePositiveCount());
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.thread.NamedThreadFactory;
+import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Ordered list of classes a biz loads during startup. It is recorded by the biz classloader on
+ * the first successful start of a biz version, and replayed on later starts of the same version
+ * by loading the classes in parallel before the main method runs.
+ *
+ * <p>The profile file is plain text, one class name per line after a header line.</p>
+ *
+ * @since 2.3.3
+ */
+public final class ClassPreloadProfile {
+
+    private static final String HEADER     = "# ark class preload profile v1";
+
+    /**
+     * classes loaded by one preload task, keeps tasks coarse enough to amortize scheduling
+     */
+    private static final int    BATCH_SIZE = 64;
+
+    private final File          file;
+
+    private final int           maxSize;
+
+    private final Set<String>   recorded   = ConcurrentHashMap.newKeySet();
+
+    private final Queue<String> classes    = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size       = new AtomicInteger();
+
+    public ClassPreloadProfile(File file, int maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get profile file of a biz version, it is placed next to the biz work dir so that it
+     * survives the recycle of the work dir. The file name carries a digest of the size and last
+     * modified time of the biz archive, so a rebuilt archive of the same version does not reuse
+     * the profile of the former build.
+     *
+     * @param bizName biz name
+     * @param bizVersion biz version
+     * @param bizWorkDir biz work dir
+     * @param suffix profile file suffix
+     * @return profile file, or null if biz has no work dir
+     */
+    public static File getProfileFile(String bizName, String bizVersion, File bizWorkDir,
+                                      String suffix) {
+        if (bizWorkDir == null || !bizWorkDir.exists()) {
+            return null;
+        }
+        File parent = bizWorkDir.getAbsoluteFile().getParentFile();
+        if (parent == null) {
+            return null;
+        }
+        return new File(parent, getProfilePrefix(bizName, bizVersion)
+                                + getArchiveDigest(bizWorkDir) + suffix);
+    }
+
+    /**
+     * Delete profiles recorded for former builds of a biz version
+     *
+     * @param profileFile current profile file of the biz version
+     * @param bizName biz name
+     * @param bizVersion biz version
+     * @param suffix profile file suffix
+     */
+    public static void deleteStaleProfiles(File profileFile, String bizName, String bizVersion,
+                                           String suffix) {
+        Pattern pattern = Pattern.compile(Pattern.quote(getProfilePrefix(bizName, bizVersion))
+                                          + "[0-9a-f]{8}" + Pattern.quote(suffix));
+        File[] files = profileFile.getAbsoluteFile().getParentFile().listFiles(
+            (dir, name) -> pattern.matcher(name).matches());
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.equals(profileFile.getAbsoluteFile()) && !file.delete()) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    "Failed to delete stale class preload profile {}", file);
+            }
+        }
+    }
+
+    private static String getProfilePrefix(String bizName, String bizVersion) {
+        return bizName + "-" + bizVersion + "-";
+    }
+
+    private static String getArchiveDigest(File archive) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(archive.length())
+            .putLong(archive.lastModified()).array());
+        return String.format("%08x", crc.getValue());
+    }
+
+    /**
+     * Record a class loaded during startup, the first load of a class fixes its position
+     *
+     * @param className class name
+     */
+    public void record(String className) {
+        if (size.get() >= maxSize || !recorded.add(className)) {
+            return;
+        }
+        if (size.incrementAndGet() <= maxSize) {
+            classes.add(className);
+        }
+    }
+
+    public List<String> getRecordedClasses() {
+        return new ArrayList<>(classes);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Write recorded classes into profile file. The file is replaced atomically so that a
+     * concurrent reader never sees a partial profile.
+     *
+     * @throws IOException if failed to write
+     */
+    public void save() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(),
+                StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (String className : classes) {
+                    writer.write(className);
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * Read class names from profile file
+     *
+     * @param file profile file
+     * @return ordered class names, empty if the file is not a profile
+     * @throws IOException if failed to read
+     */
+    public static List<String> read(File file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return Collections.emptyList();
+            }
+            List<String> classNames = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    classNames.add(line);
+                }
+            }
+            return classNames;
+        }
+    }
+
+    /**
+     * Load classes without initializing them on a bounded pool, waiting at most timeout for
+     * them. Classes are handed out in profile order, failures are ignored since the profile may
+     * be stale. The classloader is set as context classloader of the pool threads while loading,
+     * as the biz main thread does.
+     *
+     * @param classLoader classloader to load classes
+     * @param classNames ordered class names
+     * @param threads pool size
+     * @param timeoutMillis max time to wait
+     * @return number of classes loaded
+     */
+    public static int preload(ClassLoader classLoader, List<String> classNames, int threads,
+                              long timeoutMillis) {
+        if (classNames.isEmpty()) {
+            return 0;
+        }
+        int batches = (classNames.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        int poolSize = Math.max(1, Math.min(threads, batches));
+        ExecutorService executor = new ThreadPoolExecutor(poolSize, poolSize, 0L,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(
+                "biz-class-preload", true));
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            for (int i = 0; i < classNames.size(); i += BATCH_SIZE) {
+                List<String> batch = classNames.subList(i,
+                    Math.min(i + BATCH_SIZE, classNames.size()));
+                executor.execute(() -> {
+                    ClassLoader oldClassLoader = ClassLoaderUtils
+                        .pushContextClassLoader(classLoader);
+                    try {
+                        for (String className : batch) {
+                            if (cancelled.get()) {
+                                return;
+                            }
+                            try {
+                                Class.forName(className, false, classLoader);
+                                loaded.incrementAndGet();
+                            } catch (Throwable e) {
+                                ArkLoggerFactory.getDefaultLogger().debug(
+                                    "Failed to preload class {}: {}", className, e.toString());
+                            }
+                        }
+                    } finally {
+                        ClassLoaderUtils.popContextClassLoader(oldClassLoader);
+                    }
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                ArkLoggerFactory.getDefaultLogger().warn(
+                    "Class preloading not finished in {} ms, {} of {} classes loaded",
+                    timeoutMillis, loaded.get(), classNames.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // do not interrupt the pool, an interrupted class loading may close shared jar files
+            cancelled.set(true);
+            executor.shutdown();
+        }
+        return loaded.get();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.BizInfo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable matcher compiled from the deny-import configuration of a biz. Each check walks
+ * the class or resource name without looking the biz up in the registry and without creating
+ * any substring.
+ *
+ * <p>Matching rules are the same as the plain set scan: a class is denied if it is a denied
+ * class, or its package is a denied package node, or its package starts with a denied package
+ * stem. A resource is denied if it is a denied resource, starts with a denied prefix stem or
+ * ends with a denied suffix stem.</p>
+ *
+ * @since 2.3.3
+ */
+public final class DenyImportMatcher {
+
+    public static final DenyImportMatcher EMPTY = new DenyImportMatcher(Collections.emptySet(),
+                                                    new String[0], new String[0],
+                                                    Collections.emptySet(),
+                                                    ResourceStemMatcher.empty());
+
+    private final Set<String>             classes;
+
+    /**
+     * sorted package nodes
+     */
+    private final String[]                packageNodes;
+
+    /**
+     * sorted package stems, none of them is a prefix of another
+     */
+    private final String[]                packageStems;
+
+    private final Set<String>             resources;
+
+    private final ResourceStemMatcher<?>  resourceStems;
+
+    private final boolean                 empty;
+
+    private DenyImportMatcher(Set<String> classes, String[] packageNodes, String[] packageStems,
+                              Set<String> resources, ResourceStemMatcher<?> resourceStems) {
+        this.classes = classes;
+        this.packageNodes = packageNodes;
+        this.packageStems = packageStems;
+        this.resources = resources;
+        this.resourceStems = resourceStems;
+        this.empty = classes.isEmpty() && packageNodes.length == 0 && packageStems.length == 0
+                     && resources.isEmpty() && resourceStems.isEmpty();
+    }
+
+    /**
+     * Compile matcher from deny-import configuration of the biz
+     *
+     * @param biz biz info
+     * @return immutable matcher
+     */
+    public static DenyImportMatcher compile(BizInfo biz) {
+        return compile(biz.getDenyImportClasses(), biz.getDenyImportPackageNodes(),
+            biz.getDenyImportPackageStems(), biz.getDenyImportResources(),
+            biz.getDenyPrefixImportResourceStems(), biz.getDenySuffixImportResourceStems());
+    }
+
+    /**
+     * Compile matcher from parsed deny-import configuration, null set is treated as empty
+     *
+     * @param classes denied classes
+     * @param packageNodes exactly denied packages
+     * @param packageStems denied package stems (without '.*')
+     * @param resources denied resources
+     * @param prefixResourceStems denied resource prefix stems (without '*')
+     * @param suffixResourceStems denied resource suffix stems (without '*')
+     * @return immutable matcher
+     */
+    public static DenyImportMatcher compile(Set<String> classes, Set<String> packageNodes,
+                                            Set<String> packageStems, Set<String> resources,
+                                            Set<String> prefixResourceStems,
+                                            Set<String> suffixResourceStems) {
+        DenyImportMatcher matcher = new DenyImportMatcher(copy(classes), sorted(packageNodes),
+            prefixFree(packageStems), copy(resources), ResourceStemMatcher.of(prefixResourceStems,
+                suffixResourceStems));
+        return matcher.empty ? EMPTY : matcher;
+    }
+
+    /**
+     * Whether the class is denied to be imported from plugins
+     *
+     * @param className class name
+     * @return true if denied
+     */
+    public boolean isDeniedClass(String className) {
+        if (empty) {
+            return false;
+        }
+        if (classes.contains(className)) {
+            return true;
+        }
+
+        String name = className;
+        int packageLength = className.lastIndexOf('.');
+        if (packageLength <= 0) {
+            name = Constants.DEFAULT_PACKAGE;
+            packageLength = name.length();
+        }
+        if (packageNodes.length > 0) {
+            int index = floor(packageNodes, name, packageLength);
+            if (index >= 0 && compare(packageNodes[index], name, packageLength) == 0) {
+                return true;
+            }
+        }
+        return startsWithStem(packageStems, name, packageLength);
+    }
+
+    /**
+     * Whether the resource is denied to be imported from plugins
+     *
+     * @param resourceName resource name
+     * @return true if denied
+     */
+    public boolean isDeniedResource(String resourceName) {
+        if (empty) {
+            return false;
+        }
+        return resources.contains(resourceName) || resourceStems.matches(resourceName);
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Whether name[0, length) starts with any of the prefix free sorted stems. The only
+     * candidate is the greatest stem not greater than the name.
+     */
+    private static boolean startsWithStem(String[] stems, String name, int length) {
+        if (stems.length == 0) {
+            return false;
+        }
+        int index = floor(stems, name, length);
+        return index >= 0 && stems[index].length() <= length && name.startsWith(stems[index]);
+    }
+
+    /**
+     * Binary search the greatest element not greater than name[0, length)
+     *
+     * @return index of the element, or -1 if all elements are greater
+     */
+    private static int floor(String[] sorted, String name, int length) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(sorted[mid], name, length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Same order as {@link String#compareTo(String)} against name[0, length)
+     */
+    private static int compare(String key, String name, int length) {
+        int limit = Math.min(key.length(), length);
+        for (int i = 0; i < limit; i++) {
+            char c1 = key.charAt(i);
+            char c2 = name.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return key.length() - length;
+    }
+
+    private static Set<String> copy(Set<String> set) {
+        return set == null || set.isEmpty() ? Collections.emptySet() : new HashSet<>(set);
+    }
+
+    private static String[] sorted(Set<String> set) {
+        if (set == null) {
+            return new String[0];
+        }
+        String[] array = set.toArray(new String[0]);
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Sort stems and drop those covered by a shorter stem, e.g. 'a.b.c' is covered by 'a.b'
+     */
+    private static String[] prefixFree(Set<String> stems) {
+        String[] sorted = sorted(stems);
+        int size = 0;
+        for (String stem : sorted) {
+            // a covering stem sorts right before the stems it covers
+            if (size == 0 || !stem.startsWith(sorted[size - 1])) {
+                sorted[size++] = stem;
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+}
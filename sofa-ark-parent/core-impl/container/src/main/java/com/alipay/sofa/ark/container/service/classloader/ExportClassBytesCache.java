@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+
+import java.util.concurrent.Callable;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+
+/**
+ * Container wide cache of class bytes exported by plugins in override mode, keyed by plugin
+ * and class name. Each override class is read and inflated from the plugin archive once, and
+ * then defined into every biz classloader from memory. The cache is bounded by total bytes and
+ * entries of a plugin are dropped when it is stopped.
+ *
+ * @since 2.3.3
+ */
+public final class ExportClassBytesCache {
+
+    private final Cache<Key, byte[]> cache;
+
+    ExportClassBytesCache(int maxBytes) {
+        this.cache = maxBytes > 0 ? newBuilder().maximumWeight(maxBytes)
+            .weigher((Key key, byte[] bytes) -> bytes.length).recordStats().build() : null;
+    }
+
+    public static ExportClassBytesCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Get class bytes, read them if not cached
+     *
+     * @param plugin plugin exporting the class
+     * @param className class name
+     * @param reader read class bytes, returns null if class is absent
+     * @return class bytes, null if class is absent
+     * @throws Exception if failed to read class bytes
+     */
+    public byte[] get(Plugin plugin, String className, Callable<byte[]> reader) throws Exception {
+        if (cache == null) {
+            return reader.call();
+        }
+        Key key = new Key(plugin, className);
+        byte[] bytes = cache.getIfPresent(key);
+        if (bytes == null) {
+            // a concurrent miss reads the same bytes twice, which is harmless
+            bytes = reader.call();
+            if (bytes != null) {
+                cache.put(key, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Drop all class bytes exported by the plugin
+     *
+     * @param plugin plugin
+     */
+    public void invalidate(Plugin plugin) {
+        if (cache != null) {
+            cache.asMap().keySet().removeIf(key -> key.plugin == plugin);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    private static final class Holder {
+        // configs are ready once a biz loads an override class
+        private static final int                   MAX_BYTES = ArkConfigs
+                                                                 .getIntValue(
+                                                                     Constants.ARK_CLASSLOADER_CACHE_EXPORT_CLASS_BYTES_MAX,
+                                                                     64 * 1024 * 1024);
+
+        private static final ExportClassBytesCache INSTANCE  = new ExportClassBytesCache(MAX_BYTES);
+    }
+
+    private static final class Key {
+        private final Plugin plugin;
+        private final String className;
+
+        private Key(Plugin plugin, String className) {
+            this.plugin = plugin;
+            this.className = className;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return plugin == key.plugin && className.equals(key.className);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(plugin) + className.hashCode();
+        }
+    }
+}
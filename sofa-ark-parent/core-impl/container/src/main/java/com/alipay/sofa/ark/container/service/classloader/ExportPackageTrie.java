@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.spi.constant.Constants;
+import com.alipay.sofa.ark.spi.model.Plugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable index which resolves the plugin exporting a class. Package names are stored
+ * segment by segment, so a lookup walks the class name once without creating any substring.
+ *
+ * <p>Resolution order is the same as the plain map lookup: exported class first, then the
+ * exactly exported package, then the longest exported package stem.</p>
+ *
+ * @since 2.3.3
+ */
+public final class ExportPackageTrie {
+
+    public static final ExportPackageTrie EMPTY = build(Collections.emptyMap(),
+                                                    Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<String, Plugin>     exportClasses;
+
+    private final Plugin                  defaultPackagePlugin;
+
+    private final Node                    root;
+
+    private ExportPackageTrie(Map<String, Plugin> exportClasses, Plugin defaultPackagePlugin,
+                              Node root) {
+        this.exportClasses = exportClasses;
+        this.defaultPackagePlugin = defaultPackagePlugin;
+        this.root = root;
+    }
+
+    /**
+     * Build index from export relationship maps, value of each map is the plugin which wins the
+     * key, i.e. the first plugin in order which exports it.
+     *
+     * @param exportClasses exported class name to plugin
+     * @param exportNodes exactly exported package to plugin
+     * @param exportStems exported package stem (without '.*') to plugin
+     * @return immutable index
+     */
+    public static ExportPackageTrie build(Map<String, Plugin> exportClasses,
+                                          Map<String, Plugin> exportNodes,
+                                          Map<String, Plugin> exportStems) {
+        NodeBuilder rootBuilder = new NodeBuilder();
+        for (Map.Entry<String, Plugin> entry : exportNodes.entrySet()) {
+            if (!Constants.DEFAULT_PACKAGE.equals(entry.getKey())) {
+                NodeBuilder builder = rootBuilder.path(entry.getKey());
+                if (builder.nodePlugin == null) {
+                    builder.nodePlugin = entry.getValue();
+                }
+            }
+        }
+        for (Map.Entry<String, Plugin> entry : exportStems.entrySet()) {
+            if (!Constants.DEFAULT_PACKAGE.equals(entry.getKey())) {
+                NodeBuilder builder = rootBuilder.path(entry.getKey());
+                if (builder.stemPlugin == null) {
+                    builder.stemPlugin = entry.getValue();
+                }
+            }
+        }
+        return new ExportPackageTrie(new HashMap<>(exportClasses),
+            exportNodes.get(Constants.DEFAULT_PACKAGE), rootBuilder.build());
+    }
+
+    /**
+     * Find the plugin which exports the class
+     *
+     * @param className class name
+     * @return export plugin, or null if no plugin exports it
+     */
+    public Plugin find(String className) {
+        Plugin plugin = exportClasses.get(className);
+        if (plugin != null) {
+            return plugin;
+        }
+
+        int packageEnd = className.lastIndexOf('.');
+        if (packageEnd <= 0) {
+            return defaultPackagePlugin;
+        }
+
+        Plugin stemPlugin = null;
+        Node node = root;
+        int start = 0;
+        while (true) {
+            int end = className.indexOf('.', start);
+            node = node.child(className, start, end);
+            if (node == null) {
+                return stemPlugin;
+            }
+            if (node.stemPlugin != null) {
+                stemPlugin = node.stemPlugin;
+            }
+            if (end == packageEnd) {
+                return node.nodePlugin != null ? node.nodePlugin : stemPlugin;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static int hash(CharSequence name, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Node {
+        private final Plugin   nodePlugin;
+        private final Plugin   stemPlugin;
+        private final String[] keys;
+        private final Node[]   children;
+
+        private Node(Plugin nodePlugin, Plugin stemPlugin, String[] keys, Node[] children) {
+            this.nodePlugin = nodePlugin;
+            this.stemPlugin = stemPlugin;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        private Node child(String name, int start, int end) {
+            if (keys.length == 0) {
+                return null;
+            }
+            int length = end - start;
+            int mask = keys.length - 1;
+            int index = hash(name, start, end) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && name.regionMatches(start, key, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private Plugin                         nodePlugin;
+        private Plugin                         stemPlugin;
+        private final Map<String, NodeBuilder> children = new LinkedHashMap<>();
+
+        private NodeBuilder path(String packageName) {
+            NodeBuilder builder = this;
+            for (String segment : packageName.split("\\.", -1)) {
+                builder = builder.children.computeIfAbsent(segment, k -> new NodeBuilder());
+            }
+            return builder;
+        }
+
+        private Node build() {
+            if (children.isEmpty()) {
+                return new Node(nodePlugin, stemPlugin, new String[0], new Node[0]);
+            }
+            // keep load factor under 0.5 so probing stays short
+            int capacity = Integer.highestOneBit(children.size() * 2 - 1) << 1;
+            String[] keys = new String[capacity];
+            Node[] nodes = new Node[capacity];
+            for (Map.Entry<String, NodeBuilder> entry : children.entrySet()) {
+                String key = entry.getKey();
+                int index = hash(key, 0, key.length()) & (capacity - 1);
+                while (keys[index] != null) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                keys[index] = key;
+                nodes[index] = entry.getValue().build();
+            }
+            return new Node(nodePlugin, stemPlugin, keys, nodes);
+        }
+    }
+}
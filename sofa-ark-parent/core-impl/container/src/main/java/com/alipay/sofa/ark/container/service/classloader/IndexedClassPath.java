@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.api.ArkConfigs;
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
+import com.alipay.sofa.ark.spi.archive.Archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_CLASSPATH_INDEX_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSPATH_INDEX_ENTRY;
+
+/**
+ * {@link ClassPathIndex} of an archive resolved against the urls of a classloader, i.e. jar
+ * ordinals of the index are mapped to positions of the classloader urls.
+ *
+ * <p>Classpath urls not covered by the index, e.g. extension urls, are always candidates of a
+ * lookup. Only when every url is covered, a directory missing in the index is known to be
+ * absent from the whole classpath.</p>
+ *
+ * <p>The manifest digest recorded for each jar is checked against the classpath lazily, so that
+ * building the classloader opens no nested jar: a jar is checked the first time it becomes a
+ * candidate of a lookup, and all jars are checked before the first lookup is answered as absent,
+ * which costs no more than the full scan it replaces. A mismatch means the archive was changed
+ * after the index was built, the index is then marked stale and lookups fall back to a full
+ * scan.</p>
+ *
+ * @since 2.3.3
+ */
+public final class IndexedClassPath {
+
+    private static final int[]       EMPTY         = new int[0];
+
+    private final ClassPathIndex     index;
+
+    /**
+     * classpath position of each jar ordinal, -1 if the jar is not on the classpath
+     */
+    private final int[]              positions;
+
+    /**
+     * jar ordinal of each classpath position, -1 if the url is not covered by the index
+     */
+    private final int[]              ordinals;
+
+    /**
+     * classpath positions not covered by the index, in classpath order
+     */
+    private final int[]              unindexed;
+
+    private final URL[]              urls;
+
+    /**
+     * 1 for each jar ordinal whose manifest is checked, or which needs no check
+     */
+    private final AtomicIntegerArray verified;
+
+    private volatile boolean         verifiedAll;
+
+    private volatile boolean         stale;
+
+    private final LongAdder          negativeCount = new LongAdder();
+
+    private IndexedClassPath(ClassPathIndex index, int[] positions, int[] ordinals,
+                             int[] unindexed, URL[] urls, boolean verifyManifest) {
+        this.index = index;
+        this.positions = positions;
+        this.ordinals = ordinals;
+        this.unindexed = unindexed;
+        this.urls = urls;
+        this.verified = new AtomicIntegerArray(positions.length);
+        for (int ordinal = 0; ordinal < positions.length; ordinal++) {
+            if (!verifyManifest || positions[ordinal] < 0) {
+                verified.set(ordinal, 1);
+            }
+        }
+        this.verifiedAll = !verifyManifest;
+    }
+
+    /**
+     * Load classpath index from archive
+     *
+     * @param archive ark biz or ark plugin archive
+     * @param urls classpath urls of the classloader
+     * @return resolved index, or null if disabled or the archive has no usable index
+     */
+    public static IndexedClassPath load(Archive archive, URL[] urls) {
+        if (!ArkConfigs.getBooleanValue(ARK_CLASSLOADER_CLASSPATH_INDEX_ENABLE, true)) {
+            return null;
+        }
+        try (InputStream inputStream = archive.getInputStream(new ZipEntry(
+            ARK_CLASSPATH_INDEX_ENTRY))) {
+            if (inputStream == null) {
+                return null;
+            }
+            return resolve(ClassPathIndex.read(inputStream), urls);
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().debug(
+                String.format("Fail to load classpath index of %s", archive), e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolve index against classpath urls
+     *
+     * @param index classpath index
+     * @param urls classpath urls of the classloader
+     * @return resolved index, or null if the archive itself is not on the classpath
+     */
+    public static IndexedClassPath resolve(ClassPathIndex index, URL[] urls) {
+        return resolve(index, urls, true);
+    }
+
+    /**
+     * Resolve index against classpath urls
+     *
+     * @param index classpath index
+     * @param urls classpath urls of the classloader
+     * @param verifyManifest whether manifests of the jars are checked against the index
+     * @return resolved index, or null if the archive itself is not on the classpath
+     */
+    static IndexedClassPath resolve(ClassPathIndex index, URL[] urls, boolean verifyManifest) {
+        // nested jars are only resolved against the archive on the classpath
+        String archive = null;
+        for (URL url : urls) {
+            String[] names = url == null ? null : splitNestedUrl(url.toString());
+            if (names != null && ClassPathIndex.ROOT.equals(names[1])) {
+                archive = names[0];
+                break;
+            }
+        }
+        if (archive == null) {
+            return null;
+        }
+
+        int[] positions = new int[index.getJarCount()];
+        Arrays.fill(positions, -1);
+        int[] ordinals = new int[urls.length];
+        int[] unindexed = new int[urls.length];
+        int unindexedCount = 0;
+        for (int i = 0; i < urls.length; i++) {
+            String[] names = urls[i] == null ? null : splitNestedUrl(urls[i].toString());
+            int ordinal = names != null && archive.equals(names[0]) ? index.indexOf(names[1]) : -1;
+            if (ordinal >= 0 && positions[ordinal] < 0) {
+                positions[ordinal] = i;
+                ordinals[i] = ordinal;
+            } else {
+                ordinals[i] = -1;
+                unindexed[unindexedCount++] = i;
+            }
+        }
+        return new IndexedClassPath(index, positions, ordinals, Arrays.copyOf(unindexed,
+            unindexedCount), urls, verifyManifest);
+    }
+
+    /**
+     * Split url of archive or nested jar, e.g. 'jar:file:/a.jar!/lib/b.jar!/' into 'file:/a.jar'
+     * and 'lib/b.jar', 'jar:file:/a.jar!/' into 'file:/a.jar' and ''
+     */
+    static String[] splitNestedUrl(String url) {
+        if (!url.startsWith("jar:") || !url.endsWith("!/")) {
+            return null;
+        }
+        String path = url.substring("jar:".length(), url.length() - "!/".length());
+        int index = path.indexOf("!/");
+        if (index < 0) {
+            return new String[] { path, ClassPathIndex.ROOT };
+        }
+        String nested = path.substring(index + "!/".length());
+        // deeper nested jars are not indexed
+        return nested.contains("!/") ? null : new String[] { path.substring(0, index), nested };
+    }
+
+    /**
+     * Find classpath positions which may hold the directory
+     *
+     * @param directory directory name separated by '/', without trailing '/'
+     * @return positions of indexed jars holding the directory followed by positions not
+     *         covered by the index, both in classpath order; null if the index is stale. The
+     *         returned array may be shared and must not be modified
+     */
+    public int[] getCandidates(String directory) {
+        if (stale) {
+            return null;
+        }
+        int[] owners = index.getOwners(directory);
+        if (owners == null) {
+            return unindexed;
+        }
+        int[] candidates = new int[owners.length + unindexed.length];
+        int count = 0;
+        for (int owner : owners) {
+            if (positions[owner] >= 0) {
+                if (!verify(owner)) {
+                    return null;
+                }
+                candidates[count++] = positions[owner];
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+        System.arraycopy(unindexed, 0, candidates, count, unindexed.length);
+        return count + unindexed.length == candidates.length ? candidates : Arrays.copyOf(
+            candidates, count + unindexed.length);
+    }
+
+    /**
+     * Whether the jar at the position may have a manifest
+     *
+     * @param position classpath position
+     * @return false if the jar is indexed without manifest
+     */
+    public boolean mayHaveManifest(int position) {
+        int ordinal = ordinals[position];
+        return ordinal < 0 || index.getManifestDigest(ordinal) != ClassPathIndex.NO_MANIFEST;
+    }
+
+    /**
+     * Check manifest of every indexed jar on the classpath against the index, mark the index
+     * stale on mismatch or if a jar can not be opened
+     *
+     * @return false if the index is stale
+     */
+    public boolean verify() {
+        if (!verifiedAll) {
+            for (int ordinal = 0; ordinal < positions.length; ordinal++) {
+                if (!verify(ordinal)) {
+                    return false;
+                }
+            }
+            verifiedAll = true;
+        }
+        return !stale;
+    }
+
+    /**
+     * Check manifest of the jar against the index once
+     *
+     * @param ordinal jar ordinal
+     * @return false if the index is stale
+     */
+    private boolean verify(int ordinal) {
+        if (stale) {
+            return false;
+        }
+        if (verified.get(ordinal) != 0) {
+            return true;
+        }
+        long digest;
+        try {
+            digest = getManifestDigest(urls[positions[ordinal]]);
+        } catch (IOException e) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Classpath index is stale, fail to open %s",
+                    index.getJarName(ordinal)), e);
+            stale = true;
+            return false;
+        }
+        if (digest != index.getManifestDigest(ordinal)) {
+            ArkLoggerFactory.getDefaultLogger().warn(
+                String.format("Classpath index is stale, manifest of %s is changed",
+                    index.getJarName(ordinal)));
+            stale = true;
+            return false;
+        }
+        verified.set(ordinal, 1);
+        return true;
+    }
+
+    private static long getManifestDigest(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            throw new IOException("Not a jar url: " + url);
+        }
+        JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+        ZipEntry entry = jarFile.getEntry(ClassPathIndex.MANIFEST_NAME);
+        if (entry == null) {
+            return ClassPathIndex.NO_MANIFEST;
+        }
+        long digest = entry.getCrc();
+        if (digest == -1) {
+            try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                digest = ClassPathIndex.digest(inputStream);
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * Whether the directory is definitely absent from the whole classpath
+     *
+     * @param directory directory name separated by '/', without trailing '/'
+     * @return true if every classpath url is indexed and none holds the directory
+     */
+    public boolean isAbsent(String directory) {
+        if (stale || unindexed.length > 0 || index.getOwners(directory) != null || !verify()) {
+            return false;
+        }
+        negativeCount.increment();
+        return true;
+    }
+
+    /**
+     * Whether the class is definitely absent from the whole classpath
+     *
+     * @param className class name
+     * @return true if the package of the class is absent
+     */
+    public boolean isAbsentClass(String className) {
+        if (stale || unindexed.length > 0) {
+            return false;
+        }
+        int index = className.lastIndexOf('.');
+        return isAbsent(index < 0 ? ClassPathIndex.ROOT : className.substring(0, index).replace(
+            '.', '/'));
+    }
+
+    /**
+     * Whether the resource is definitely absent from the whole classpath
+     *
+     * @param resourceName resource name
+     * @return true if the directory of the resource is absent, directories and empty names are
+     *         never answered as absent
+     */
+    public boolean isAbsentResource(String resourceName) {
+        if (stale || unindexed.length > 0 || resourceName.isEmpty() || resourceName.endsWith("/")
+            || resourceName.startsWith("/")) {
+            return false;
+        }
+        return isAbsent(ClassPathIndex.getDirectory(resourceName));
+    }
+
+    /**
+     * @return whether every classpath url is covered by the index
+     */
+    public boolean isComplete() {
+        return unindexed.length == 0;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public ClassPathIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return count of lookups answered as definitely absent
+     */
+    public long getNegativeCount() {
+        return negativeCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IndexedClassPath{jars=%d, directories=%d, unindexed=%d, stale=%s, "
+                             + "negatives=%d}", index.getJarCount(), index.getDirectoryCount(),
+            unindexed.length, stale, getNegativeCount());
+    }
+}
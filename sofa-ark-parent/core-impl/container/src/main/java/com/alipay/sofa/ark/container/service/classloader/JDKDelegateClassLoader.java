@@ -16,8 +16,20 @@
  */
 package com.alipay.sofa.ark.container.service.classloader;
 
+import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
+import com.alipay.sofa.ark.common.util.ClassUtils;
+import com.alipay.sofa.ark.common.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * JDK Delegate ClassLoader, parent is excClassLoader, urls are jdk related path on SystemClassLoader
@@ -30,7 +42,125 @@ public class JDKDelegateClassLoader extends URLClassLoader {
         ClassLoader.registerAsParallelCapable();
     }
 
+    /**
+     * packages of the runtime image, null if unknown
+     */
+    private final Set<String> jdkPackages;
+
     public JDKDelegateClassLoader(URL[] urls, ClassLoader parent) {
+        this(urls, parent, null);
+    }
+
+    public JDKDelegateClassLoader(URL[] urls, ClassLoader parent, Set<String> jdkPackages) {
         super(urls, parent);
+        this.jdkPackages = jdkPackages;
+    }
+
+    /**
+     * Load class if it is visible to this classloader, without throwing on the common miss path.
+     * A class outside the runtime packages is only delegated when its class file is visible,
+     * e.g. when it's appended to the boot class path by an agent.
+     *
+     * @param name class name
+     * @return class, or null if not found
+     */
+    public Class<?> loadClassIfPresent(String name) {
+        if (jdkPackages != null && !jdkPackages.contains(ClassUtils.getPackageName(name))
+            && getResource(name.replace('.', '/') + ".class") == null) {
+            return null;
+        }
+        try {
+            return loadClass(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Collect packages of the runtime image, i.e. packages of boot layer modules defined to
+     * the boot or platform classloader on java 9+, or packages in boot and extension class path
+     * on java 8, and packages in the given jdk urls.
+     *
+     * @param platformClassLoader platform or extension classloader
+     * @param jdkUrls jdk related urls on system classloader
+     * @return packages, null if failed to collect
+     */
+    public static Set<String> collectJDKPackages(ClassLoader platformClassLoader, URL[] jdkUrls) {
+        Set<String> packages = new HashSet<>();
+        try {
+            if (!collectModulePackages(packages, platformClassLoader)) {
+                collectClassPathPackages(packages, System.getProperty("sun.boot.class.path"));
+                String extDirs = System.getProperty("java.ext.dirs");
+                if (!StringUtils.isEmpty(extDirs)) {
+                    for (String extDir : extDirs.split(File.pathSeparator)) {
+                        File[] jars = new File(extDir).listFiles((dir, fileName) -> fileName
+                            .endsWith(".jar"));
+                        if (jars != null) {
+                            for (File jar : jars) {
+                                collectJarPackages(packages, jar);
+                            }
+                        }
+                    }
+                }
+            }
+            for (URL url : jdkUrls) {
+                File file = new File(url.toURI());
+                if (file.isFile()) {
+                    collectJarPackages(packages, file);
+                }
+            }
+        } catch (Throwable e) {
+            ArkLoggerFactory.getDefaultLogger().warn("Meet exception when collect JDK packages", e);
+            return null;
+        }
+        return packages.isEmpty() ? null : packages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean collectModulePackages(Set<String> packages,
+                                                 ClassLoader platformClassLoader) throws Exception {
+        Class<?> layerClass;
+        try {
+            layerClass = Class.forName("java.lang.ModuleLayer");
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        Class<?> moduleClass = Class.forName("java.lang.Module");
+        Method getClassLoader = moduleClass.getMethod("getClassLoader");
+        Method getPackages = moduleClass.getMethod("getPackages");
+        Object bootLayer = layerClass.getMethod("boot").invoke(null);
+        for (Object module : (Set<?>) layerClass.getMethod("modules").invoke(bootLayer)) {
+            Object classLoader = getClassLoader.invoke(module);
+            if (classLoader == null || classLoader == platformClassLoader) {
+                packages.addAll((Set<String>) getPackages.invoke(module));
+            }
+        }
+        return true;
+    }
+
+    private static void collectClassPathPackages(Set<String> packages, String classPath)
+                                                                                        throws IOException {
+        if (StringUtils.isEmpty(classPath)) {
+            return;
+        }
+        for (String path : classPath.split(File.pathSeparator)) {
+            File file = new File(path);
+            if (file.isFile()) {
+                collectJarPackages(packages, file);
+            }
+        }
+    }
+
+    private static void collectJarPackages(Set<String> packages, File file) throws IOException {
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                int lastSlash = entryName.lastIndexOf('/');
+                if (lastSlash > 0 && entryName.endsWith(".class")) {
+                    packages.add(entryName.substring(0, lastSlash).replace('/', '.'));
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
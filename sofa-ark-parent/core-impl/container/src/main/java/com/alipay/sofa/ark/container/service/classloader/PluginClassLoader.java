@@ -20,6 +20,7 @@ import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
 import com.alipay.sofa.ark.exception.ArkLoaderException;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderHook;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStage;
 import com.alipay.sofa.ark.spi.service.extension.ArkServiceLoader;
 import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 
@@ -74,42 +75,58 @@ public class PluginClassLoader extends AbstractClasspathClassLoader {
 
         // 1. findLoadedClass
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = findLoadedClass(name);
+            loadingStatistics.end(ClassLoadingStage.FIND_LOADED, start, clazz != null);
         }
 
         // 2. JDK related class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveJDKClass(name);
+            loadingStatistics.end(ClassLoadingStage.JDK, start, clazz != null);
         }
 
         // 3. Ark Spi class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveArkClass(name);
+            loadingStatistics.end(ClassLoadingStage.ARK_SPI, start, clazz != null);
         }
 
         // 4. pre find class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = preLoadClass(name);
+            loadingStatistics.end(ClassLoadingStage.PRE_FIND, start, clazz != null);
         }
 
         // 5. Import class export by other plugins
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveExportClass(name);
+            loadingStatistics.end(ClassLoadingStage.EXPORT, start, clazz != null);
         }
 
         // 6. Plugin classpath class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveLocalClass(name);
+            loadingStatistics.end(ClassLoadingStage.LOCAL, start, clazz != null);
         }
 
         // 7. Java Agent ClassLoader for agent problem
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = resolveJavaAgentClass(name);
+            loadingStatistics.end(ClassLoadingStage.AGENT, start, clazz != null);
         }
 
         // 8. Post find class
         if (clazz == null) {
+            long start = loadingStatistics.start();
             clazz = postLoadClass(name);
+            loadingStatistics.end(ClassLoadingStage.POST_FIND, start, clazz != null);
         }
 
         if (clazz != null) {
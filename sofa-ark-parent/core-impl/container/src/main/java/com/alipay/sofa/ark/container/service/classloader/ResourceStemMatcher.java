@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable multi-pattern matcher for resource stems, i.e. 'xxx/*' matched by prefix and
+ * '*.xxx' matched by suffix. Prefix stems are kept in a character trie and suffix stems in a
+ * trie of the reversed stems, so a lookup costs O(length of resource name) however many stems
+ * are registered.
+ *
+ * <p>A prefix stem is preferred over a suffix stem; among several matching stems of the same
+ * kind the longest one wins.</p>
+ *
+ * @param <T> value bound to each stem
+ * @since 2.3.3
+ */
+public final class ResourceStemMatcher<T> {
+
+    private static final ResourceStemMatcher<?> EMPTY = new ResourceStemMatcher<>(
+                                                          new NodeBuilder().build(),
+                                                          new NodeBuilder().build());
+
+    private final Node                          prefixRoot;
+
+    private final Node                          suffixRoot;
+
+    private ResourceStemMatcher(Node prefixRoot, Node suffixRoot) {
+        this.prefixRoot = prefixRoot;
+        this.suffixRoot = suffixRoot;
+    }
+
+    /**
+     * Build matcher from stem maps
+     *
+     * @param prefixStems prefix stem (without '*') to value, may be null
+     * @param suffixStems suffix stem (without '*') to value, may be null
+     * @return immutable matcher
+     */
+    public static <T> ResourceStemMatcher<T> build(Map<String, ? extends T> prefixStems,
+                                                   Map<String, ? extends T> suffixStems) {
+        if ((prefixStems == null || prefixStems.isEmpty())
+            && (suffixStems == null || suffixStems.isEmpty())) {
+            return empty();
+        }
+        NodeBuilder prefixBuilder = new NodeBuilder();
+        if (prefixStems != null) {
+            for (Map.Entry<String, ? extends T> entry : prefixStems.entrySet()) {
+                String stem = entry.getKey();
+                NodeBuilder builder = prefixBuilder;
+                for (int i = 0; i < stem.length(); i++) {
+                    builder = builder.child(stem.charAt(i));
+                }
+                builder.value = entry.getValue();
+            }
+        }
+        NodeBuilder suffixBuilder = new NodeBuilder();
+        if (suffixStems != null) {
+            for (Map.Entry<String, ? extends T> entry : suffixStems.entrySet()) {
+                String stem = entry.getKey();
+                NodeBuilder builder = suffixBuilder;
+                for (int i = stem.length() - 1; i >= 0; i--) {
+                    builder = builder.child(stem.charAt(i));
+                }
+                builder.value = entry.getValue();
+            }
+        }
+        return new ResourceStemMatcher<>(prefixBuilder.build(), suffixBuilder.build());
+    }
+
+    /**
+     * Build matcher whose stems all map to {@link Boolean#TRUE}, for pure membership checks
+     *
+     * @param prefixStems prefix stems (without '*'), may be null
+     * @param suffixStems suffix stems (without '*'), may be null
+     * @return immutable matcher
+     */
+    public static ResourceStemMatcher<Boolean> of(Collection<String> prefixStems,
+                                                  Collection<String> suffixStems) {
+        return build(toMap(prefixStems), toMap(suffixStems));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ResourceStemMatcher<T> empty() {
+        return (ResourceStemMatcher<T>) EMPTY;
+    }
+
+    /**
+     * Find value of the stem matching the resource
+     *
+     * @param resourceName resource name
+     * @return value of the longest matching prefix stem, or else of the longest matching
+     *         suffix stem, null if no stem matches
+     */
+    @SuppressWarnings("unchecked")
+    public T match(String resourceName) {
+        Object value = prefixRoot.value;
+        Node node = prefixRoot;
+        for (int i = 0; i < resourceName.length() && node != null; i++) {
+            node = node.child(resourceName.charAt(i));
+            if (node != null && node.value != null) {
+                value = node.value;
+            }
+        }
+        if (value != null) {
+            return (T) value;
+        }
+
+        value = suffixRoot.value;
+        node = suffixRoot;
+        for (int i = resourceName.length() - 1; i >= 0 && node != null; i--) {
+            node = node.child(resourceName.charAt(i));
+            if (node != null && node.value != null) {
+                value = node.value;
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * Whether any stem matches the resource
+     *
+     * @param resourceName resource name
+     * @return true if matched
+     */
+    public boolean matches(String resourceName) {
+        return match(resourceName) != null;
+    }
+
+    public boolean isEmpty() {
+        return prefixRoot.isLeaf() && prefixRoot.value == null && suffixRoot.isLeaf()
+               && suffixRoot.value == null;
+    }
+
+    private static Map<String, Boolean> toMap(Collection<String> stems) {
+        if (stems == null || stems.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Boolean> map = new TreeMap<>();
+        for (String stem : stems) {
+            map.put(stem, Boolean.TRUE);
+        }
+        return map;
+    }
+
+    private static final class Node {
+        private final Object value;
+        private final char[] keys;
+        private final Node[] children;
+
+        private Node(Object value, char[] keys, Node[] children) {
+            this.value = value;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        private Node child(char c) {
+            // most nodes of a stem trie have a single child
+            if (keys.length == 1) {
+                return keys[0] == c ? children[0] : null;
+            }
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = keys[mid];
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private boolean isLeaf() {
+            return keys.length == 0;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private Object                                value;
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+
+        private NodeBuilder child(char c) {
+            return children.computeIfAbsent(c, k -> new NodeBuilder());
+        }
+
+        private Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int index = 0;
+            for (Map.Entry<Character, NodeBuilder> entry : children.entrySet()) {
+                keys[index] = entry.getKey();
+                nodes[index] = entry.getValue().build();
+                index++;
+            }
+            return new Node(value, keys, nodes);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
 import com.alipay.sofa.ark.container.model.PluginContextImpl;
 import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.container.service.classloader.IndexedClassPath;
 import com.alipay.sofa.ark.container.service.classloader.PluginClassLoader;
 import com.alipay.sofa.ark.loader.JarPluginArchive;
 import com.alipay.sofa.ark.loader.archive.JarFileArchive;
@@ -57,23 +58,20 @@ public class PluginFactoryServiceImpl implements PluginFactoryService {
         AssertUtils.isTrue(isArkPlugin(pluginArchive), "Archive must be a ark plugin!");
         PluginModel plugin = new PluginModel();
         Attributes manifestMainAttributes = pluginArchive.getManifest().getMainAttributes();
-        plugin
-            .setPluginName(manifestMainAttributes.getValue(PLUGIN_NAME_ATTRIBUTE))
+        plugin.setPluginName(manifestMainAttributes.getValue(PLUGIN_NAME_ATTRIBUTE))
             .setGroupId(manifestMainAttributes.getValue(GROUP_ID_ATTRIBUTE))
             .setArtifactId(manifestMainAttributes.getValue(ARTIFACT_ID_ATTRIBUTE))
             .setVersion(manifestMainAttributes.getValue(PLUGIN_VERSION_ATTRIBUTE))
             .setPriority(manifestMainAttributes.getValue(PRIORITY_ATTRIBUTE))
             .setPluginActivator(manifestMainAttributes.getValue(ACTIVATOR_ATTRIBUTE))
-            .setClassPath(pluginArchive.getUrls())
-            .setPluginUrl(pluginArchive.getUrl())
+            .setClassPath(pluginArchive.getUrls()).setPluginUrl(pluginArchive.getUrl())
             .setExportClasses(manifestMainAttributes.getValue(EXPORT_CLASSES_ATTRIBUTE))
             .setExportPackages(manifestMainAttributes.getValue(EXPORT_PACKAGES_ATTRIBUTE))
             .setImportClasses(manifestMainAttributes.getValue(IMPORT_CLASSES_ATTRIBUTE))
             .setImportPackages(manifestMainAttributes.getValue(IMPORT_PACKAGES_ATTRIBUTE))
             .setImportResources(manifestMainAttributes.getValue(IMPORT_RESOURCES_ATTRIBUTE))
             .setExportResources(manifestMainAttributes.getValue(EXPORT_RESOURCES_ATTRIBUTE))
-            .setPluginClassLoader(
-                new PluginClassLoader(plugin.getPluginName(), plugin.getClassPath()))
+            .setPluginClassLoader(createPluginClassLoader(plugin, pluginArchive))
             .setPluginContext(new PluginContextImpl(plugin));
         return plugin;
     }
@@ -106,8 +104,7 @@ public class PluginFactoryServiceImpl implements PluginFactoryService {
             .setImportPackages(manifestMainAttributes.getValue(IMPORT_PACKAGES_ATTRIBUTE))
             .setImportResources(manifestMainAttributes.getValue(IMPORT_RESOURCES_ATTRIBUTE))
             .setExportResources(manifestMainAttributes.getValue(EXPORT_RESOURCES_ATTRIBUTE))
-            .setPluginClassLoader(
-                new PluginClassLoader(plugin.getPluginName(), plugin.getClassPath()))
+            .setPluginClassLoader(createPluginClassLoader(plugin, pluginArchive))
             .setPluginContext(new PluginContextImpl(plugin));
         return plugin;
     }
@@ -153,8 +150,7 @@ public class PluginFactoryServiceImpl implements PluginFactoryService {
             .setPluginActivator(manifestMainAttributes.getValue(ACTIVATOR_ATTRIBUTE))
             .setClassPath(
                 getFinalPluginUrls(pluginArchive, pluginConfig.getExtensionUrls(),
-                    plugin.getPluginName()))
-            .setPluginUrl(pluginArchive.getUrl())
+                    plugin.getPluginName())).setPluginUrl(pluginArchive.getUrl())
             .setExportMode(manifestMainAttributes.getValue(EXPORT_MODE))
             .setExportClasses(manifestMainAttributes.getValue(EXPORT_CLASSES_ATTRIBUTE))
             .setExportPackages(manifestMainAttributes.getValue(EXPORT_PACKAGES_ATTRIBUTE))
@@ -162,8 +158,7 @@ public class PluginFactoryServiceImpl implements PluginFactoryService {
             .setImportPackages(manifestMainAttributes.getValue(IMPORT_PACKAGES_ATTRIBUTE))
             .setImportResources(manifestMainAttributes.getValue(IMPORT_RESOURCES_ATTRIBUTE))
             .setExportResources(manifestMainAttributes.getValue(EXPORT_RESOURCES_ATTRIBUTE))
-            .setPluginClassLoader(
-                new PluginClassLoader(plugin.getPluginName(), plugin.getClassPath()))
+            .setPluginClassLoader(createPluginClassLoader(plugin, pluginArchive))
             .setPluginContext(new PluginContextImpl(plugin));
         return plugin;
     }
@@ -202,12 +197,21 @@ public class PluginFactoryServiceImpl implements PluginFactoryService {
             .setImportResources(manifestMainAttributes.getValue(IMPORT_RESOURCES_ATTRIBUTE))
             .setExportResources(manifestMainAttributes.getValue(EXPORT_RESOURCES_ATTRIBUTE))
             .setPluginClassLoader(
-                (enableClassIsolation || overrideExportMode) ? new PluginClassLoader(plugin
-                    .getPluginName(), plugin.getClassPath()) : masterClassLoader)
+                (enableClassIsolation || overrideExportMode) ? createPluginClassLoader(plugin,
+                    pluginArchive) : masterClassLoader)
             .setPluginContext(new PluginContextImpl(plugin));
         return plugin;
     }
 
+    private PluginClassLoader createPluginClassLoader(PluginModel plugin,
+                                                      PluginArchive pluginArchive) {
+        PluginClassLoader pluginClassLoader = new PluginClassLoader(plugin.getPluginName(),
+            plugin.getClassPath());
+        pluginClassLoader.setIndexedClassPath(IndexedClassPath.load(pluginArchive,
+            pluginClassLoader.getURLs()));
+        return pluginClassLoader;
+    }
+
     private URL[] getFinalPluginUrls(PluginArchive pluginArchive, URL[] extensions,
                                      String pluginName) throws IOException {
         URL[] urls = pluginArchive.getUrls();
@@ -19,7 +19,11 @@ package com.alipay.sofa.ark.container.model;
 import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.container.service.ArkServiceContainer;
 import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.container.service.classloader.ClassPreloadProfile;
 import com.alipay.sofa.ark.container.service.event.EventAdminServiceImpl;
+import com.alipay.sofa.ark.loader.jar.Handler;
+import com.alipay.sofa.ark.loader.jar.RootJarFileCache;
+import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizStopEvent;
 import com.alipay.sofa.ark.spi.model.BizInfo.BizStateRecord;
 import com.alipay.sofa.ark.spi.model.BizState;
@@ -30,14 +34,21 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.alipay.sofa.ark.spi.constant.Constants.AUTO_UNINSTALL_WHEN_FAILED_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.BIZ_CLASS_PRELOAD_PROFILE_SUFFIX;
 import static com.alipay.sofa.ark.spi.constant.Constants.REMOVE_BIZ_INSTANCE_AFTER_STOP_FAILED;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.apache.commons.io.FileUtils.touch;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -69,6 +80,32 @@ public class BizModelTest {
             .getResource("test.jar").getPath()));
     }
 
+    @Test
+    public void testIsDeclaredClassWithCache() throws Exception {
+        AtomicInteger enumerateCount = new AtomicInteger();
+        ClassLoader classLoader = new ClassLoader(this.getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                enumerateCount.incrementAndGet();
+                return super.getResources(name);
+            }
+        };
+
+        BizModel bizModel = new BizModel();
+        assertTrue(bizModel.isDeclaredClass(Test.class, classLoader));
+        assertEquals(0, enumerateCount.get());
+
+        bizModel.setDeclaredLibraries("not-exist-library");
+        assertFalse(bizModel.isDeclaredClass(Test.class, classLoader));
+        assertFalse(bizModel.isDeclaredClass(Test.class, classLoader));
+        assertEquals(1, enumerateCount.get());
+
+        bizModel.setDeclaredLibraries("junit");
+        assertTrue(bizModel.isDeclaredClass(Test.class, classLoader));
+        assertTrue(bizModel.isDeclaredClass(Test.class, classLoader));
+        assertEquals(1, enumerateCount.get());
+    }
+
     @Test
     public void testBizStateChanged() {
         BizModel bizModel = new BizModel();
@@ -206,4 +243,66 @@ public class BizModelTest {
             ArkConfigs.putStringValue(AUTO_UNINSTALL_WHEN_FAILED_ENABLE, "true");
         }
     }
+
+    @Test
+    public void testStopWithSharedTempWorkDir() throws Throwable {
+        File root = Files.createTempDirectory("biz-install").toFile();
+        File contentDir = new File(root, "0123456789abcdef0123456789abcdef01234567");
+        File workDir = new File(contentDir, "sample-biz.jar-unpack");
+        workDir.mkdirs();
+        try {
+            File jar = new File(workDir, "sample-biz.jar");
+            Files.copy(this.getClass().getClassLoader().getResourceAsStream("sample-biz.jar"),
+                jar.toPath());
+            URL jarUrl = new URL("jar:" + jar.toURI().toURL() + "!/");
+            new Handler().getRootJarFileFromUrl(jarUrl);
+
+            BizModel other = new BizModel();
+            other.setBizName("biz2").setBizVersion("0.0.1-SNAPSHOT");
+            other.setBizTempWorkDir(workDir);
+            assertStop(createStoppingBiz(jarUrl, workDir), Collections.singletonList(other));
+            // the other biz still runs from the tree and its root jar files
+            assertTrue(jar.isFile());
+            assertTrue(RootJarFileCache.getInstance().evict(jar));
+
+            new Handler().getRootJarFileFromUrl(jarUrl);
+            File profileFile = ClassPreloadProfile.getProfileFile("biz1", "0.0.1-SNAPSHOT",
+                workDir, BIZ_CLASS_PRELOAD_PROFILE_SUFFIX);
+            touch(profileFile);
+            assertStop(createStoppingBiz(jarUrl, workDir), Collections.emptyList());
+            assertFalse(workDir.exists());
+            assertFalse(RootJarFileCache.getInstance().evict(jar));
+            // the profile of the recycled tree and the emptied content dir are removed too
+            assertFalse(profileFile.exists());
+            assertFalse(contentDir.exists());
+            assertTrue(root.isDirectory());
+        } finally {
+            deleteQuietly(root);
+        }
+    }
+
+    private BizModel createStoppingBiz(URL url, File workDir) {
+        BizModel bizModel = new BizModel();
+        bizModel.setBizName("biz1").setBizVersion("0.0.1-SNAPSHOT");
+        bizModel.setClassPath(new URL[] { url });
+        bizModel.setBizTempWorkDir(workDir);
+        bizModel.setBizState(BizState.ACTIVATED);
+        return bizModel;
+    }
+
+    private void assertStop(BizModel bizModel, List<Biz> installedBiz) throws Throwable {
+        try (MockedStatic<ArkServiceContainerHolder> mockedStatic = Mockito.mockStatic(ArkServiceContainerHolder.class)) {
+            EventAdminService eventAdminService = mock(EventAdminService.class);
+            BizManagerService bizManagerService = mock(BizManagerService.class);
+            when(bizManagerService.getBizInOrder()).thenReturn(installedBiz);
+
+            ArkServiceContainer arkServiceContainer = mock(ArkServiceContainer.class);
+            when(arkServiceContainer.getService(EventAdminService.class)).thenReturn(eventAdminService);
+            when(arkServiceContainer.getService(BizManagerService.class)).thenReturn(bizManagerService);
+            mockedStatic.when(ArkServiceContainerHolder::getContainer).thenReturn(arkServiceContainer);
+            bizModel.stop();
+
+            assertEquals(BizState.STOPPED, bizModel.getBizState());
+        }
+    }
 }
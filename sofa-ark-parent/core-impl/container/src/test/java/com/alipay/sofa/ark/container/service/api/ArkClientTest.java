@@ -39,6 +39,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
@@ -51,6 +52,7 @@ import static com.alipay.sofa.ark.api.ResponseCode.*;
 import static com.alipay.sofa.ark.common.util.FileUtils.copyInputStreamToFile;
 import static com.alipay.sofa.ark.spi.constant.Constants.ACTIVATE_NEW_MODULE;
 import static com.alipay.sofa.ark.spi.constant.Constants.AUTO_UNINSTALL_WHEN_FAILED_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.CONFIG_BIZ_DIGEST;
 import static com.alipay.sofa.ark.spi.constant.Constants.CONFIG_BIZ_URL;
 import static com.alipay.sofa.ark.spi.constant.Constants.EMBED_ENABLE;
 import static com.alipay.sofa.ark.spi.constant.Constants.ACTIVATE_MULTI_BIZ_VERSION_ENABLE;
@@ -307,6 +309,23 @@ public class ArkClientTest extends BaseTest {
         assertEquals(SUCCESS, response.getCode());
     }
 
+    @Test
+    public void testInstallOperationWithDigestMismatch() throws Throwable {
+        BizOperation bizOperation = new BizOperation();
+        bizOperation.setOperationType(INSTALL);
+        bizOperation.getParameters().put(CONFIG_BIZ_URL, bizUrl1.toString());
+        bizOperation.getParameters().put(CONFIG_BIZ_DIGEST, "SHA-1:0000");
+        bizOperation.setBizName("biz-demo");
+        bizOperation.setBizVersion("1.0.0");
+
+        try {
+            installOperation(bizOperation, new String[] {});
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("does not match"));
+        }
+    }
+
     @Test
     public void testInstallOperationWithDynamicMainClass() throws Throwable {
 
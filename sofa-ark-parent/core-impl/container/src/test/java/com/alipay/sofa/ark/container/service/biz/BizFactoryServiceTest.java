@@ -28,15 +28,21 @@ import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 
 import static com.alipay.sofa.ark.api.ArkConfigs.putStringValue;
 import static com.alipay.sofa.ark.container.service.ArkServiceContainerHolder.getContainer;
 import static com.alipay.sofa.ark.spi.constant.Constants.*;
 import static com.alipay.sofa.ark.spi.constant.Constants.UNPACK_BIZ_WHEN_INSTALL;
 import static java.lang.Thread.currentThread;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author qilong.zql
@@ -108,6 +114,42 @@ public class BizFactoryServiceTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testCreateBizReuseUnpackedTree() throws IOException {
+        String originalEmbed = System.getProperty(EMBED_ENABLE);
+        File workDir = Files.createTempDirectory("biz-unpack").toFile();
+        try {
+            URL sampleBiz = currentThread().getContextClassLoader().getResource("sample-biz.jar");
+            File source = FileUtils.file(sampleBiz.getFile());
+            System.setProperty(EMBED_ENABLE, "true");
+
+            File bizFile = new File(workDir, "sample-biz.jar");
+            copyFile(source, bizFile);
+            Biz biz = bizFactoryService.createBiz(bizFile);
+            File unpackDir = new File(new File(workDir, FileUtils.sha1Hash(source)),
+                "sample-biz.jar-unpack");
+            assertEquals(unpackDir.getAbsolutePath(),
+                new File(biz.getBizUrl().getFile()).getAbsolutePath());
+            File marker = new File(unpackDir, "marker");
+            assertTrue(marker.createNewFile());
+
+            // same content installed again reuses the tree
+            copyFile(source, bizFile);
+            biz = bizFactoryService.createBiz(bizFile);
+            assertEquals(unpackDir.getAbsolutePath(),
+                new File(biz.getBizUrl().getFile()).getAbsolutePath());
+            assertTrue(marker.exists());
+            assertEquals(1, new File(workDir, FileUtils.sha1Hash(source)).list().length);
+        } finally {
+            if (originalEmbed != null) {
+                System.setProperty(EMBED_ENABLE, originalEmbed);
+            } else {
+                System.clearProperty(EMBED_ENABLE);
+            }
+            deleteQuietly(workDir);
+        }
+    }
+
     @Test
     public void testCreateBiz() throws IOException {
         ClassLoader cl = currentThread().getContextClassLoader();
@@ -17,6 +17,7 @@
 package com.alipay.sofa.ark.container.service.classloader;
 
 import com.alipay.sofa.ark.api.ArkClient;
+import com.alipay.sofa.ark.api.ArkConfigs;
 import com.alipay.sofa.ark.bootstrap.AgentClassLoader;
 import com.alipay.sofa.ark.common.util.ClassLoaderUtils;
 import com.alipay.sofa.ark.common.util.ClassUtils;
@@ -40,11 +41,16 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.*;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_CACHE_RESOURCES_SIZE_MAX;
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.Thread.currentThread;
 
@@ -111,6 +117,50 @@ public class BizClassLoaderTest extends BaseTest {
             bizModel.getBizClassLoader().loadClass(ITest.class.getName()));
     }
 
+    @Test
+    public void testRecordPreloadProfile() throws Exception {
+        BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+            new URL[] { classPathURL });
+        bizModel.setDenyImportResources("").setDenyImportClasses("").setDenyImportPackages("");
+        bizManagerService.registerBiz(bizModel);
+        BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+
+        ClassPreloadProfile profile = new ClassPreloadProfile(null, 100);
+        bizClassLoader.setPreloadProfile(profile);
+        bizClassLoader.loadClass(ITest.class.getName());
+        bizClassLoader.loadClass(String.class.getName());
+        bizClassLoader.setPreloadProfile(null);
+        bizClassLoader.loadClass(BizClassLoaderTest.class.getName());
+
+        List<String> recorded = profile.getRecordedClasses();
+        Assert.assertTrue(recorded.contains(ITest.class.getName()));
+        Assert.assertFalse(recorded.contains(String.class.getName()));
+        Assert.assertFalse(recorded.contains(BizClassLoaderTest.class.getName()));
+    }
+
+    @Test
+    public void testBindRegisteredBiz() {
+        BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
+        BizClassLoader bizClassLoader = (BizClassLoader) bizModel.getBizClassLoader();
+        Assert.assertNull(bizClassLoader.getRegisteredBiz());
+
+        bizManagerService.registerBiz(bizModel);
+        Assert.assertSame(bizModel, bizClassLoader.getRegisteredBiz());
+        Assert.assertSame(bizModel, bizClassLoader.getRegisteredBiz());
+
+        bizModel.setBizState(BizState.ACTIVATED);
+        bizManagerService.unRegisterBiz("biz A", "1.0.0");
+        Assert.assertNull(bizClassLoader.getRegisteredBiz());
+
+        // a biz of another classloader registered with the same identity is not bound
+        BizModel another = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
+        bizManagerService.registerBiz(another);
+        Assert.assertSame(another, bizClassLoader.getRegisteredBiz());
+        another.setBizState(BizState.ACTIVATED);
+        bizManagerService.unRegisterBiz("biz A", "1.0.0");
+        Assert.assertNull(bizClassLoader.getRegisteredBiz());
+    }
+
     @Test
     public void testAgentClass() throws ClassNotFoundException {
         BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
@@ -492,6 +542,192 @@ public class BizClassLoaderTest extends BaseTest {
         Assert.assertFalse(urlResourceCache.getIfPresent(notExistingName).isPresent());
     }
 
+    @Test
+    public void testCacheResources() throws IOException {
+        ArkConfigs.setSystemProperty(ARK_CLASSLOADER_CACHE_RESOURCES_SIZE_MAX, "1000");
+        try {
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] {});
+            bizModel.setDenyImportResources("").setDenyImportClasses("");
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader cl = (BizClassLoader) bizModel.getBizClassLoader();
+            String name = "javax/lang/model/element/Modifier.class";
+            List<URL> urls = Collections.list(cl.getResources(name));
+            Assert.assertFalse(urls.isEmpty());
+            // classloader hooks are looked up through getResources on first use
+            long missCount = cl.getResourcesCacheStats().missCount();
+            Assert.assertEquals(urls, Collections.list(cl.getResources(name)));
+            Assert.assertEquals(1, cl.getResourcesCacheStats().hitCount());
+            Assert.assertFalse(cl.getResources("not/existing/resource").hasMoreElements());
+            Assert.assertFalse(cl.getResources("not/existing/resource").hasMoreElements());
+            Assert.assertEquals(2, cl.getResourcesCacheStats().hitCount());
+            Assert.assertEquals(missCount + 1, cl.getResourcesCacheStats().missCount());
+
+            // plugins changed
+            AbstractClasspathClassLoader.invalidateResourcesCache();
+            Assert.assertEquals(urls, Collections.list(cl.getResources(name)));
+            Assert.assertEquals(2, cl.getResourcesCacheStats().hitCount());
+            Assert.assertEquals(missCount + 2, cl.getResourcesCacheStats().missCount());
+
+            // resources of a directory on the classpath may change
+            File directory = Files.createTempDirectory("biz-classpath").toFile();
+            BizModel directoryBiz = createTestBizModel("biz B", "1.0.0", BizState.RESOLVED,
+                new URL[] { directory.toURI().toURL() });
+            directoryBiz.setDenyImportResources("").setDenyImportClasses("");
+            bizManagerService.registerBiz(directoryBiz);
+            BizClassLoader directoryCl = (BizClassLoader) directoryBiz.getBizClassLoader();
+            directoryCl.getResources(name);
+            directoryCl.getResources(name);
+            Assert.assertEquals(0, directoryCl.getResourcesCacheStats().requestCount());
+            directory.delete();
+        } finally {
+            System.clearProperty(ARK_CLASSLOADER_CACHE_RESOURCES_SIZE_MAX);
+        }
+    }
+
+    @Test
+    public void testResourcesCacheDisabledByDefault() throws IOException {
+        BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
+        bizManagerService.registerBiz(bizModel);
+        BizClassLoader cl = (BizClassLoader) bizModel.getBizClassLoader();
+        Assert.assertNull(cl.getResourcesCacheStats());
+    }
+
+    @Test
+    public void testLoadedClassIndex() throws Exception {
+        ArkConfigs.setSystemProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE, "true");
+        try {
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] { classPathURL });
+            bizModel.setDenyImportResources("").setDenyImportClasses("");
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader cl = (BizClassLoader) bizModel.getBizClassLoader();
+            Assert.assertNull(cl.classCache);
+            Class<?> clazz = cl.loadClass(ITest.class.getName());
+            Assert.assertSame(cl, clazz.getClassLoader());
+            int indexSize = cl.getLoadedClassIndexSize();
+            Assert.assertTrue(indexSize > 0);
+            long hitCount = cl.getLoadedClassIndexHitCount();
+            Assert.assertSame(clazz, cl.loadClass(ITest.class.getName()));
+            Assert.assertEquals(hitCount + 1, cl.getLoadedClassIndexHitCount());
+
+            // classes delegated to other classloaders are not indexed
+            Assert.assertSame(String.class, cl.loadClass(String.class.getName()));
+            Assert.assertEquals(indexSize, cl.getLoadedClassIndexSize());
+
+            cl.invalidAllCache();
+            Assert.assertEquals(0, cl.getLoadedClassIndexSize());
+            Assert.assertSame(clazz, cl.loadClass(ITest.class.getName()));
+            Assert.assertEquals(1, cl.getLoadedClassIndexSize());
+        } finally {
+            System.clearProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE);
+        }
+    }
+
+    @Test
+    public void testLoadedClassIndexMissCache() throws Exception {
+        ArkConfigs.setSystemProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE, "true");
+        try {
+            // hooks of the test classpath answer every class, so use an empty classpath
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] {});
+            bizModel.setDenyImportResources("").setDenyImportClasses("");
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader cl = (BizClassLoader) bizModel.getBizClassLoader();
+            for (int i = 0; i < 2; i++) {
+                try {
+                    cl.loadClass("com.alipay.sofa.ark.NotExistClass");
+                    Assert.fail();
+                } catch (ClassNotFoundException e) {
+                    // expected
+                }
+            }
+            Assert.assertEquals(1, cl.getMissCacheStats().hitCount());
+            Assert.assertEquals(0, cl.getLoadedClassIndexSize());
+        } finally {
+            System.clearProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE);
+        }
+    }
+
+    @Test
+    public void testLoadedClassIndexConcurrentLoad() throws Exception {
+        ArkConfigs.setSystemProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE, "true");
+        try {
+            BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED,
+                new URL[] { classPathURL });
+            bizModel.setDenyImportResources("").setDenyImportClasses("");
+            bizManagerService.registerBiz(bizModel);
+
+            BizClassLoader cl = (BizClassLoader) bizModel.getBizClassLoader();
+            // concurrent lookups of a local class not yet defined define it only once
+            Class<?>[] classes = new Class<?>[8];
+            Thread[] threads = new Thread[classes.length];
+            for (int i = 0; i < threads.length; i++) {
+                int index = i;
+                threads[i] = new Thread(() -> {
+                    try {
+                        classes[index] = cl.loadClass(ITest.class.getName());
+                    } catch (ClassNotFoundException e) {
+                        // leave null
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (Class<?> clazz : classes) {
+                Assert.assertNotNull(clazz);
+                Assert.assertSame(classes[0], clazz);
+            }
+            Assert.assertSame(cl, classes[0].getClassLoader());
+        } finally {
+            System.clearProperty(ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE);
+        }
+    }
+
+    @Test
+    public void testNegativeFilterBuiltOnFirstMiss() throws Exception {
+        URL jar = getClass().getClassLoader().getResource("sample-ark-plugin-common-0.5.1.jar");
+        BizClassLoader disabled = createTestBizClassLoader("biz A", jar);
+        loadMissingClass(disabled, "com.example.NotExistClass");
+        Assert.assertNull(disabled.getClassPathFilter());
+
+        ArkConfigs.setSystemProperty(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE, "true");
+        try {
+            BizClassLoader cl = createTestBizClassLoader("biz B", jar);
+            Assert.assertNull(cl.getClassPathFilter());
+            loadMissingClass(cl, "com.example.NotExistClass");
+            ClassPathEntryFilter filter = cl.getClassPathFilter();
+            Assert.assertNotNull(filter);
+            loadMissingClass(cl, "com.example.AnotherNotExistClass");
+            Assert.assertEquals(1, filter.getNegativeCount());
+            Assert.assertNotNull(cl.loadClass("com.alipay.sofa.ark.spi.archive.Archive"));
+        } finally {
+            System.clearProperty(ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE);
+        }
+    }
+
+    private BizClassLoader createTestBizClassLoader(String bizName, URL url) {
+        BizModel bizModel = createTestBizModel(bizName, "1.0.0", BizState.RESOLVED,
+            new URL[] { url });
+        bizModel.setDenyImportResources("").setDenyImportClasses("").setDenyImportPackages("");
+        bizManagerService.registerBiz(bizModel);
+        return (BizClassLoader) bizModel.getBizClassLoader();
+    }
+
+    private void loadMissingClass(ClassLoader cl, String name) {
+        try {
+            cl.loadClass(name);
+            Assert.fail();
+        } catch (ClassNotFoundException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testPublicDefineClass() {
         BizModel bizModel = createTestBizModel("biz A", "1.0.0", BizState.RESOLVED, new URL[] {});
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStatistics;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 2.3.3
+ */
+public class ClassLoaderCommandProviderTest {
+
+    @Test
+    public void testClassLoaderCommandFormat() {
+        ClassLoaderCommandProvider provider = new ClassLoaderCommandProvider();
+        assertTrue(provider.validate("classloader -h"));
+        assertTrue(provider.validate("classloader -e"));
+        assertTrue(provider.validate("classloader -d"));
+        assertTrue(provider.validate("classloader -r"));
+        assertTrue(provider.validate("classloader -a"));
+        assertTrue(provider.validate(" classloader -s pluginA biz.* "));
+
+        assertFalse(provider.validate("classloader"));
+        assertFalse(provider.validate("classload -a"));
+        assertFalse(provider.validate("classloader -"));
+        assertFalse(provider.validate("classloader -x"));
+        assertFalse(provider.validate("classloader -s"));
+        assertFalse(provider.validate("classloader -a pluginA"));
+        assertFalse(provider.validate("classloader -e -d"));
+    }
+
+    @Test
+    public void testClassLoaderCommandProcess() throws Exception {
+        ClassLoadingStatistics statistics = new ClassLoadingStatistics();
+        Map<String, ClassLoadingStatistics> statisticsMap = new LinkedHashMap<>();
+        statisticsMap.put("pluginA", statistics);
+        statisticsMap.put("bizA:1.0.0", statistics);
+
+        ClassLoaderService classLoaderService = mock(ClassLoaderService.class);
+        when(classLoaderService.getClassLoadingStatistics()).thenReturn(statisticsMap);
+        when(classLoaderService.isClassLoadingInstrumentEnabled()).thenReturn(true);
+
+        ClassLoaderCommandProvider provider = new ClassLoaderCommandProvider();
+        Field field = ClassLoaderCommandProvider.class.getDeclaredField("classLoaderService");
+        field.setAccessible(true);
+        field.set(provider, classLoaderService);
+
+        assertEquals("Error command format. Pls type 'classloader -h' to get help message\n",
+            provider.handleCommand("classloader -x"));
+        assertEquals(provider.getHelp(), provider.handleCommand("classloader -h"));
+
+        provider.handleCommand("classloader -e");
+        verify(classLoaderService).setClassLoadingInstrumentEnabled(true);
+        provider.handleCommand("classloader -d");
+        verify(classLoaderService).setClassLoadingInstrumentEnabled(false);
+        provider.handleCommand("classloader -r");
+        verify(classLoaderService).resetClassLoadingStatistics();
+
+        String details = provider.handleCommand("classloader -a");
+        assertTrue(details.contains("ClassLoader: pluginA"));
+        assertTrue(details.contains("ClassLoader: bizA:1.0.0"));
+        assertTrue(details.contains("EXPORT"));
+
+        details = provider.handleCommand("classloader -s biz.*");
+        assertFalse(details.contains("ClassLoader: pluginA"));
+        assertTrue(details.contains("ClassLoader: bizA:1.0.0"));
+
+        details = provider.handleCommand("classloader -s pluginB");
+        assertTrue(details.contains("no matched classloader candidates."));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @since 2.3.3
+ */
+public class ClassLoadingLocksTest {
+
+    @Test
+    public void testSameLockWhileHeld() {
+        ClassLoadingLocks locks = new ClassLoadingLocks();
+        Object lock = locks.getLock("a.A");
+        assertSame(lock, locks.getLock("a.A"));
+        assertNotSame(lock, locks.getLock("a.B"));
+        synchronized (lock) {
+            assertSame(lock, locks.getLock("a.A"));
+        }
+    }
+
+    @Test
+    public void testDropReleasedLocks() throws InterruptedException {
+        ClassLoadingLocks locks = new ClassLoadingLocks();
+        List<Object> held = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            Object lock = locks.getLock("a.A" + i);
+            if (i % 1000 == 0) {
+                held.add(lock);
+            }
+        }
+
+        for (int i = 0; i < 50 && locks.size() > held.size(); i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(held.size(), locks.size());
+        for (int i = 0; i < held.size(); i++) {
+            assertSame(held.get(i), locks.getLock("a.A" + i * 1000));
+        }
+    }
+}
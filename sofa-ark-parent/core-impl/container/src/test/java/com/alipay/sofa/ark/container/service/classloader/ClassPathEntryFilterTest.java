@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class ClassPathEntryFilterTest {
+
+    @Test
+    public void testNoFalseNegative() {
+        int[] hashCodes = new int[10000];
+        for (int i = 0; i < hashCodes.length; i++) {
+            hashCodes[i] = ("com/alipay/sofa/Clazz" + i + ".class").hashCode();
+        }
+        ClassPathEntryFilter filter = new ClassPathEntryFilter(hashCodes, hashCodes.length, 10);
+        for (int i = 0; i < hashCodes.length; i++) {
+            assertTrue(filter.mightContainClass("com.alipay.sofa.Clazz" + i));
+        }
+
+        int positive = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContainClass("com.alipay.other.Clazz" + i)) {
+                positive++;
+            }
+        }
+        // expected rate is about 1% with 10 bits per entry
+        assertTrue(positive < 300);
+        assertEquals(20000, filter.getQueryCount());
+        assertEquals(10000 - positive, filter.getNegativeCount());
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    public void testBuildFromJar() throws Exception {
+        URL jar = getClass().getClassLoader().getResource("sample-ark-plugin-common-0.5.1.jar");
+        ClassPathEntryFilter filter = ClassPathEntryFilter.build(new URL[] { jar }, 10);
+        assertNotNull(filter);
+        assertTrue(filter.getEntryCount() > 0);
+        assertTrue(filter.mightContainClass("com.alipay.sofa.ark.spi.archive.Archive"));
+        assertTrue(filter.mightContainClass("com.alipay.sofa.ark.spi.archive.Archive$Entry"));
+        assertFalse(filter.mightContainClass("com.alipay.sofa.ark.spi.archive.NotExist"));
+
+        filter.recordFalsePositive();
+        assertEquals(1, filter.getFalsePositiveCount());
+    }
+
+    @Test
+    public void testBuildFromDirectory() throws Exception {
+        URL jar = getClass().getClassLoader().getResource("sample-ark-plugin-common-0.5.1.jar");
+        URL directory = new File(jar.getFile()).getParentFile().toURI().toURL();
+        assertNull(ClassPathEntryFilter.build(new URL[] { jar, directory }, 10));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class ClassPreloadProfileTest {
+
+    @Test
+    public void testRecordAndRead() throws IOException {
+        File workDir = Files.createTempDirectory("preload").resolve("biz-1.0.0-20240101").toFile();
+        Files.write(workDir.toPath(), "biz".getBytes(StandardCharsets.UTF_8));
+        File file = ClassPreloadProfile.getProfileFile("biz", "1.0.0", workDir, ".preload");
+        assertEquals(workDir.getParentFile(), file.getParentFile());
+        assertTrue(file.getName().matches("biz-1\\.0\\.0-[0-9a-f]{8}\\.preload"));
+
+        ClassPreloadProfile profile = new ClassPreloadProfile(file, 3);
+        profile.record("a.B");
+        profile.record("a.C");
+        profile.record("a.B");
+        profile.record("a.D");
+        profile.record("a.E");
+        assertEquals(Arrays.asList("a.B", "a.C", "a.D"), profile.getRecordedClasses());
+
+        profile.save();
+        assertEquals(Arrays.asList("a.B", "a.C", "a.D"), ClassPreloadProfile.read(file));
+        assertEquals(2, file.getParentFile().list().length);
+        file.delete();
+        workDir.delete();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void testRebuiltArchive() throws IOException {
+        File workDir = Files.createTempDirectory("preload").resolve("biz-1.0.0-20240101").toFile();
+        Files.write(workDir.toPath(), "biz".getBytes(StandardCharsets.UTF_8));
+        File file = ClassPreloadProfile.getProfileFile("biz", "1.0.0", workDir, ".preload");
+        new ClassPreloadProfile(file, 3).save();
+        File otherVersion = ClassPreloadProfile.getProfileFile("biz", "1.0.1", workDir, ".preload");
+        new ClassPreloadProfile(otherVersion, 3).save();
+
+        // same version rebuilt
+        Files.write(workDir.toPath(), "rebuilt biz".getBytes(StandardCharsets.UTF_8));
+        File rebuilt = ClassPreloadProfile.getProfileFile("biz", "1.0.0", workDir, ".preload");
+        assertNotEquals(file, rebuilt);
+        ClassPreloadProfile.deleteStaleProfiles(rebuilt, "biz", "1.0.0", ".preload");
+        assertFalse(file.exists());
+        assertTrue(otherVersion.exists());
+
+        otherVersion.delete();
+        workDir.delete();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void testReadInvalidProfile() throws IOException {
+        File file = File.createTempFile("invalid", ".preload");
+        Files.write(file.toPath(), "a.B\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(ClassPreloadProfile.read(file).isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testNoWorkDir() {
+        assertNull(ClassPreloadProfile.getProfileFile("biz", "1.0.0", null, ".preload"));
+        assertNull(ClassPreloadProfile.getProfileFile("biz", "1.0.0", new File("not-exist"),
+            ".preload"));
+    }
+
+    @Test
+    public void testPreload() {
+        List<String> classNames = Arrays.asList(ClassPreloadProfileTest.class.getName(),
+            "com.alipay.sofa.ark.not.Exist", String.class.getName());
+        assertEquals(2,
+            ClassPreloadProfile.preload(getClass().getClassLoader(), classNames, 4, 10000));
+        assertEquals(0, ClassPreloadProfile.preload(getClass().getClassLoader(),
+            Arrays.<String> asList(), 4, 10000));
+    }
+
+    @Test
+    public void testPreloadWithContextClassLoader() {
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Class<?> loadClass(String name) throws ClassNotFoundException {
+                if (Thread.currentThread().getContextClassLoader() != this) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name);
+            }
+        };
+        List<String> classNames = Arrays.asList(ClassPreloadProfileTest.class.getName());
+        assertEquals(1, ClassPreloadProfile.preload(classLoader, classNames, 1, 10000));
+    }
+}
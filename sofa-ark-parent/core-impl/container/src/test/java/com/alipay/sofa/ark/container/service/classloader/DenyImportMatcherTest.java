@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.container.model.BizModel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class DenyImportMatcherTest {
+
+    @Test
+    public void testDeniedClass() {
+        BizModel biz = new BizModel().setDenyImportPackages("a.c, a.b.c.*, a.b.c, a.b.c.d.*, x.*")
+            .setDenyImportClasses("m.n.O,P");
+        DenyImportMatcher matcher = biz.getDenyImportMatcher();
+
+        assertFalse(matcher.isDeniedClass("a.c"));
+        assertTrue(matcher.isDeniedClass("a.c.E"));
+        assertFalse(matcher.isDeniedClass("a.c.e.G"));
+        assertFalse(matcher.isDeniedClass("a.cd.E"));
+        assertTrue(matcher.isDeniedClass("a.b.c.E"));
+        assertTrue(matcher.isDeniedClass("a.b.c.e.G"));
+        assertTrue(matcher.isDeniedClass("a.b.c.d.e.G"));
+        // stems match by package prefix, same as String#startsWith
+        assertTrue(matcher.isDeniedClass("a.b.cd.E"));
+        assertFalse(matcher.isDeniedClass("a.b.c"));
+        assertTrue(matcher.isDeniedClass("x.y.Z"));
+        assertFalse(matcher.isDeniedClass("w.Z"));
+        assertTrue(matcher.isDeniedClass("m.n.O"));
+        assertFalse(matcher.isDeniedClass("m.n.Q"));
+        assertTrue(matcher.isDeniedClass("P"));
+        assertFalse(matcher.isDeniedClass("Q"));
+    }
+
+    @Test
+    public void testDeniedDefaultPackage() {
+        DenyImportMatcher matcher = new BizModel().setDenyImportPackages(".")
+            .setDenyImportClasses("").getDenyImportMatcher();
+        assertTrue(matcher.isDeniedClass("Q"));
+        assertFalse(matcher.isDeniedClass("a.Q"));
+    }
+
+    @Test
+    public void testDeniedResource() {
+        DenyImportMatcher matcher = new BizModel().setDenyImportResources(
+            "export/folderA/*,export/*,export/folderB/test3.xml,*.properties,*/a.xml")
+            .getDenyImportMatcher();
+
+        assertTrue(matcher.isDeniedResource("export/folderA/test1.xml"));
+        assertTrue(matcher.isDeniedResource("export/folderC/test1.xml"));
+        assertTrue(matcher.isDeniedResource("export/folderB/test3.xml"));
+        assertTrue(matcher.isDeniedResource("conf/app.properties"));
+        assertTrue(matcher.isDeniedResource("conf/a.xml"));
+        assertFalse(matcher.isDeniedResource("exports/test1.xml"));
+        assertFalse(matcher.isDeniedResource("conf/b.xml"));
+        assertFalse(matcher.isDeniedResource("a.xml"));
+    }
+
+    @Test
+    public void testRecompileAfterChange() {
+        BizModel biz = new BizModel().setDenyImportClasses("");
+        DenyImportMatcher matcher = biz.getDenyImportMatcher();
+        assertSame(DenyImportMatcher.EMPTY, matcher);
+        assertTrue(matcher.isEmpty());
+        assertSame(matcher, biz.getDenyImportMatcher());
+
+        biz.setDenyImportClasses("a.B");
+        assertNotSame(matcher, biz.getDenyImportMatcher());
+        assertTrue(biz.getDenyImportMatcher().isDeniedClass("a.B"));
+        assertFalse(biz.getDenyImportMatcher().isDeniedResource("a/B.class"));
+    }
+}
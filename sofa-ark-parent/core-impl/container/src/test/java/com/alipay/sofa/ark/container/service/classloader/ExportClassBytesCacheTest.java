@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class ExportClassBytesCacheTest {
+
+    @Test
+    public void testReadOnce() throws Exception {
+        ExportClassBytesCache cache = new ExportClassBytesCache(1024);
+        PluginModel pluginA = new PluginModel().setPluginName("plugin A");
+        PluginModel pluginB = new PluginModel().setPluginName("plugin B");
+        AtomicInteger reads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new byte[] { 1, 2 }, cache.get(pluginA, "a.B", () -> {
+                reads.incrementAndGet();
+                return new byte[] { 1, 2 };
+            }));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(2, cache.getStats().hitCount());
+
+        // same class exported by another plugin is cached separately
+        assertArrayEquals(new byte[] { 3 }, cache.get(pluginB, "a.B", () -> new byte[] { 3 }));
+        // absent class is not cached
+        assertNull(cache.get(pluginA, "a.C", () -> null));
+        assertEquals(2, cache.size());
+
+        cache.invalidate(pluginA);
+        assertEquals(1, cache.size());
+        assertArrayEquals(new byte[] { 3 }, cache.get(pluginB, "a.B", () -> null));
+    }
+
+    @Test
+    public void testBoundedByBytes() throws Exception {
+        ExportClassBytesCache cache = new ExportClassBytesCache(1000);
+        PluginModel plugin = new PluginModel().setPluginName("plugin A");
+        for (int i = 0; i < 100; i++) {
+            cache.get(plugin, "a.B" + i, () -> new byte[40]);
+        }
+        assertTrue(cache.size() <= 25);
+        assertTrue(cache.getStats().evictionCount() >= 75);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        ExportClassBytesCache cache = new ExportClassBytesCache(0);
+        PluginModel plugin = new PluginModel().setPluginName("plugin A");
+        AtomicInteger reads = new AtomicInteger();
+        cache.get(plugin, "a.B", () -> new byte[reads.incrementAndGet()]);
+        cache.get(plugin, "a.B", () -> new byte[reads.incrementAndGet()]);
+        assertEquals(2, reads.get());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @since 2.3.3
+ */
+public class ExportPackageTrieTest {
+
+    private final Plugin pluginA = new PluginModel().setPluginName("pluginA");
+    private final Plugin pluginB = new PluginModel().setPluginName("pluginB");
+    private final Plugin pluginC = new PluginModel().setPluginName("pluginC");
+
+    @Test
+    public void testFindExportPlugin() {
+        Map<String, Plugin> classes = new HashMap<>();
+        Map<String, Plugin> nodes = new HashMap<>();
+        Map<String, Plugin> stems = new HashMap<>();
+        classes.put("a.e.f.G", pluginC);
+        nodes.put("a.f", pluginA);
+        nodes.put("a.b.f", pluginB);
+        stems.put("a.b", pluginA);
+        stems.put("a.b.c.d", pluginB);
+
+        ExportPackageTrie trie = ExportPackageTrie.build(classes, nodes, stems);
+        assertNull(trie.find("a.b"));
+        assertNull(trie.find("a"));
+        assertNull(trie.find("a.f.h.m"));
+        assertNull(trie.find("x.y.Z"));
+        assertEquals(pluginA, trie.find("a.b.C"));
+        assertEquals(pluginA, trie.find("a.b.e.f"));
+        assertEquals(pluginA, trie.find("a.f.g"));
+        assertEquals(pluginC, trie.find("a.e.f.G"));
+        assertEquals(pluginB, trie.find("a.b.f.m"));
+        assertEquals(pluginA, trie.find("a.b.f.m.g"));
+        assertEquals(pluginA, trie.find("a.b.c.X"));
+        assertEquals(pluginB, trie.find("a.b.c.d.X"));
+        assertEquals(pluginB, trie.find("a.b.c.d.e.X"));
+    }
+
+    @Test
+    public void testManySiblings() {
+        Map<String, Plugin> stems = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            stems.put("com.pkg" + i, i % 2 == 0 ? pluginA : pluginB);
+        }
+        ExportPackageTrie trie = ExportPackageTrie.build(new HashMap<>(), new HashMap<>(), stems);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? pluginA : pluginB, trie.find("com.pkg" + i + ".sub.Clazz"));
+        }
+        assertNull(trie.find("com.pkg100.Clazz"));
+        assertNull(trie.find("com.Clazz"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertNull(ExportPackageTrie.EMPTY.find("a.b.C"));
+        assertNull(ExportPackageTrie.EMPTY.find("C"));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
+import com.alipay.sofa.ark.common.util.FileUtils;
+import com.alipay.sofa.ark.container.BaseTest;
+import com.alipay.sofa.ark.container.service.ArkServiceContainerHolder;
+import com.alipay.sofa.ark.spi.model.Plugin;
+import com.alipay.sofa.ark.spi.service.plugin.PluginFactoryService;
+import com.alipay.sofa.ark.spi.service.plugin.PluginManagerService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.lang.Thread.currentThread;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class IndexedClassPathTest extends BaseTest {
+
+    private PluginFactoryService pluginFactoryService;
+
+    private PluginManagerService pluginManagerService;
+
+    @Before
+    public void before() {
+        super.before();
+        pluginFactoryService = ArkServiceContainerHolder.getContainer().getService(
+            PluginFactoryService.class);
+        pluginManagerService = ArkServiceContainerHolder.getContainer().getService(
+            PluginManagerService.class);
+    }
+
+    @Test
+    public void testSplitNestedUrl() {
+        assertArrayEquals(new String[] { "file:/a.jar", "" },
+            IndexedClassPath.splitNestedUrl("jar:file:/a.jar!/"));
+        assertArrayEquals(new String[] { "file:/a.jar", "lib/b.jar" },
+            IndexedClassPath.splitNestedUrl("jar:file:/a.jar!/lib/b.jar!/"));
+        assertNull(IndexedClassPath.splitNestedUrl("jar:file:/a.jar!/lib/b.jar!/c.jar!/"));
+        assertNull(IndexedClassPath.splitNestedUrl("file:/a.jar"));
+    }
+
+    @Test
+    public void testResolve() throws Exception {
+        ClassPathIndex.Builder builder = new ClassPathIndex.Builder();
+        int root = builder.addJar(ClassPathIndex.ROOT);
+        int libA = builder.addJar("lib/a.jar");
+        int libB = builder.addJar("lib/b.jar");
+        builder.addEntry(root, "com/alipay/sofa/ark/biz/mark");
+        builder.addEntry(libA, "a/A.class");
+        builder.addEntry(libB, "a/B.class");
+        builder.addEntry(libB, "b/B.class");
+        builder.setManifestDigest(libA, 1L);
+        ClassPathIndex index = builder.build();
+
+        URL rootUrl = new URL("jar:file:/biz.jar!/");
+        URL libAUrl = new URL("jar:file:/biz.jar!/lib/a.jar!/");
+        URL libBUrl = new URL("jar:file:/biz.jar!/lib/b.jar!/");
+        URL otherUrl = new URL("jar:file:/other.jar!/lib/b.jar!/");
+
+        // classpath order differs from index order, urls can not be opened to check manifests
+        IndexedClassPath indexed = IndexedClassPath.resolve(index, new URL[] { rootUrl, libBUrl,
+                libAUrl }, false);
+        assertTrue(indexed.isComplete());
+        assertArrayEquals(new int[] { 1, 2 }, indexed.getCandidates("a"));
+        assertArrayEquals(new int[] { 1 }, indexed.getCandidates("b"));
+        assertArrayEquals(new int[0], indexed.getCandidates("c"));
+        assertTrue(indexed.mayHaveManifest(2));
+        assertFalse(indexed.mayHaveManifest(1));
+        assertTrue(indexed.isAbsentClass("c.C"));
+        assertFalse(indexed.isAbsentClass("a.C"));
+        // no class in default package
+        assertTrue(indexed.isAbsentClass("Root"));
+        assertTrue(indexed.isAbsentResource("c/c.xml"));
+        assertFalse(indexed.isAbsentResource("c/"));
+        assertFalse(indexed.isAbsentResource(""));
+        assertEquals(3, indexed.getNegativeCount());
+
+        // urls not covered by the index are always candidates
+        indexed = IndexedClassPath.resolve(index,
+            new URL[] { rootUrl, libAUrl, otherUrl, libBUrl }, false);
+        assertFalse(indexed.isComplete());
+        assertArrayEquals(new int[] { 1, 3, 2 }, indexed.getCandidates("a"));
+        assertArrayEquals(new int[] { 2 }, indexed.getCandidates("c"));
+        assertFalse(indexed.isAbsentClass("c.C"));
+        assertTrue(indexed.mayHaveManifest(2));
+
+        assertNull(IndexedClassPath.resolve(index, new URL[] { otherUrl }));
+
+        // manifest of a jar is checked the first time it becomes a candidate
+        indexed = IndexedClassPath.resolve(index, new URL[] { rootUrl, libAUrl, libBUrl });
+        assertFalse(indexed.isStale());
+        assertArrayEquals(new int[0], indexed.getCandidates("c"));
+        assertFalse(indexed.isStale());
+        assertNull(indexed.getCandidates("a"));
+        assertTrue(indexed.isStale());
+    }
+
+    @Test
+    public void testDefinePackageFromIndexedJar() throws Throwable {
+        File file = getPluginFile();
+        Plugin plugin = pluginFactoryService.createPlugin(file);
+        pluginManagerService.registerPlugin(plugin);
+        PluginClassLoader pluginClassLoader = (PluginClassLoader) plugin.getPluginClassLoader();
+        // sample plugin is built without index
+        assertNull(pluginClassLoader.getIndexedClassPath());
+
+        IndexedClassPath indexed = IndexedClassPath.resolve(buildIndex(file, false),
+            pluginClassLoader.getURLs());
+        assertTrue(indexed.isComplete());
+        assertTrue(indexed.verify());
+        pluginClassLoader.setIndexedClassPath(indexed);
+
+        Class<?> mdc = pluginClassLoader.loadClass("org.slf4j.MDC");
+        assertSame(pluginClassLoader, mdc.getClassLoader());
+        assertNotNull(mdc.getPackage().getImplementationVersion());
+        assertFalse(indexed.isStale());
+
+        assertNull(pluginClassLoader.getResource("not/exist/resource.xml"));
+        assertFalse(pluginClassLoader.getResources("not/exist/resource.xml").hasMoreElements());
+        assertTrue(indexed.getNegativeCount() > 0);
+    }
+
+    @Test
+    public void testStaleIndex() throws Throwable {
+        File file = getPluginFile();
+        Plugin plugin = pluginFactoryService.createPlugin(file);
+        pluginManagerService.registerPlugin(plugin);
+        PluginClassLoader pluginClassLoader = (PluginClassLoader) plugin.getPluginClassLoader();
+        IndexedClassPath indexed = IndexedClassPath.resolve(buildIndex(file, true),
+            pluginClassLoader.getURLs());
+        // manifests are not checked until the index answers a lookup
+        assertFalse(indexed.isStale());
+        assertFalse(indexed.isAbsentClass("not.exist.Clazz"));
+        assertTrue(indexed.isStale());
+        assertFalse(indexed.verify());
+        assertNull(indexed.getCandidates("org/slf4j"));
+        assertFalse(indexed.isAbsentResource("not/exist/resource.xml"));
+
+        // package is still defined by scanning the classpath
+        pluginClassLoader.setIndexedClassPath(indexed);
+        Class<?> mdc = pluginClassLoader.loadClass("org.slf4j.MDC");
+        assertNotNull(mdc.getPackage().getImplementationVersion());
+    }
+
+    private File getPluginFile() {
+        URL samplePlugin = currentThread().getContextClassLoader().getResource(
+            "sample-ark-plugin-common-0.5.1.jar");
+        return FileUtils.file(samplePlugin.getFile());
+    }
+
+    /**
+     * build index the same way as packaging tools do
+     */
+    private ClassPathIndex buildIndex(File file, boolean wrongDigest) throws IOException {
+        ClassPathIndex.Builder builder = new ClassPathIndex.Builder();
+        int root = builder.addJar(ClassPathIndex.ROOT);
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                builder.addEntry(root, entry.getName());
+                if (ClassPathIndex.MANIFEST_NAME.equals(entry.getName())) {
+                    builder.setManifestDigest(root, entry.getCrc());
+                }
+                if (entry.getName().startsWith("lib/") && !entry.isDirectory()) {
+                    try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                        int jar = builder.addJar(entry.getName(), inputStream);
+                        if (wrongDigest) {
+                            builder.setManifestDigest(jar, 0L);
+                        }
+                    }
+                }
+            }
+        }
+        return ClassPathIndex.read(new ByteArrayInputStream(builder.build().toByteArray()));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class JDKDelegateClassLoaderTest {
+
+    private final ClassLoader platformClassLoader = getPlatformClassLoader();
+
+    @Test
+    public void testCollectJDKPackages() {
+        Set<String> packages = JDKDelegateClassLoader.collectJDKPackages(platformClassLoader,
+            new URL[0]);
+        assertNotNull(packages);
+        assertTrue(packages.contains("java.lang"));
+        assertTrue(packages.contains("java.util.concurrent"));
+        assertFalse(packages.contains(getClass().getPackage().getName()));
+    }
+
+    @Test
+    public void testLoadClassIfPresent() {
+        JDKDelegateClassLoader classLoader = new JDKDelegateClassLoader(new URL[0],
+            platformClassLoader, JDKDelegateClassLoader.collectJDKPackages(platformClassLoader,
+                new URL[0]));
+        assertEquals(String.class, classLoader.loadClassIfPresent("java.lang.String"));
+        assertNull(classLoader.loadClassIfPresent("java.lang.NotExist"));
+        assertNull(classLoader.loadClassIfPresent(getClass().getName()));
+        assertNull(classLoader.loadClassIfPresent("NotExist"));
+    }
+
+    @Test
+    public void testLoadVisibleClassOutsideJDKPackages() {
+        // e.g. classes appended to boot class path are still delegated
+        URL classPath = getClass().getProtectionDomain().getCodeSource().getLocation();
+        JDKDelegateClassLoader classLoader = new JDKDelegateClassLoader(new URL[] { classPath },
+            platformClassLoader, Collections.singleton("java.lang"));
+        Class<?> clazz = classLoader.loadClassIfPresent(getClass().getName());
+        assertNotNull(clazz);
+        assertEquals(classLoader, clazz.getClassLoader());
+    }
+
+    @Test
+    public void testUnknownJDKPackages() {
+        JDKDelegateClassLoader classLoader = new JDKDelegateClassLoader(new URL[0],
+            platformClassLoader);
+        assertEquals(String.class, classLoader.loadClassIfPresent("java.lang.String"));
+        assertNull(classLoader.loadClassIfPresent(getClass().getName()));
+    }
+
+    private static ClassLoader getPlatformClassLoader() {
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        while (classLoader.getParent() != null) {
+            classLoader = classLoader.getParent();
+        }
+        return classLoader;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.container.service.classloader;
+
+import com.alipay.sofa.ark.container.model.PluginModel;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2.3.3
+ */
+public class ResourceStemMatcherTest {
+
+    @Test
+    public void testMatch() {
+        Map<String, String> prefixStems = new HashMap<>();
+        prefixStems.put("META-INF/", "meta");
+        prefixStems.put("META-INF/spring/", "spring");
+        prefixStems.put("export/folderA/", "folderA");
+        Map<String, String> suffixStems = new HashMap<>();
+        suffixStems.put(".xml", "xml");
+        suffixStems.put("/application.xml", "application");
+        suffixStems.put(".properties", "properties");
+
+        ResourceStemMatcher<String> matcher = ResourceStemMatcher.build(prefixStems, suffixStems);
+        assertFalse(matcher.isEmpty());
+        assertEquals("meta", matcher.match("META-INF/MANIFEST.MF"));
+        // prefix stem is preferred over suffix stem, the longest one wins
+        assertEquals("spring", matcher.match("META-INF/spring/beans.xml"));
+        assertEquals("meta", matcher.match("META-INF/spring"));
+        assertEquals("folderA", matcher.match("export/folderA/test1.xml"));
+        assertEquals("xml", matcher.match("export/folderB/test1.xml"));
+        assertEquals("application", matcher.match("conf/application.xml"));
+        assertEquals("xml", matcher.match("application.xml"));
+        assertEquals("properties", matcher.match("a.properties"));
+        assertNull(matcher.match("export/folderB/test1.json"));
+        assertNull(matcher.match("META-INF"));
+        assertNull(matcher.match(""));
+    }
+
+    @Test
+    public void testEmptyStem() {
+        Map<String, String> prefixStems = new HashMap<>();
+        prefixStems.put("", "all");
+        ResourceStemMatcher<String> matcher = ResourceStemMatcher.build(prefixStems, null);
+        assertEquals("all", matcher.match(""));
+        assertEquals("all", matcher.match("any"));
+    }
+
+    @Test
+    public void testEmpty() {
+        ResourceStemMatcher<Boolean> matcher = ResourceStemMatcher.of(null, Arrays.asList());
+        assertTrue(matcher.isEmpty());
+        assertFalse(matcher.matches("META-INF/MANIFEST.MF"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testManyStems() {
+        Map<String, Integer> prefixStems = new HashMap<>();
+        Map<String, Integer> suffixStems = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            prefixStems.put("synthetic/p" + i + "/", i);
+            suffixStems.put(".p" + i + ".xml", i);
+        }
+        ResourceStemMatcher<Integer> matcher = ResourceStemMatcher.build(prefixStems, suffixStems);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), matcher.match("synthetic/p" + i + "/a.xml"));
+            assertEquals(Integer.valueOf(i), matcher.match("conf/a.p" + i + ".xml"));
+        }
+        assertNull(matcher.match("synthetic/p1000/a.json"));
+        assertNull(matcher.match("synthetic/p1"));
+    }
+
+    @Test
+    public void testImportResourceStems() {
+        PluginModel plugin = new PluginModel().setImportResources("META-INF/*,*.xml,a.json");
+        assertTrue(plugin.getImportResourceStemMatcher().matches("META-INF/a.json"));
+        assertTrue(plugin.getImportResourceStemMatcher().matches("conf/a.xml"));
+        // exactly imported resources are not stems
+        assertFalse(plugin.getImportResourceStemMatcher().matches("a.json"));
+
+        plugin.setImportResources("*.json");
+        assertTrue(plugin.getImportResourceStemMatcher().matches("a.json"));
+    }
+}
@@ -20,8 +20,10 @@ import com.alipay.sofa.ark.common.log.ArkLogger;
 import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.common.util.AssertUtils;
 import com.alipay.sofa.ark.common.util.BizIdentityUtils;
+import com.alipay.sofa.ark.common.util.DownloadUtils;
 import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.common.util.StringUtils;
+import com.alipay.sofa.ark.exception.ArkRuntimeException;
 import com.alipay.sofa.ark.spi.constant.Constants;
 import com.alipay.sofa.ark.spi.event.biz.AfterBizSwitchEvent;
 import com.alipay.sofa.ark.spi.event.biz.BeforeBizSwitchEvent;
@@ -30,6 +32,7 @@ import com.alipay.sofa.ark.spi.replay.Replay;
 import com.alipay.sofa.ark.spi.replay.ReplayContext;
 import com.alipay.sofa.ark.spi.service.biz.BizFactoryService;
 import com.alipay.sofa.ark.spi.service.biz.BizManagerService;
+import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
 import com.alipay.sofa.ark.spi.service.event.EventAdminService;
 import com.alipay.sofa.ark.spi.service.injection.InjectionService;
 import com.alipay.sofa.ark.spi.service.plugin.PluginFactoryService;
@@ -57,6 +60,7 @@ public class ArkClient {
     private static BizFactoryService    bizFactoryService;
     private static PluginManagerService pluginManagerService;
     private static PluginFactoryService pluginFactoryService;
+    private static ClassLoaderService   classLoaderService;
     private static Biz                  masterBiz;
     private static InjectionService     injectionService;
     private static String[]             arguments;
@@ -127,6 +131,14 @@ public class ArkClient {
         ArkClient.pluginFactoryService = pluginFactoryService;
     }
 
+    public static ClassLoaderService getClassLoaderService() {
+        return classLoaderService;
+    }
+
+    public static void setClassLoaderService(ClassLoaderService classLoaderService) {
+        ArkClient.classLoaderService = classLoaderService;
+    }
+
     public static Biz getMasterBiz() {
         return masterBiz;
     }
@@ -368,6 +380,20 @@ public class ArkClient {
         return response;
     }
 
+    private static long getBizSize(BizOperation bizOperation) {
+        String bizSize = bizOperation.getParameters().get(Constants.CONFIG_BIZ_SIZE);
+        if (StringUtils.isEmpty(bizSize)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(bizSize.trim());
+        } catch (NumberFormatException e) {
+            throw new ArkRuntimeException(String.format("Invalid %s '%s' of biz %s:%s",
+                Constants.CONFIG_BIZ_SIZE, bizSize, bizOperation.getBizName(),
+                bizOperation.getBizVersion()), e);
+        }
+    }
+
     public static ClientResponse installOperation(BizOperation bizOperation) throws Throwable {
         return doInstallOperation(bizOperation, arguments, envs);
     }
@@ -392,10 +418,9 @@ public class ArkClient {
             URL url = new URL(bizOperation.getParameters().get(Constants.CONFIG_BIZ_URL));
             bizFile = ArkClient.createBizSaveFile(bizOperation.getBizName(),
                 bizOperation.getBizVersion());
-
-            try (InputStream inputStream = url.openStream()) {
-                FileUtils.copyInputStreamToFile(inputStream, bizFile);
-            }
+            DownloadUtils.download(url, bizFile,
+                bizOperation.getParameters().get(Constants.CONFIG_BIZ_DIGEST),
+                getBizSize(bizOperation));
         }
 
         // prepare extension urls if necessary
@@ -496,6 +521,10 @@ public class ArkClient {
         Plugin plugin = pluginFactoryService.createPlugin(localFile, pluginConfig);
         // register
         pluginManagerService.registerPlugin(plugin);
+        // refresh export index so that the new plugin's exports are visible
+        if (classLoaderService != null) {
+            classLoaderService.prepareExportClassAndResourceCache();
+        }
         // start
         try {
             plugin.start();
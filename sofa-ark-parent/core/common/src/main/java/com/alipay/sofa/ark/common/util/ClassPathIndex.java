@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Index of the directories held by each jar of an ark biz or ark plugin archive. It is written
+ * into the archive at build time, so that the runtime classloader knows which jar owns a
+ * package without opening every jar on the classpath.
+ *
+ * <p>Jars are identified by their entry name in the archive, the archive itself is named
+ * {@link #ROOT}. Each jar also records the CRC-32 of its manifest, which is checked against the
+ * jar actually opened at runtime to detect a stale index.</p>
+ *
+ * <p>Binary layout, all numbers big-endian:</p>
+ * <pre>
+ * int   magic, short version
+ * short jar count, then for each jar: UTF name, long manifest digest
+ * int   directory count, then for each directory: UTF name, short owner count, short owner...
+ * </pre>
+ *
+ * @since 2.3.3
+ */
+public final class ClassPathIndex {
+
+    public static final int          MAGIC              = 0x41524b49;
+
+    public static final int          VERSION            = 1;
+
+    /**
+     * name of the archive itself
+     */
+    public static final String       ROOT               = "";
+
+    /**
+     * manifest digest of jars without manifest
+     */
+    public static final long         NO_MANIFEST        = -1L;
+
+    public static final String       MANIFEST_NAME      = "META-INF/MANIFEST.MF";
+
+    private static final String      VERSIONS_DIRECTORY = "META-INF/versions/";
+
+    private static final int         MAX_JAR_COUNT      = 0xFFFF;
+
+    private final String[]           jarNames;
+
+    private final long[]             manifestDigests;
+
+    private final Map<String, int[]> directories;
+
+    private ClassPathIndex(String[] jarNames, long[] manifestDigests, Map<String, int[]> directories) {
+        this.jarNames = jarNames;
+        this.manifestDigests = manifestDigests;
+        this.directories = directories;
+    }
+
+    /**
+     * Read index written by {@link #write(OutputStream)}
+     *
+     * @param inputStream index stream, not closed by this method
+     * @return index
+     * @throws IOException if the stream is not a supported index
+     */
+    public static ClassPathIndex read(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a classpath index");
+        }
+        int version = input.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported classpath index version: " + version);
+        }
+        int jarCount = input.readUnsignedShort();
+        String[] jarNames = new String[jarCount];
+        long[] manifestDigests = new long[jarCount];
+        for (int i = 0; i < jarCount; i++) {
+            jarNames[i] = input.readUTF();
+            manifestDigests[i] = input.readLong();
+        }
+        int directoryCount = input.readInt();
+        Map<String, int[]> directories = new HashMap<>((int) (directoryCount / 0.75f) + 1);
+        for (int i = 0; i < directoryCount; i++) {
+            String directory = input.readUTF();
+            int[] owners = new int[input.readUnsignedShort()];
+            for (int j = 0; j < owners.length; j++) {
+                owners[j] = input.readUnsignedShort();
+                if (owners[j] >= jarCount) {
+                    throw new IOException("Corrupted classpath index, unknown jar: " + owners[j]);
+                }
+            }
+            directories.put(directory, owners);
+        }
+        return new ClassPathIndex(jarNames, manifestDigests, directories);
+    }
+
+    /**
+     * Write index in binary layout
+     *
+     * @param outputStream destination, not closed by this method
+     * @throws IOException if failed to write
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeShort(jarNames.length);
+        for (int i = 0; i < jarNames.length; i++) {
+            output.writeUTF(jarNames[i]);
+            output.writeLong(manifestDigests[i]);
+        }
+        output.writeInt(directories.size());
+        for (Map.Entry<String, int[]> entry : directories.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeShort(entry.getValue().length);
+            for (int owner : entry.getValue()) {
+                output.writeShort(owner);
+            }
+        }
+        output.flush();
+    }
+
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public int getJarCount() {
+        return jarNames.length;
+    }
+
+    public String getJarName(int jar) {
+        return jarNames[jar];
+    }
+
+    /**
+     * @param jar jar ordinal
+     * @return CRC-32 of the jar manifest, {@link #NO_MANIFEST} if the jar has no manifest
+     */
+    public long getManifestDigest(int jar) {
+        return manifestDigests[jar];
+    }
+
+    /**
+     * Find ordinal of jar
+     *
+     * @param jarName entry name of the jar in archive, {@link #ROOT} for archive itself
+     * @return jar ordinal, or -1 if the jar is not indexed
+     */
+    public int indexOf(String jarName) {
+        for (int i = 0; i < jarNames.length; i++) {
+            if (jarNames[i].equals(jarName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find jars holding files directly in the directory
+     *
+     * @param directory directory name separated by '/', without trailing '/', empty for root
+     * @return ordinals of the jars in ascending order, null if no jar holds the directory. The
+     *         returned array is shared and must not be modified
+     */
+    public int[] getOwners(String directory) {
+        return directories.get(directory);
+    }
+
+    public int getDirectoryCount() {
+        return directories.size();
+    }
+
+    /**
+     * Get directory of an entry
+     *
+     * @param entryName entry name, e.g. 'com/alipay/A.class'
+     * @return directory name without trailing '/', e.g. 'com/alipay', empty for root entries
+     */
+    public static String getDirectory(String entryName) {
+        int index = entryName.lastIndexOf('/');
+        return index < 0 ? ROOT : entryName.substring(0, index);
+    }
+
+    /**
+     * Builder of {@link ClassPathIndex}
+     */
+    public static class Builder {
+
+        private final List<String>        jarNames        = new ArrayList<>();
+
+        private final List<Long>          manifestDigests = new ArrayList<>();
+
+        /**
+         * sorted, so that the same content always produces the same index
+         */
+        private final Map<String, BitSet> directories     = new TreeMap<>();
+
+        /**
+         * Add a jar whose entries are added later by {@link #addEntry(int, String)}
+         *
+         * @param jarName entry name of the jar in archive, {@link #ROOT} for archive itself
+         * @return jar ordinal
+         */
+        public int addJar(String jarName) {
+            AssertUtils.isTrue(!jarNames.contains(jarName),
+                "Duplicated jar in classpath index: %s", jarName);
+            AssertUtils.isTrue(jarNames.size() < MAX_JAR_COUNT, "Too many jars in classpath index");
+            jarNames.add(jarName);
+            manifestDigests.add(NO_MANIFEST);
+            return jarNames.size() - 1;
+        }
+
+        /**
+         * Add a nested jar and all of its entries
+         *
+         * @param jarName entry name of the jar in archive
+         * @param jarStream content of the jar, not closed by this method
+         * @return jar ordinal
+         * @throws IOException if failed to read the jar
+         */
+        public int addJar(String jarName, InputStream jarStream) throws IOException {
+            int jar = addJar(jarName);
+            ZipInputStream zipInputStream = new ZipInputStream(jarStream);
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                addEntry(jar, entry.getName());
+                if (MANIFEST_NAME.equals(entry.getName())) {
+                    setManifestDigest(jar, digest(zipInputStream));
+                }
+            }
+            return jar;
+        }
+
+        /**
+         * Record an entry of the jar, directory entries are ignored
+         *
+         * @param jar jar ordinal
+         * @param entryName entry name
+         */
+        public void addEntry(int jar, String entryName) {
+            if (entryName.endsWith("/")) {
+                return;
+            }
+            addDirectory(jar, getDirectory(entryName));
+            // classes of multi-release jars are visible in their versionless directory
+            if (entryName.startsWith(VERSIONS_DIRECTORY)) {
+                int index = entryName.indexOf('/', VERSIONS_DIRECTORY.length());
+                if (index > 0) {
+                    addDirectory(jar, getDirectory(entryName.substring(index + 1)));
+                }
+            }
+        }
+
+        public void setManifestDigest(int jar, long manifestDigest) {
+            manifestDigests.set(jar, manifestDigest);
+        }
+
+        private void addDirectory(int jar, String directory) {
+            BitSet owners = directories.get(directory);
+            if (owners == null) {
+                owners = new BitSet();
+                directories.put(directory, owners);
+            }
+            owners.set(jar);
+        }
+
+        public ClassPathIndex build() {
+            long[] digests = new long[manifestDigests.size()];
+            for (int i = 0; i < digests.length; i++) {
+                digests[i] = manifestDigests.get(i);
+            }
+            Map<String, int[]> directoryOwners = new TreeMap<>();
+            for (Map.Entry<String, BitSet> entry : directories.entrySet()) {
+                directoryOwners.put(entry.getKey(), entry.getValue().stream().toArray());
+            }
+            return new ClassPathIndex(jarNames.toArray(new String[0]), digests, directoryOwners);
+        }
+    }
+
+    /**
+     * Compute manifest digest
+     *
+     * @param inputStream manifest content, not closed by this method
+     * @return CRC-32 of the content
+     * @throws IOException if failed to read
+     */
+    public static long digest(InputStream inputStream) throws IOException {
+        CRC32 crc32 = new CRC32();
+        byte[] buffer = new byte[4096];
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+            crc32.update(buffer, 0, bytesRead);
+        }
+        return crc32.getValue();
+    }
+}
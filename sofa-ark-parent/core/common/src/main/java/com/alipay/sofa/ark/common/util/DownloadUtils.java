@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Download of biz archives from a URL into a local file, computing the digest while
+ * writing, so that an expected digest and size can be verified without reading the file
+ * again.
+ * <p>
+ * Content is written to a partial file beside the target file, which is renamed to the
+ * target once verified. When an expected digest is given, the partial file is keyed by the
+ * URL and guarded by a lock file, so that a partial file left by an interrupted download is
+ * resumed by the next download of the URL: with a {@code Range} request for http URLs, sent
+ * with an {@code If-Range} validator recorded in the lock file, or by skipping the downloaded
+ * bytes otherwise. A resumed download failing verification is restarted once from scratch.
+ * The lock file is deleted once no partial file is left to resume.
+ * Without an expected digest, or while another download of the URL holds the lock, content
+ * is written to a partial file of its own and is not resumed.
+ *
+ * @since 2.3.3
+ */
+public class DownloadUtils {
+
+    public static final String  DEFAULT_DIGEST_ALGORITHM   = "SHA-256";
+
+    private static final int    BUFFER_SIZE                = 64 * 1024;
+
+    private static final int    HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private static final String PART_SUFFIX                = ".part";
+
+    private static final String LOCK_SUFFIX                = ".lock";
+
+    private static final char[] HEX_DIGITS                 = "0123456789abcdef".toCharArray();
+
+    /**
+     * Download the content of the URL into the target file.
+     *
+     * @param url the source url
+     * @param target the target file
+     * @param expectedDigest expected hex digest, optionally prefixed by the algorithm such as
+     *                       {@code SHA-1:}, {@link #DEFAULT_DIGEST_ALGORITHM} otherwise; null
+     *                       or empty to skip the check, in which case no partial file is resumed
+     * @param expectedSize expected size in bytes, negative to skip the check
+     * @return the hex digest of the downloaded content
+     * @throws IOException if the content cannot be downloaded or does not match
+     */
+    public static String download(URL url, File target, String expectedDigest, long expectedSize)
+                                                                                                 throws IOException {
+        String algorithm = DEFAULT_DIGEST_ALGORITHM;
+        String expectedHex = null;
+        if (!StringUtils.isEmpty(expectedDigest)) {
+            int separator = expectedDigest.indexOf(':');
+            if (separator > 0) {
+                algorithm = expectedDigest.substring(0, separator);
+            }
+            expectedHex = expectedDigest.substring(separator + 1).trim().toLowerCase();
+        }
+        File directory = target.getAbsoluteFile().getParentFile();
+        String key = getKey(url);
+        if (expectedHex != null) {
+            File lockFile = new File(directory, key + LOCK_SUFFIX);
+            try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // the lock file is deleted by its last holder, a lock on it is void then
+                if (tryLock(lockChannel) && lockFile.exists()) {
+                    File partFile = new File(directory, key + PART_SUFFIX);
+                    try {
+                        return download(url, target, partFile, lockChannel, algorithm, expectedHex,
+                            expectedSize);
+                    } finally {
+                        // nothing left to resume, delete the lock file while still holding it
+                        if (!partFile.exists()) {
+                            lockFile.delete();
+                        }
+                    }
+                }
+            }
+        }
+        // content cannot be verified before resuming, or another download of the url is running
+        File partFile = Files.createTempFile(directory.toPath(), key, PART_SUFFIX).toFile();
+        try {
+            return download(url, target, partFile, null, algorithm, expectedHex, expectedSize);
+        } finally {
+            deletePart(partFile);
+        }
+    }
+
+    private static String download(URL url, File target, File partFile, FileChannel lockChannel,
+                                   String algorithm, String expectedHex, long expectedSize)
+                                                                                           throws IOException {
+        boolean resumed = partFile.length() > 0;
+        String digest = downloadPart(url, partFile, lockChannel, algorithm, expectedSize);
+        if (!matches(partFile, digest, expectedHex, expectedSize) && resumed) {
+            // the partial file may belong to older content of the url
+            deletePart(partFile);
+            digest = downloadPart(url, partFile, lockChannel, algorithm, expectedSize);
+        }
+        if (!matches(partFile, digest, expectedHex, expectedSize)) {
+            long size = partFile.length();
+            deletePart(partFile);
+            throw new IOException(String.format(
+                "Content of %s does not match, expected %s digest %s and size %d, got %s and %d",
+                url, algorithm, expectedHex, expectedSize, digest, size));
+        }
+        Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return digest;
+    }
+
+    private static String getKey(URL url) throws IOException {
+        MessageDigest messageDigest = getMessageDigest("SHA-1");
+        return toHex(messageDigest.digest(url.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static boolean tryLock(FileChannel lockChannel) throws IOException {
+        try {
+            return lockChannel.tryLock() != null;
+        } catch (OverlappingFileLockException ex) {
+            // held by another download in this jvm
+            return false;
+        }
+    }
+
+    private static boolean matches(File partFile, String digest, String expectedHex,
+                                   long expectedSize) {
+        return (expectedSize < 0 || partFile.length() == expectedSize)
+               && (expectedHex == null || expectedHex.equals(digest));
+    }
+
+    /**
+     * Download into the partial file, resuming after its current length, and return the
+     * digest of the whole partial file. The lock channel records the validator of the http
+     * content being downloaded, null if the partial file is not resumable.
+     */
+    private static String downloadPart(URL url, File partFile, FileChannel lockChannel,
+                                       String algorithm, long expectedSize) throws IOException {
+        MessageDigest messageDigest = getMessageDigest(algorithm);
+        long offset = partFile.length();
+        if (expectedSize >= 0 && offset > expectedSize) {
+            deletePart(partFile);
+            offset = 0;
+        }
+        URLConnection connection = url.openConnection();
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            String validator = offset > 0 ? readValidator(lockChannel) : null;
+            if (validator == null) {
+                // the partial file cannot be checked against the current content
+                offset = 0;
+            } else {
+                httpConnection.setRequestProperty("Range", "bytes=" + offset + "-");
+                httpConnection.setRequestProperty("If-Range", validator);
+            }
+            int code = httpConnection.getResponseCode();
+            if (offset > 0 && code == HTTP_RANGE_NOT_SATISFIABLE) {
+                httpConnection.disconnect();
+                return restartPart(url, partFile, lockChannel, algorithm, expectedSize);
+            }
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                // range is not supported or the content changed, download from the start
+                offset = 0;
+            }
+            if (offset == 0) {
+                writeValidator(lockChannel, getValidator(httpConnection));
+            }
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            long contentLength = connection.getContentLengthLong();
+            if (offset > 0
+                && !(connection instanceof HttpURLConnection)
+                && (offset > contentLength && contentLength >= 0 || !skipFully(inputStream, offset))) {
+                inputStream.close();
+                return restartPart(url, partFile, lockChannel, algorithm, expectedSize);
+            }
+            if (offset > 0) {
+                digestFile(partFile, messageDigest);
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            try (OutputStream outputStream = new FileOutputStream(partFile, offset > 0)) {
+                int count;
+                while ((count = inputStream.read(buffer)) != -1) {
+                    messageDigest.update(buffer, 0, count);
+                    outputStream.write(buffer, 0, count);
+                    written += count;
+                }
+            }
+            // a dropped connection may end the stream early without an error, keep the
+            // partial file to resume then
+            long remaining = connection instanceof HttpURLConnection ? contentLength
+                : contentLength - offset;
+            if (contentLength >= 0 && written < remaining) {
+                throw new IOException(String.format("Download of %s ended after %d of %d bytes",
+                    url, offset + written, offset + remaining));
+            }
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    /**
+     * The partial file is longer than the content of the url, download it again.
+     */
+    private static String restartPart(URL url, File partFile, FileChannel lockChannel,
+                                      String algorithm, long expectedSize) throws IOException {
+        deletePart(partFile);
+        return downloadPart(url, partFile, lockChannel, algorithm, expectedSize);
+    }
+
+    /**
+     * Strong entity tag, or last modified date otherwise, usable in an {@code If-Range} header.
+     */
+    private static String getValidator(HttpURLConnection connection) {
+        String eTag = connection.getHeaderField("ETag");
+        if (!StringUtils.isEmpty(eTag) && !eTag.startsWith("W/")) {
+            return eTag;
+        }
+        String lastModified = connection.getHeaderField("Last-Modified");
+        return StringUtils.isEmpty(lastModified) ? null : lastModified;
+    }
+
+    private static String readValidator(FileChannel lockChannel) throws IOException {
+        if (lockChannel == null || lockChannel.size() == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) lockChannel.size());
+        while (buffer.hasRemaining() && lockChannel.read(buffer, buffer.position()) != -1) {
+            // read the whole validator
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private static void writeValidator(FileChannel lockChannel, String validator)
+                                                                                 throws IOException {
+        if (lockChannel == null) {
+            return;
+        }
+        lockChannel.truncate(0);
+        if (validator != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(validator.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                lockChannel.write(buffer, buffer.position());
+            }
+        }
+        lockChannel.force(false);
+    }
+
+    private static boolean skipFully(InputStream inputStream, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    return false;
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        return true;
+    }
+
+    private static void digestFile(File file, MessageDigest messageDigest) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, count);
+            }
+        }
+    }
+
+    private static void deletePart(File partFile) throws IOException {
+        Files.deleteIfExists(partFile.toPath());
+    }
+
+    private static MessageDigest getMessageDigest(String algorithm) throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("Unsupported digest algorithm " + algorithm, ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.common.util;
 
+import com.alipay.sofa.ark.common.thread.NamedThreadFactory;
 import com.alipay.sofa.ark.exception.ArkRuntimeException;
 
 import java.io.*;
@@ -23,8 +24,20 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -38,6 +51,13 @@ import java.util.zip.ZipFile;
  */
 public class FileUtils {
 
+    private static final int UNZIP_BUFFER_SIZE            = 64 * 1024;
+
+    /**
+     * a thread is not worth starting for fewer entries
+     */
+    private static final int UNZIP_MIN_ENTRIES_PER_THREAD = 16;
+
     /**
      * Generate a SHA.1 Hash for a given file.
      * @param file the file to hash
@@ -109,52 +129,127 @@ public class FileUtils {
     }
 
     public static File unzip(File root, String targetPath) throws IOException {
-        ZipFile zipFile = null;
-        try {
-            zipFile = new ZipFile(root);
+        return unzip(root, targetPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Extract a zip file into the target directory. The directory tree is created first,
+     * then file entries are extracted by up to {@code parallelism} threads, each taking the
+     * next entry, largest first, so that a few large jars do not end last on one thread.
+     *
+     * @param root the zip file
+     * @param targetPath the target directory
+     * @param parallelism max number of extracting threads
+     * @return the target directory
+     * @throws IOException if the zip file cannot be read, an entry is outside the target
+     *                     directory, or a file cannot be written
+     */
+    public static File unzip(File root, String targetPath, int parallelism) throws IOException {
+        File target = FileUtils.file(targetPath);
+        Path targetDir = target.toPath().toAbsolutePath().normalize();
+        try (ZipFile zipFile = new ZipFile(root)) {
+            List<ZipEntry> fileEntries = new ArrayList<>();
+            Set<Path> dirs = new LinkedHashSet<>();
+            dirs.add(targetDir);
             Enumeration<? extends ZipEntry> entries = zipFile.entries();
             while (entries.hasMoreElements()) {
                 ZipEntry entry = entries.nextElement();
+                Path path = resolveZipEntry(targetDir, entry);
                 if (entry.isDirectory()) {
-                    String dirPath = targetPath + File.separator + entry.getName();
-                    File dir = FileUtils.file(dirPath);
-                    dir.mkdirs();
+                    dirs.add(path);
                 } else {
-                    InputStream inputStream = null;
-                    FileOutputStream fileOutputStream = null;
-                    try {
-                        inputStream = zipFile.getInputStream(entry);
-                        File file = FileUtils.file(targetPath + File.separator + entry.getName());
-                        if (!file.exists()) {
-                            File fileParent = file.getParentFile();
-                            if (!fileParent.exists()) {
-                                fileParent.mkdirs();
-                            }
-                        }
-                        file.createNewFile();
-                        fileOutputStream = new FileOutputStream(file);
-                        int count;
-                        byte[] buf = new byte[8192];
-                        while ((count = inputStream.read(buf)) != -1) {
-                            fileOutputStream.write(buf, 0, count);
-                        }
+                    fileEntries.add(entry);
+                    dirs.add(path.getParent());
+                }
+            }
+            for (Path dir : dirs) {
+                Files.createDirectories(dir);
+            }
+            fileEntries.sort((e1, e2) -> Long.compare(e2.getSize(), e1.getSize()));
 
-                    } finally {
-                        if (fileOutputStream != null) {
-                            fileOutputStream.flush();
-                            fileOutputStream.close();
-                        }
-                        if (inputStream != null) {
-                            inputStream.close();
+            int threads = Math.max(1, Math.min(parallelism, fileEntries.size()
+                                                            / UNZIP_MIN_ENTRIES_PER_THREAD));
+            if (threads == 1) {
+                new UnzipWorker(zipFile, targetDir, fileEntries, new AtomicInteger()).call();
+                return target;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new NamedThreadFactory("unzip", true));
+            try {
+                AtomicInteger next = new AtomicInteger();
+                List<Future<Void>> futures = new ArrayList<>(threads);
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(new UnzipWorker(zipFile, targetDir, fileEntries,
+                        next)));
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException ex) {
+                        // stop other workers taking entries
+                        next.set(fileEntries.size());
+                        Throwable cause = ex.getCause();
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
                         }
+                        throw new IOException("Failed to unzip " + root, cause);
                     }
                 }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted unzipping " + root);
+            } finally {
+                executor.shutdownNow();
             }
-            return FileUtils.file(targetPath);
-        } finally {
-            if (zipFile != null) {
-                zipFile.close();
+            return target;
+        }
+    }
+
+    private static Path resolveZipEntry(Path targetDir, ZipEntry entry) throws IOException {
+        Path path = targetDir.resolve(entry.getName()).normalize();
+        if (!path.startsWith(targetDir)) {
+            throw new IOException("Entry is outside of the target dir: " + entry.getName());
+        }
+        return path;
+    }
+
+    /**
+     * Extract file entries, taking the next one until all are taken. Parent directories are
+     * expected to exist.
+     */
+    private static class UnzipWorker implements Callable<Void> {
+
+        private final ZipFile        zipFile;
+
+        private final Path           targetDir;
+
+        private final List<ZipEntry> entries;
+
+        private final AtomicInteger  next;
+
+        UnzipWorker(ZipFile zipFile, Path targetDir, List<ZipEntry> entries, AtomicInteger next) {
+            this.zipFile = zipFile;
+            this.targetDir = targetDir;
+            this.entries = entries;
+            this.next = next;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            byte[] buffer = new byte[UNZIP_BUFFER_SIZE];
+            int index;
+            while ((index = this.next.getAndIncrement()) < this.entries.size()) {
+                ZipEntry entry = this.entries.get(index);
+                Path path = resolveZipEntry(this.targetDir, entry);
+                try (InputStream inputStream = this.zipFile.getInputStream(entry);
+                        OutputStream outputStream = Files.newOutputStream(path)) {
+                    int count;
+                    while ((count = inputStream.read(buffer)) != -1) {
+                        outputStream.write(buffer, 0, count);
+                    }
+                }
             }
+            return null;
         }
     }
 
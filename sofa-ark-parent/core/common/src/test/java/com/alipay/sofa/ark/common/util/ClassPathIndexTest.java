@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @since 2.3.3
+ */
+public class ClassPathIndexTest {
+
+    @Test
+    public void testBuildAndRead() throws IOException {
+        byte[] manifest = "Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+        ClassPathIndex.Builder builder = new ClassPathIndex.Builder();
+        int root = builder.addJar(ClassPathIndex.ROOT);
+        builder.addEntry(root, "com/alipay/sofa/ark/biz/mark");
+        builder.addEntry(root, "com/alipay/sofa/ark/biz/");
+        builder.addEntry(root, "lib/a.jar");
+        builder.addEntry(root, "application.properties");
+        int nested = builder.addJar(
+            "lib/a.jar",
+            new ByteArrayInputStream(jar(manifest, "com/alipay/sofa/ark/biz/A.class",
+                "META-INF/versions/9/com/a/B.class")));
+
+        ClassPathIndex index = ClassPathIndex.read(new ByteArrayInputStream(builder.build()
+            .toByteArray()));
+        assertEquals(2, index.getJarCount());
+        assertEquals(root, index.indexOf(ClassPathIndex.ROOT));
+        assertEquals(nested, index.indexOf("lib/a.jar"));
+        assertEquals(-1, index.indexOf("lib/b.jar"));
+        assertEquals(ClassPathIndex.NO_MANIFEST, index.getManifestDigest(root));
+        CRC32 crc32 = new CRC32();
+        crc32.update(manifest);
+        assertEquals(crc32.getValue(), index.getManifestDigest(nested));
+
+        assertArrayEquals(new int[] { root, nested }, index.getOwners("com/alipay/sofa/ark/biz"));
+        assertArrayEquals(new int[] { root }, index.getOwners(""));
+        assertArrayEquals(new int[] { root }, index.getOwners("lib"));
+        assertArrayEquals(new int[] { nested }, index.getOwners("META-INF"));
+        // classes of multi-release jar are indexed in versionless directory too
+        assertArrayEquals(new int[] { nested }, index.getOwners("com/a"));
+        assertArrayEquals(new int[] { nested }, index.getOwners("META-INF/versions/9/com/a"));
+        assertNull(index.getOwners("com/alipay"));
+        assertEquals(6, index.getDirectoryCount());
+    }
+
+    @Test
+    public void testSameContentSameIndex() throws IOException {
+        ClassPathIndex.Builder builder1 = new ClassPathIndex.Builder();
+        ClassPathIndex.Builder builder2 = new ClassPathIndex.Builder();
+        builder1.addJar(ClassPathIndex.ROOT);
+        builder2.addJar(ClassPathIndex.ROOT);
+        for (int i = 0; i < 100; i++) {
+            builder1.addEntry(0, "p" + i + "/A.class");
+            builder2.addEntry(0, "p" + (99 - i) + "/A.class");
+        }
+        assertArrayEquals(builder1.build().toByteArray(), builder2.build().toByteArray());
+    }
+
+    @Test
+    public void testGetDirectory() {
+        assertEquals("com/alipay", ClassPathIndex.getDirectory("com/alipay/A.class"));
+        assertEquals("", ClassPathIndex.getDirectory("A.class"));
+        assertEquals("com/alipay", ClassPathIndex.getDirectory("com/alipay/"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicatedJar() {
+        ClassPathIndex.Builder builder = new ClassPathIndex.Builder();
+        builder.addJar("lib/a.jar");
+        builder.addJar("lib/a.jar");
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalidIndex() throws IOException {
+        ClassPathIndex.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }));
+    }
+
+    private byte[] jar(byte[] manifest, String... entryNames) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            jarOutputStream.putNextEntry(new ZipEntry(ClassPathIndex.MANIFEST_NAME));
+            jarOutputStream.write(manifest);
+            for (String entryName : entryNames) {
+                jarOutputStream.putNextEntry(new ZipEntry(entryName));
+                jarOutputStream.write(1);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.common.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DownloadUtilsTest {
+
+    private File         workDir;
+
+    private byte[]       content;
+
+    private File         source;
+
+    private HttpServer   server;
+
+    private boolean      rangeSupported;
+
+    private List<String> ranges;
+
+    private List<String> ifRanges;
+
+    private String       eTag;
+
+    private boolean      truncated;
+
+    @Before
+    public void before() throws IOException {
+        workDir = Files.createTempDirectory("download").toFile();
+        content = new byte[300 * 1024];
+        new Random(7).nextBytes(content);
+        source = new File(workDir, "source.jar");
+        Files.write(source.toPath(), content);
+
+        rangeSupported = true;
+        ranges = new ArrayList<>();
+        ifRanges = new ArrayList<>();
+        eTag = "\"v1\"";
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/biz.jar", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            ranges.add(range);
+            ifRanges.add(ifRange);
+            exchange.getResponseHeaders().set("ETag", eTag);
+            int offset = 0;
+            if (range != null && rangeSupported && (ifRange == null || ifRange.equals(eTag))) {
+                offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            }
+            if (offset >= content.length) {
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(offset > 0 ? 206 : 200, content.length - offset);
+            if (truncated) {
+                // send half of the content and drop the connection
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(content, offset, (content.length - offset) / 2);
+                outputStream.flush();
+                exchange.close();
+                return;
+            }
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(content, offset, content.length - offset);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void after() {
+        server.stop(0);
+        deleteQuietly(workDir);
+    }
+
+    @Test
+    public void testDownloadFileUrl() throws Exception {
+        File target = new File(workDir, "target.jar");
+        String digest = DownloadUtils.download(source.toURI().toURL(), target, "SHA-256:"
+                                                                               + sha256(content),
+            content.length);
+        assertEquals(sha256(content), digest);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(2, workDir.list().length);
+    }
+
+    @Test
+    public void testDownloadMismatch() throws Exception {
+        File target = new File(workDir, "target.jar");
+        try {
+            DownloadUtils.download(source.toURI().toURL(), target, sha256(new byte[1]), -1);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("does not match"));
+        }
+        try {
+            DownloadUtils.download(httpUrl(), target, null, content.length + 1);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("does not match"));
+        }
+        assertFalse(target.exists());
+        assertEquals(1, workDir.list().length);
+    }
+
+    @Test
+    public void testResumeHttp() throws Exception {
+        File target = new File(workDir, "target.jar");
+        writePart(httpUrl(), target, Arrays.copyOf(content, 100 * 1024), eTag);
+        String digest = DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+        assertEquals(sha256(content), digest);
+        assertEquals("bytes=102400-", ranges.get(0));
+        assertEquals(eTag, ifRanges.get(0));
+        assertEquals(1, ranges.size());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // nothing left to resume
+        assertFalse(getPartFile(httpUrl(), target, ".part").exists());
+        assertFalse(getPartFile(httpUrl(), target, ".lock").exists());
+    }
+
+    @Test
+    public void testResumeInterruptedDownload() throws Exception {
+        File target = new File(workDir, "target.jar");
+        truncated = true;
+        try {
+            DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("ended after 153600 of 307200 bytes"));
+        }
+        assertEquals(content.length / 2, getPartFile(httpUrl(), target, ".part").length());
+        assertArrayEquals(eTag.getBytes("UTF-8"),
+            Files.readAllBytes(getPartFile(httpUrl(), target, ".lock").toPath()));
+
+        truncated = false;
+        DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+        assertEquals("bytes=153600-", ranges.get(1));
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testResumeContentChanged() throws Exception {
+        File target = new File(workDir, "target.jar");
+        // the content changed since the partial file was downloaded, the server sends all of it
+        writePart(httpUrl(), target, new byte[100 * 1024], "\"v0\"");
+        DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+        assertEquals("\"v0\"", ifRanges.get(0));
+        assertEquals(1, ranges.size());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testResumeWithoutValidator() throws Exception {
+        File target = new File(workDir, "target.jar");
+        writePart(httpUrl(), target, Arrays.copyOf(content, 100 * 1024), null);
+        DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+        assertEquals(null, ranges.get(0));
+        assertEquals(1, ranges.size());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testResumeWithoutDigest() throws Exception {
+        File target = new File(workDir, "target.jar");
+        File partFile = getPartFile(httpUrl(), target, ".part");
+        writePart(httpUrl(), target, Arrays.copyOf(content, 100 * 1024), eTag);
+        DownloadUtils.download(httpUrl(), target, null, content.length);
+        assertEquals(null, ranges.get(0));
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // left for a download able to verify it
+        assertEquals(100 * 1024, partFile.length());
+    }
+
+    @Test
+    public void testDownloadWhileLocked() throws Exception {
+        File target = new File(workDir, "target.jar");
+        File partFile = getPartFile(httpUrl(), target, ".part");
+        writePart(httpUrl(), target, Arrays.copyOf(content, 100 * 1024), eTag);
+        try (FileChannel lockChannel = FileChannel.open(getPartFile(httpUrl(), target, ".lock")
+            .toPath(), StandardOpenOption.WRITE);
+                FileLock ignored = lockChannel.lock()) {
+            DownloadUtils.download(httpUrl(), target, sha256(content), content.length);
+        }
+        assertEquals(null, ranges.get(0));
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(100 * 1024, partFile.length());
+        // source, target, partial and lock file of the url
+        assertEquals(4, workDir.list().length);
+    }
+
+    @Test
+    public void testResumeRangeNotSupported() throws Exception {
+        rangeSupported = false;
+        File target = new File(workDir, "target.jar");
+        writePart(httpUrl(), target, Arrays.copyOf(content, 100 * 1024), eTag);
+        DownloadUtils.download(httpUrl(), target, sha256(content), -1);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testResumeStalePart() throws Exception {
+        File target = new File(workDir, "target.jar");
+        // partial file of other content, detected by digest and downloaded again
+        writePart(httpUrl(), target, new byte[100 * 1024], eTag);
+        DownloadUtils.download(httpUrl(), target, sha256(content), -1);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(2, ranges.size());
+
+        // partial file longer than the content
+        ranges.clear();
+        writePart(httpUrl(), target, new byte[content.length + 1], eTag);
+        DownloadUtils.download(httpUrl(), target, sha256(content), -1);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(2, ranges.size());
+
+        writePart(source.toURI().toURL(), target, new byte[content.length + 1], null);
+        DownloadUtils.download(source.toURI().toURL(), target, sha256(content), -1);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    private URL httpUrl() throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/biz.jar");
+    }
+
+    /**
+     * leave a partial file and its validator as an interrupted download of the url would
+     */
+    private void writePart(URL url, File target, byte[] part, String validator) throws Exception {
+        Files.write(getPartFile(url, target, ".part").toPath(), part);
+        if (validator != null) {
+            Files.write(getPartFile(url, target, ".lock").toPath(), validator.getBytes("UTF-8"));
+        }
+    }
+
+    private File getPartFile(URL url, File target, String suffix) throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        StringBuilder name = new StringBuilder();
+        for (byte b : sha1.digest(url.toString().getBytes("UTF-8"))) {
+            name.append(String.format("%02x", b));
+        }
+        return new File(target.getParentFile(), name + suffix);
+    }
+
+    private String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
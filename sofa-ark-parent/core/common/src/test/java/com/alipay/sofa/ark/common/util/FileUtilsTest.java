@@ -21,8 +21,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.alipay.sofa.ark.common.util.FileUtils.*;
 import static java.lang.System.getProperty;
@@ -70,6 +76,65 @@ public class FileUtilsTest {
         assertNotNull(unzip(file, file.getAbsolutePath() + "-unpack"));
     }
 
+    @Test
+    public void testParallelUnzip() throws IOException {
+        File workDir = Files.createTempDirectory("unzip").toFile();
+        try {
+            File zip = new File(workDir, "test.zip");
+            try (ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zip))) {
+                outputStream.putNextEntry(new ZipEntry("empty/"));
+                for (int i = 0; i < 100; i++) {
+                    ZipEntry entry = new ZipEntry("dir" + (i % 7) + "/sub/file" + i + ".txt");
+                    if (i % 2 == 0) {
+                        entry.setMethod(ZipEntry.STORED);
+                        entry.setSize(contentOf(i).length);
+                        CRC32 crc = new CRC32();
+                        crc.update(contentOf(i));
+                        entry.setCrc(crc.getValue());
+                    }
+                    outputStream.putNextEntry(entry);
+                    outputStream.write(contentOf(i));
+                }
+            }
+
+            File target = unzip(zip, new File(workDir, "unpack").getAbsolutePath(), 4);
+            assertTrue(new File(target, "empty").isDirectory());
+            for (int i = 0; i < 100; i++) {
+                File file = new File(target, "dir" + (i % 7) + "/sub/file" + i + ".txt");
+                assertArrayEquals(contentOf(i), Files.readAllBytes(file.toPath()));
+            }
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    @Test
+    public void testUnzipEntryOutsideTarget() throws IOException {
+        File workDir = Files.createTempDirectory("unzip").toFile();
+        try {
+            File zip = new File(workDir, "test.zip");
+            try (ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zip))) {
+                outputStream.putNextEntry(new ZipEntry("../evil.txt"));
+                outputStream.write(contentOf(0));
+            }
+            try {
+                unzip(zip, new File(workDir, "unpack").getAbsolutePath());
+                fail();
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("../evil.txt"));
+            }
+            assertFalse(new File(workDir, "evil.txt").exists());
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private byte[] contentOf(int i) {
+        byte[] content = new byte[i * 997];
+        Arrays.fill(content, (byte) i);
+        return content;
+    }
+
     @Test
     public void testMkdir() {
         assertNull(mkdir(""));
@@ -62,6 +62,63 @@ public class Constants {
     public final static String       ARK_CLASSLOADER_CACHE_CLASS_SIZE_INITIAL      = "ark.classloader.cache.class.size.initial";
     public final static String       ARK_CLASSLOADER_CACHE_CLASS_SIZE_MAX          = "ark.classloader.cache.class.size.max";
     public final static String       ARK_CLASSLOADER_CACHE_CONCURRENCY_LEVEL       = "ark.classloader.cache.concurrencylevel";
+    public final static String       ARK_CLASSLOADER_CACHE_LOADED_INDEX_ENABLE     = "ark.classloader.cache.loaded.index.enable";
+    public final static String       ARK_CLASSLOADER_CACHE_MISS_MAX_WEIGHT         = "ark.classloader.cache.miss.max.weight";
+    public final static String       ARK_CLASSLOADER_CACHE_RESOURCES_SIZE_MAX      = "ark.classloader.cache.resources.size.max";
+    public final static String       ARK_CLASSLOADER_CACHE_EXPORT_CLASS_BYTES_MAX  = "ark.classloader.cache.export.class.bytes.max";
+
+    /**
+     * biz classloader negative lookup filter conf
+     */
+    public final static String       ARK_CLASSLOADER_NEGATIVE_FILTER_ENABLE        = "ark.classloader.negative.filter.enable";
+    public final static String       ARK_CLASSLOADER_NEGATIVE_FILTER_BITS          = "ark.classloader.negative.filter.bits.per.entry";
+
+    /**
+     * use classpath index built into ark biz and ark plugin archives
+     */
+    public final static String       ARK_CLASSLOADER_CLASSPATH_INDEX_ENABLE        = "ark.classloader.classpath.index.enable";
+
+    /**
+     * class loading stage instrumentation conf
+     */
+    public final static String       ARK_CLASSLOADER_INSTRUMENT_ENABLE             = "ark.classloader.instrument.enable";
+
+    /**
+     * drop class loading locks once released, instead of keeping one per class name looked up
+     */
+    public final static String       ARK_CLASSLOADER_LOCK_WEAK_ENABLE              = "ark.classloader.lock.weak.enable";
+
+    /**
+     * read jar files through memory mapped windows instead of pooled random access files
+     */
+    public final static String       ARK_LOADER_JAR_MAPPED_ENABLE                  = "ark.loader.jar.mapped.enable";
+
+    /**
+     * persist parsed central directory of jar files, default dir is jar-index under the biz install dir
+     */
+    public final static String       ARK_LOADER_JAR_INDEX_ENABLE                   = "ark.loader.jar.index.enable";
+    public final static String       ARK_LOADER_JAR_INDEX_DIR                      = "ark.loader.jar.index.dir";
+
+    /**
+     * number of decoded entries cached per jar file, 0 to disable
+     */
+    public final static String       ARK_LOADER_JAR_ENTRY_CACHE_SIZE               = "ark.loader.jar.entry.cache.size";
+
+    /**
+     * number of idle inflaters pooled for reading compressed entries, 0 to disable
+     */
+    public final static String       ARK_LOADER_JAR_INFLATER_POOL_SIZE             = "ark.loader.jar.inflater.pool.size";
+
+    /**
+     * bounds of root jar files cached by the jar url handler, by number of files and by mega bytes mapped
+     */
+    public final static String       ARK_LOADER_JAR_ROOT_CACHE_MAX_FILES           = "ark.loader.jar.root.cache.max.files";
+    public final static String       ARK_LOADER_JAR_ROOT_CACHE_MAX_MAPPED_MB       = "ark.loader.jar.root.cache.max.mapped.mb";
+
+    /**
+     * list entries of exploded archives by walking the subfolders of the root in parallel
+     */
+    public final static String       ARK_LOADER_EXPLODED_PARALLEL_SCAN_ENABLE      = "ark.loader.exploded.parallel.scan.enable";
     /**
      * plugin conf, multi value is split by comma.
      */
@@ -74,6 +131,16 @@ public class Constants {
     public final static String       BIZ_ACTIVE_INCLUDE                            = "ark.biz.active.include";
     public final static String       BIZ_ACTIVE_EXCLUDE                            = "ark.biz.active.exclude";
 
+    /**
+     * biz class preload profile conf, classes loaded by the first start of a biz version are
+     * preloaded in parallel on later starts of the same version
+     */
+    public final static String       ARK_BIZ_CLASS_PRELOAD_ENABLE                  = "ark.biz.class.preload.enable";
+    public final static String       ARK_BIZ_CLASS_PRELOAD_THREADS                 = "ark.biz.class.preload.threads";
+    public final static String       ARK_BIZ_CLASS_PRELOAD_TIMEOUT                 = "ark.biz.class.preload.timeout.ms";
+    public final static String       ARK_BIZ_CLASS_PRELOAD_SIZE_MAX                = "ark.biz.class.preload.size.max";
+    public final static String       BIZ_CLASS_PRELOAD_PROFILE_SUFFIX              = ".preload";
+
     /**
      * Archiver Marker
      */
@@ -83,6 +150,11 @@ public class Constants {
 
     public final static String       ARK_BIZ_MARK_ENTRY                            = "com/alipay/sofa/ark/biz/mark";
 
+    /**
+     * classpath index of ark biz and ark plugin archives, see ClassPathIndex
+     */
+    public final static String       ARK_CLASSPATH_INDEX_ENTRY                     = "META-INF/ark-classpath.idx";
+
     /**
      * Ark Plugin Attribute
      */
@@ -219,6 +291,11 @@ public class Constants {
      */
     public final static String       UNPACK_BIZ_WHEN_INSTALL                       = "sofa.ark.unpack.biz.when.install";
 
+    /**
+     * max number of threads extracting a biz unpacked when install, default number of processors
+     */
+    public final static String       UNPACK_BIZ_PARALLELISM                        = "sofa.ark.unpack.biz.parallelism";
+
     /**
      * support multiple version biz as activated
      */
@@ -234,6 +311,7 @@ public class Constants {
      */
     public final static String       PLUGIN_COMMAND_UNIQUE_ID                      = "plugin-command-provider";
     public final static String       BIZ_COMMAND_UNIQUE_ID                         = "biz-command-provider";
+    public final static String       CLASSLOADER_COMMAND_UNIQUE_ID                 = "classloader-command-provider";
 
     /**
      * Ark SPI extension
@@ -243,6 +321,7 @@ public class Constants {
     public final static String       BIZ_CLASS_LOADER_HOOK                         = "biz-classloader-hook";
     public final static String       BIZ_CLASS_LOADER_HOOK_DIR                     = "com.alipay.sofa.ark.biz.classloader.hook.dir";
     public final static String       BIZ_TEMP_WORK_DIR_RECYCLE_FILE_SUFFIX         = "deleted";
+    public final static String       BIZ_UNPACK_DIR_SUFFIX                         = "-unpack";
 
     /**
      * Multiply biz name
@@ -262,6 +341,11 @@ public class Constants {
     public final static String       CONFIG_INSTALL_BIZ_DIR                        = "com.alipay.sofa.ark.biz.dir";
     public final static String       CONFIG_INSTALL_PLUGIN_DIR                     = "com.alipay.sofa.ark.plugin.dir";
     public final static String       CONFIG_BIZ_URL                                = "bizUrl";
+    /**
+     * optional checks of biz downloaded from bizUrl, digest is hex optionally prefixed by the algorithm like 'SHA-1:', SHA-256 by default
+     */
+    public final static String       CONFIG_BIZ_DIGEST                             = "bizDigest";
+    public final static String       CONFIG_BIZ_SIZE                               = "bizSize";
     public final static String       BIZ_EXTENSION_URLS                            = "bizExtensionUrls";
 
     public final static String       CONFIG_CONNECT_TIMEOUT                        = "com.alipay.sofa.ark.config.connect.timeout";
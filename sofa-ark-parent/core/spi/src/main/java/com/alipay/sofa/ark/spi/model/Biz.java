@@ -18,7 +18,9 @@ package com.alipay.sofa.ark.spi.model;
 
 import com.alipay.sofa.ark.spi.service.PriorityOrdered;
 
+import java.io.IOException;
 import java.net.URL;
+import java.util.Enumeration;
 import java.util.Map;
 
 /**
@@ -55,6 +57,30 @@ public interface Biz extends BizInfo, PriorityOrdered {
      */
     boolean isDeclared(URL url, String resourceName);
 
+    /**
+     * check class loaded by other classLoader whether declared in this biz, first by the code
+     * source of the class and then by each jar which provides the class file.
+     * @param clazz class loaded by classLoader
+     * @param classLoader classLoader which provides the class
+     * @return true if the class is declared
+     * @throws IOException if fail to enumerate the class file resources
+     */
+    default boolean isDeclaredClass(Class<?> clazz, ClassLoader classLoader) throws IOException {
+        if (clazz.getProtectionDomain().getCodeSource() != null
+            && isDeclared(clazz.getProtectionDomain().getCodeSource().getLocation(), "")) {
+            return true;
+        }
+        String classResourceName = clazz.getName().replace('.', '/') + ".class";
+        Enumeration<URL> urls = classLoader.getResources(classResourceName);
+        while (urls.hasMoreElements()) {
+            URL resourceUrl = urls.nextElement();
+            if (resourceUrl != null && isDeclared(resourceUrl, classResourceName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * check whether this biz is declared mode.
      * declared mode means this biz can only delegate declared class and resources
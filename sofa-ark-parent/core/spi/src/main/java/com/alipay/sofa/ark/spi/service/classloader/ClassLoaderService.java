@@ -20,7 +20,9 @@ import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.model.Plugin;
 import com.alipay.sofa.ark.spi.service.ArkService;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ClassLoader Service
@@ -171,4 +173,33 @@ public interface ClassLoaderService extends ArkService {
      * @return
      */
     boolean isDeniedImportResource(String bizIdentity, String resourceName);
+
+    /**
+     * Enable or disable class loading instrumentation of biz and plugin classloaders
+     * @param enabled whether to record {@link ClassLoadingStatistics}
+     */
+    default void setClassLoadingInstrumentEnabled(boolean enabled) {
+    }
+
+    /**
+     * Whether class loading instrumentation is enabled
+     * @return
+     */
+    default boolean isClassLoadingInstrumentEnabled() {
+        return false;
+    }
+
+    /**
+     * Get class loading statistics of biz and plugin classloaders
+     * @return biz identity or plugin name to statistics, bizs come after plugins
+     */
+    default Map<String, ClassLoadingStatistics> getClassLoadingStatistics() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Clear class loading statistics of all biz and plugin classloaders
+     */
+    default void resetClassLoadingStatistics() {
+    }
 }
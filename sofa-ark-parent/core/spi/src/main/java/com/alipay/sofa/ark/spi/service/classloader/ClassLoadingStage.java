@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.service.classloader;
+
+/**
+ * Steps of biz and plugin class loading, in the order they are tried
+ *
+ * @since 2.3.3
+ */
+public enum ClassLoadingStage {
+    /**
+     * class already loaded by the classloader
+     */
+    FIND_LOADED,
+
+    /**
+     * JDK related class
+     */
+    JDK,
+
+    /**
+     * ark spi, api, log and exception class
+     */
+    ARK_SPI,
+
+    /**
+     * class loader hook before find class
+     */
+    PRE_FIND,
+
+    /**
+     * class exported by plugins
+     */
+    EXPORT,
+
+    /**
+     * class on classpath of the classloader
+     */
+    LOCAL,
+
+    /**
+     * class of java agent
+     */
+    AGENT,
+
+    /**
+     * class loader hook after find class
+     */
+    POST_FIND
+}
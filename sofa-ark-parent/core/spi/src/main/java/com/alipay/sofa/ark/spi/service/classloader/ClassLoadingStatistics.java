@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.service.classloader;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per classloader statistics of each {@link ClassLoadingStage}: hit count, miss count, total
+ * latency and latency histogram.
+ *
+ * <p>Recording is switched on and off globally. When it is off, {@link #start()} costs one
+ * volatile read and {@link #end(ClassLoadingStage, long, boolean)} returns immediately.</p>
+ *
+ * @since 2.3.3
+ */
+public class ClassLoadingStatistics {
+
+    /**
+     * upper bounds (inclusive) of latency histogram buckets in nanoseconds, the last bucket
+     * counts everything slower
+     */
+    public static final long[]      LATENCY_BUCKET_BOUNDS = { 1000L, 10000L, 100000L, 1000000L,
+            10000000L, 100000000L                        };
+
+    private static final long       NOT_RECORDING         = Long.MIN_VALUE;
+
+    private static volatile boolean enabled;
+
+    private final LongAdder[]       hitCounts;
+
+    private final LongAdder[]       missCounts;
+
+    private final LongAdder[]       totalNanos;
+
+    private final LongAdder[][]     histograms;
+
+    public ClassLoadingStatistics() {
+        int stages = ClassLoadingStage.values().length;
+        hitCounts = new LongAdder[stages];
+        missCounts = new LongAdder[stages];
+        totalNanos = new LongAdder[stages];
+        histograms = new LongAdder[stages][LATENCY_BUCKET_BOUNDS.length + 1];
+        for (int i = 0; i < stages; i++) {
+            hitCounts[i] = new LongAdder();
+            missCounts[i] = new LongAdder();
+            totalNanos[i] = new LongAdder();
+            for (int j = 0; j < histograms[i].length; j++) {
+                histograms[i][j] = new LongAdder();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ClassLoadingStatistics.enabled = enabled;
+    }
+
+    /**
+     * Start timing a stage
+     *
+     * @return start timestamp, to be passed to {@link #end(ClassLoadingStage, long, boolean)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : NOT_RECORDING;
+    }
+
+    /**
+     * Finish timing a stage
+     *
+     * @param stage class loading stage
+     * @param start value returned by {@link #start()}
+     * @param hit whether the stage found the class
+     */
+    public void end(ClassLoadingStage stage, long start, boolean hit) {
+        if (start == NOT_RECORDING) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        int index = stage.ordinal();
+        (hit ? hitCounts : missCounts)[index].increment();
+        totalNanos[index].add(nanos);
+        histograms[index][bucketOf(nanos)].increment();
+    }
+
+    private static int bucketOf(long nanos) {
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS.length; i++) {
+            if (nanos <= LATENCY_BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKET_BOUNDS.length;
+    }
+
+    public long getHitCount(ClassLoadingStage stage) {
+        return hitCounts[stage.ordinal()].sum();
+    }
+
+    public long getMissCount(ClassLoadingStage stage) {
+        return missCounts[stage.ordinal()].sum();
+    }
+
+    public long getTotalNanos(ClassLoadingStage stage) {
+        return totalNanos[stage.ordinal()].sum();
+    }
+
+    /**
+     * Get latency histogram of stage
+     *
+     * @param stage class loading stage
+     * @return counts of each bucket, see {@link #LATENCY_BUCKET_BOUNDS}
+     */
+    public long[] getHistogram(ClassLoadingStage stage) {
+        LongAdder[] histogram = histograms[stage.ordinal()];
+        long[] counts = new long[histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            counts[i] = histogram[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Clear all recorded data
+     */
+    public void reset() {
+        for (int i = 0; i < hitCounts.length; i++) {
+            hitCounts[i].reset();
+            missCounts[i].reset();
+            totalNanos[i].reset();
+            for (LongAdder bucket : histograms[i]) {
+                bucket.reset();
+            }
+        }
+    }
+}
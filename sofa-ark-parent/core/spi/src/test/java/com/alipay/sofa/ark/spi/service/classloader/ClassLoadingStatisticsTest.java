@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.ark.spi.service.classloader;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStage.JDK;
+import static com.alipay.sofa.ark.spi.service.classloader.ClassLoadingStage.LOCAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClassLoadingStatisticsTest {
+
+    @After
+    public void after() {
+        ClassLoadingStatistics.setEnabled(false);
+    }
+
+    @Test
+    public void testDisabled() {
+        ClassLoadingStatistics statistics = new ClassLoadingStatistics();
+        statistics.end(JDK, statistics.start(), true);
+        assertEquals(0, statistics.getHitCount(JDK));
+        assertEquals(0, statistics.getMissCount(JDK));
+    }
+
+    @Test
+    public void testRecord() {
+        ClassLoadingStatistics.setEnabled(true);
+        ClassLoadingStatistics statistics = new ClassLoadingStatistics();
+        statistics.end(JDK, statistics.start(), true);
+        statistics.end(JDK, statistics.start(), false);
+        statistics.end(JDK, statistics.start(), false);
+        statistics.end(LOCAL, System.nanoTime() - 200000000L, true);
+
+        assertEquals(1, statistics.getHitCount(JDK));
+        assertEquals(2, statistics.getMissCount(JDK));
+        assertEquals(1, statistics.getHitCount(LOCAL));
+        assertTrue(statistics.getTotalNanos(LOCAL) >= 200000000L);
+
+        long[] histogram = statistics.getHistogram(LOCAL);
+        assertEquals(ClassLoadingStatistics.LATENCY_BUCKET_BOUNDS.length + 1, histogram.length);
+        assertEquals(1, histogram[histogram.length - 1]);
+        long total = 0;
+        for (long count : statistics.getHistogram(JDK)) {
+            total += count;
+        }
+        assertEquals(3, total);
+
+        statistics.reset();
+        assertEquals(0, statistics.getHitCount(JDK));
+        assertEquals(0, statistics.getTotalNanos(LOCAL));
+    }
+}
@@ -297,6 +297,13 @@ public class RepackageMojo extends TreeMojo {
     @Parameter(defaultValue = "true")
     private boolean                keepArkBizJar;
 
+    /**
+     * whether to build classpath index into ark biz jar, which saves classpath scanning of biz
+     * classloader
+     */
+    @Parameter(defaultValue = "true")
+    private boolean                buildClassPathIndex;
+
     /**
      * web context path when biz is web app. it must start with "/", default value is "/"
      */
@@ -621,6 +628,7 @@ public class RepackageMojo extends TreeMojo {
         repackager.setPackageProvided(packageProvided);
         repackager.setSkipArkExecutable(skipArkExecutable);
         repackager.setKeepArkBizJar(keepArkBizJar);
+        repackager.setBuildClassPathIndex(buildClassPathIndex);
         repackager.setBaseDir(baseDir);
         repackager.setWebContextPath(webContextPath);
         repackager.setDeclaredMode(declaredMode);
@@ -28,6 +28,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
@@ -152,6 +153,12 @@ public class ArkPluginMojo extends AbstractMojo {
     @Parameter(defaultValue = "true")
     protected Boolean               exportPluginClass;
 
+    /**
+     * Build classpath index into ark plugin, which saves classpath scanning of plugin classloader
+     */
+    @Parameter(defaultValue = "true")
+    protected boolean               buildClassPathIndex;
+
     private static final String     ARCHIVE_MODE       = "zip";
     private static final String     PLUGIN_SUFFIX      = ".ark.plugin";
     private static final String     TEMP_PLUGIN_SUFFIX = ".ark.plugin.bak";
@@ -225,16 +232,33 @@ public class ArkPluginMojo extends AbstractMojo {
         JarWriter writer = new JarWriter(pluginFile);
         JarFile tmpJarFile = new JarFile(tmpPluginFile);
         try {
+            if (buildClassPathIndex) {
+                writer.enableClassPathIndex();
+            }
             writer.writeEntries(tmpJarFile);
             for (Artifact jar : shadeJars) {
                 writer.writeEntries(new JarFile(jar.getFile()));
             }
+            if (buildClassPathIndex) {
+                indexNestedJars(writer, tmpJarFile);
+                writer.writeClassPathIndex();
+            }
         } finally {
             writer.close();
             tmpJarFile.close();
         }
     }
 
+    private void indexNestedJars(JarWriter writer, JarFile pluginFile) throws IOException {
+        Enumeration<JarEntry> entries = pluginFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (entry.getName().startsWith("lib/") && !entry.isDirectory()) {
+                writer.indexNestedJar(entry.getName(), pluginFile.getInputStream(entry));
+            }
+        }
+    }
+
     public LinkedHashSet<String> getShades() {
         return shades;
     }
@@ -16,6 +16,8 @@
  */
 package com.alipay.sofa.ark.plugin.mojo;
 
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
+import com.alipay.sofa.ark.spi.constant.Constants;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.handler.DefaultArtifactHandler;
@@ -31,8 +33,12 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -134,8 +140,21 @@ public class ArkPluginMojoTest {
         arkPluginMojo.description = "yyy";
         arkPluginMojo.workDirectory = new File("./");
         arkPluginMojo.exportPluginClass = true;
+        arkPluginMojo.buildClassPathIndex = true;
         arkPluginMojo.execute();
         assertEquals(4, finalResourcesCountInJar.get());
+
+        try (JarFile pluginJar = new JarFile(new File(outputDirectory, "xxx.ark.plugin"))) {
+            ClassPathIndex index = ClassPathIndex.read(pluginJar.getInputStream(pluginJar
+                .getEntry(Constants.ARK_CLASSPATH_INDEX_ENTRY)));
+            assertEquals(ClassPathIndex.ROOT, index.getJarName(0));
+            assertNotEquals(ClassPathIndex.NO_MANIFEST, index.getManifestDigest(0));
+            assertArrayEquals(new int[] { 0 }, index.getOwners("com/alipay/sofa/ark/plugin"));
+            assertTrue(index.getJarCount() > 1);
+            for (int i = 1; i < index.getJarCount(); i++) {
+                assertTrue(index.getJarName(i).startsWith("lib/"));
+            }
+        }
     }
 
     @Test
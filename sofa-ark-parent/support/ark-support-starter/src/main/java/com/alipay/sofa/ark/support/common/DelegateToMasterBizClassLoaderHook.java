@@ -18,7 +18,6 @@ package com.alipay.sofa.ark.support.common;
  */
 
 import com.alipay.sofa.ark.api.ArkClient;
-import com.alipay.sofa.ark.common.log.ArkLoggerFactory;
 import com.alipay.sofa.ark.spi.model.Biz;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderHook;
 import com.alipay.sofa.ark.spi.service.classloader.ClassLoaderService;
@@ -62,21 +61,9 @@ public class DelegateToMasterBizClassLoaderHook implements ClassLoaderHook<Biz>
         // if Master Biz contains same class in multi jar, need to check each whether is provided
         Class<?> clazz = masterClassLoader.loadClass(name);
         if (clazz != null) {
-            if (biz.isDeclared(clazz.getProtectionDomain().getCodeSource().getLocation(), "")) {
-                return clazz;
-            }
-
             try {
-                String classResourceName = name.replace('.', '/') + ".class";
-                Enumeration<URL> urls = masterClassLoader.getResources(classResourceName);
-                while (urls.hasMoreElements()) {
-                    URL resourceUrl = urls.nextElement();
-                    if (resourceUrl != null && biz.isDeclared(resourceUrl, classResourceName)) {
-                        ArkLoggerFactory.getDefaultLogger().warn(
-                            String.format("find class %s from %s in multiple dependencies.", name,
-                                resourceUrl.getFile()));
-                        return clazz;
-                    }
+                if (biz.isDeclaredClass(clazz, masterClassLoader)) {
+                    return clazz;
                 }
             } catch (IOException e) {
                 return null;
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.tools;
 
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
 import com.alipay.sofa.ark.common.util.FileUtils;
 import com.alipay.sofa.ark.spi.constant.Constants;
 
@@ -26,6 +27,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.jar.*;
 import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import java.util.zip.ZipEntry;
 
 /**
@@ -36,21 +38,25 @@ import java.util.zip.ZipEntry;
  */
 public class JarWriter implements LoaderClassesWriter {
 
-    private static final String   NESTED_ARCHIVE_LOADER_JAR               = "sofa-ark-archive";
-    private static final String   NESTED_SPI_LOADER_JAR                   = "sofa-ark-spi";
-    private static final String   NESTED_COMMON_LOADER_JAR                = "sofa-ark-common";
-    private static final String   NESTED_ARCHIVE_LOADER_CLASS_PREFIX      = "com/alipay/sofa/ark/bootstrap";
-    private static final String   NESTED_ARCHIVE_BOOTSTRAP_CLASS_PREFIX   = "com/alipay/sofa/ark/loader";
-    private static final String   NESTED_SPI_ARCHIVE_LOADER_CLASS_PREFIX  = "com/alipay/sofa/ark/spi/archive";
-    private static final String   NESTED_ARCHIVE_STRING_UTIL_CLASS_PREFIX = "com/alipay/sofa/ark/common/util/StringUtils";
-    private static final String   NESTED_ARCHIVE_ASSERT_UTIL_CLASS_PREFIX = "com/alipay/sofa/ark/common/util/AssertUtils";
-    private static final String   NESTED_SPI_CONSTANT_CLASS_PREFIX        = "com/alipay/sofa/ark/spi/constant";
+    private static final String    NESTED_ARCHIVE_LOADER_JAR               = "sofa-ark-archive";
+    private static final String    NESTED_SPI_LOADER_JAR                   = "sofa-ark-spi";
+    private static final String    NESTED_COMMON_LOADER_JAR                = "sofa-ark-common";
+    private static final String    NESTED_ARCHIVE_LOADER_CLASS_PREFIX      = "com/alipay/sofa/ark/bootstrap";
+    private static final String    NESTED_ARCHIVE_BOOTSTRAP_CLASS_PREFIX   = "com/alipay/sofa/ark/loader";
+    private static final String    NESTED_SPI_ARCHIVE_LOADER_CLASS_PREFIX  = "com/alipay/sofa/ark/spi/archive";
+    private static final String    NESTED_ARCHIVE_STRING_UTIL_CLASS_PREFIX = "com/alipay/sofa/ark/common/util/StringUtils";
+    private static final String    NESTED_ARCHIVE_ASSERT_UTIL_CLASS_PREFIX = "com/alipay/sofa/ark/common/util/AssertUtils";
+    private static final String    NESTED_SPI_CONSTANT_CLASS_PREFIX        = "com/alipay/sofa/ark/spi/constant";
 
-    private static final int      BUFFER_SIZE                             = 32 * 1024;
+    private static final int       BUFFER_SIZE                             = 32 * 1024;
 
-    private final JarOutputStream jarOutput;
+    private final JarOutputStream  jarOutput;
 
-    private final Set<String>     writtenEntries                          = new HashSet<>();
+    private final Set<String>      writtenEntries                          = new HashSet<>();
+
+    private ClassPathIndex.Builder classPathIndex;
+
+    private int                    rootJar;
 
     /**
      * Create a new {@link JarWriter} instance.
@@ -80,6 +86,49 @@ public class JarWriter implements LoaderClassesWriter {
         });
     }
 
+    /**
+     * Record entries written from now on into a {@link ClassPathIndex}, which is written by
+     * {@link #writeClassPathIndex()}. Entries are indexed as entries of the jar being written,
+     * nested libraries are indexed with their own entries as well.
+     */
+    public void enableClassPathIndex() {
+        this.classPathIndex = new ClassPathIndex.Builder();
+        this.rootJar = this.classPathIndex.addJar(ClassPathIndex.ROOT);
+    }
+
+    /**
+     * Index entries of a nested jar already written, e.g. by {@link #writeEntries(JarFile)}
+     *
+     * @param entryName   the entry name of the nested jar
+     * @param inputStream the content of the nested jar, closed once indexed
+     * @throws IOException if the nested jar cannot be read
+     */
+    public void indexNestedJar(String entryName, InputStream inputStream) throws IOException {
+        try {
+            if (this.classPathIndex != null) {
+                this.classPathIndex.addJar(entryName, new BufferedInputStream(inputStream));
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Write the classpath index enabled by {@link #enableClassPathIndex()}, no more entries are
+     * indexed after that.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public void writeClassPathIndex() throws IOException {
+        if (this.classPathIndex == null) {
+            return;
+        }
+        ClassPathIndex index = this.classPathIndex.build();
+        this.classPathIndex = null;
+        writeEntry(Constants.ARK_CLASSPATH_INDEX_ENTRY,
+            new ByteArrayInputStream(index.toByteArray()));
+    }
+
     public void writeMarkEntry() throws IOException {
         String str = "a mark file included in sofa-ark module.";
         writeEntry(Constants.ARK_BIZ_MARK_ENTRY,
@@ -161,7 +210,9 @@ public class JarWriter implements LoaderClassesWriter {
             entry.setComment("UNPACK:" + FileUtils.sha1Hash(file));
         }
         new CrcAndSize(file).setupStoredEntry(entry);
-        writeEntry(entry, new InputStreamEntryWriter(new FileInputStream(file), true));
+        if (writeEntry(entry, new InputStreamEntryWriter(new FileInputStream(file), true))) {
+            indexNestedJar(entry.getName(), new FileInputStream(file));
+        }
     }
 
     private long getNestedLibraryTime(File file) {
@@ -217,9 +268,10 @@ public class JarWriter implements LoaderClassesWriter {
      *
      * @param entry       the entry to write
      * @param entryWriter the entry writer or {@code null} if there is no content
+     * @return false if an entry with the same name has been written
      * @throws IOException in case of I/O errors
      */
-    private void writeEntry(JarEntry entry, EntryWriter entryWriter) throws IOException {
+    private boolean writeEntry(JarEntry entry, EntryWriter entryWriter) throws IOException {
         String parent = entry.getName();
         if (parent.endsWith("/")) {
             parent = parent.substring(0, parent.length() - 1);
@@ -234,10 +286,24 @@ public class JarWriter implements LoaderClassesWriter {
         if (this.writtenEntries.add(entry.getName())) {
             this.jarOutput.putNextEntry(entry);
             if (entryWriter != null) {
-                entryWriter.write(this.jarOutput);
+                if (this.classPathIndex != null
+                    && ClassPathIndex.MANIFEST_NAME.equals(entry.getName())) {
+                    CheckedOutputStream outputStream = new CheckedOutputStream(this.jarOutput,
+                        new CRC32());
+                    entryWriter.write(outputStream);
+                    this.classPathIndex.setManifestDigest(this.rootJar, outputStream.getChecksum()
+                        .getValue());
+                } else {
+                    entryWriter.write(this.jarOutput);
+                }
+                if (this.classPathIndex != null) {
+                    this.classPathIndex.addEntry(this.rootJar, entry.getName());
+                }
             }
             this.jarOutput.closeEntry();
+            return true;
         }
+        return false;
     }
 
     /**
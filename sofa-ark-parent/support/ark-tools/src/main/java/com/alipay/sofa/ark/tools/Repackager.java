@@ -92,6 +92,8 @@ public class Repackager {
 
     private boolean                               declaredMode;
 
+    private boolean                               buildClassPathIndex                = true;
+
     private String                                arkVersion                         = null;
 
     private Library                               arkContainerLibrary                = null;
@@ -283,11 +285,15 @@ public class Repackager {
         Manifest manifest = buildModuleManifest(jarFileSource);
 
         try {
+            if (buildClassPathIndex) {
+                writer.enableClassPathIndex();
+            }
             writer.writeManifest(manifest);
             writeConfDir(new File(baseDir, Constants.CONF_BASE_DIR), writer);
             writer.writeEntries(jarFileSource);
             writer.writeMarkEntry();
             writeNestedLibraries(standardLibraries, Layouts.Module.module(), writer);
+            writer.writeClassPathIndex();
         } finally {
             jarFileSource.close();
             try {
@@ -626,4 +632,8 @@ public class Repackager {
         return declaredMode;
     }
 
+    public void setBuildClassPathIndex(boolean buildClassPathIndex) {
+        this.buildClassPathIndex = buildClassPathIndex;
+    }
+
 }
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.tools;
 
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
 import com.alipay.sofa.ark.tools.JarWriter.ZipHeaderPeekInputStream;
 import org.junit.After;
 import org.junit.Before;
@@ -28,8 +29,11 @@ import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSPATH_INDEX_ENTRY;
 import static com.alipay.sofa.ark.tools.LibraryScope.MODULE;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author lylingzhen
@@ -77,4 +81,31 @@ public class JarWriterTest {
             new FileInputStream(jarFilePath));
         assertEquals(80, zipHeaderPeekInputStream.read());
     }
+
+    @Test
+    public void testWriteClassPathIndex() throws IOException {
+        jarWriter.enableClassPathIndex();
+        jarWriter.writeManifest(new Manifest());
+        jarWriter.writeMarkEntry();
+        jarWriter.writeNestedLibrary("lib/", new Library(new File(jarFilePath), MODULE));
+        jarWriter.writeClassPathIndex();
+        jarWriter.close();
+
+        try (JarFile jarFile = new JarFile(file); JarFile nestedJarFile = new JarFile(jarFilePath)) {
+            ClassPathIndex index = ClassPathIndex.read(jarFile.getInputStream(jarFile
+                .getEntry(ARK_CLASSPATH_INDEX_ENTRY)));
+            assertEquals(2, index.getJarCount());
+            assertEquals(0, index.indexOf(ClassPathIndex.ROOT));
+            assertEquals(1, index.indexOf("lib/test-jar.jar"));
+            assertEquals(jarFile.getEntry(ClassPathIndex.MANIFEST_NAME).getCrc(),
+                index.getManifestDigest(0));
+            assertEquals(nestedJarFile.getEntry(ClassPathIndex.MANIFEST_NAME).getCrc(),
+                index.getManifestDigest(1));
+            // the mark entry is written by both jars
+            assertArrayEquals(new int[] { 0, 1 }, index.getOwners("com/alipay/sofa/ark/biz"));
+            assertArrayEquals(new int[] { 0 }, index.getOwners("lib"));
+            assertArrayEquals(new int[] { 1 }, index.getOwners("META-INF/spring"));
+            assertNull(index.getOwners("com/alipay/sofa/ark"));
+        }
+    }
 }
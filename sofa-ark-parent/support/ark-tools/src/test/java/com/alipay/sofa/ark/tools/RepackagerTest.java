@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.ark.tools;
 
+import com.alipay.sofa.ark.common.util.ClassPathIndex;
 import com.alipay.sofa.ark.tools.Repackager.RenamingEntryTransformer;
 import com.alipay.sofa.ark.tools.git.GitInfo;
 import org.junit.Before;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import static com.alipay.sofa.ark.spi.constant.Constants.ARK_CLASSPATH_INDEX_ENTRY;
 import static com.alipay.sofa.ark.tools.LibraryScope.*;
 import static com.alipay.sofa.ark.tools.Repackager.isZip;
 import static com.google.common.collect.Lists.newArrayList;
@@ -104,6 +106,18 @@ public class RepackagerTest {
         assertEquals(MODULE, ((List<Library>) field.get(repackager)).get(0).getScope());
         assertEquals("com.alipay.sofa.ark.sample.springbootdemo.SpringbootDemoApplication",
                 repackager.findMainMethodWithTimeoutWarning(new JarFile(jarFile)));
+
+        try (JarFile moduleJar = new JarFile(new File("./target/module"))) {
+            ClassPathIndex index = ClassPathIndex.read(moduleJar.getInputStream(moduleJar
+                .getEntry(ARK_CLASSPATH_INDEX_ENTRY)));
+            assertEquals(1, index.getJarCount());
+            assertEquals(ClassPathIndex.ROOT, index.getJarName(0));
+            assertEquals(moduleJar.getEntry(ClassPathIndex.MANIFEST_NAME).getCrc(),
+                index.getManifestDigest(0));
+            assertArrayEquals(new int[] { 0 }, index.getOwners("META-INF/spring"));
+            assertArrayEquals(new int[] { 0 }, index.getOwners("com/alipay/sofa/ark/biz"));
+            assertNull(index.getOwners("com/alipay/sofa/ark"));
+        }
     }
 
     @Test